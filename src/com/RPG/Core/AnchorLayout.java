@@ -0,0 +1,218 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable, shared layout of the anchorpoints of an entity
+ *
+ * @invar the mask of a layout has a bit set for every anchorpoint in the layout and for no other anchorpoint
+ *      | for each anchorPoint in AnchorPoint.values()
+ *      |   contains(anchorPoint) == (count(anchorPoint) > 0)
+ *
+ * @note a layout keeps the order in which the anchorpoints were given, an anchorpoint may appear more than once,
+ * like the two BODY anchorpoints of some monsters. Equal layouts are shared between all entities that use them
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public final class AnchorLayout {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing all layouts that have been created, keyed by their anchorpoints in order
+     */
+    private static final Map<List<AnchorPoint>, AnchorLayout> layouts = new ConcurrentHashMap<>();
+
+    /**
+     * A variable representing the anchorpoints of the layout, in order
+     */
+    private final AnchorPoint[] anchorPoints;
+
+    /**
+     * A variable representing a bitmask with the bit at the ordinal of every anchorpoint of the layout set
+     */
+    private final int mask;
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for a layout with the given anchorpoints
+     *
+     * @param anchorPoints
+     *      the anchorpoints of the layout, in order
+     *
+     * @post the anchorpoints of the layout are set
+     *      | this.anchorPoints = anchorPoints
+     *
+     * @post the mask of the layout is set
+     *      | for each anchorPoint in anchorPoints
+     *      |   this.mask |= bit(anchorPoint)
+     */
+    private AnchorLayout(AnchorPoint[] anchorPoints) {
+        int layoutMask = 0;
+        for (AnchorPoint anchorPoint : anchorPoints) {
+            layoutMask |= bit(anchorPoint);
+        }
+        this.anchorPoints = anchorPoints;
+        this.mask = layoutMask;
+    }
+
+    /**********************************************************
+     * Getters and Setters
+     **********************************************************/
+
+    /**
+     * getter for the amount of anchorpoints in the layout, duplicates included
+     *
+     * @return the amount of anchorpoints
+     *      | this.anchorPoints.length
+     */
+    @Basic @Immutable
+    public int size() {
+        return anchorPoints.length;
+    }
+
+    /**
+     * getter for the anchorpoint at a certain index
+     *
+     * @param index
+     *      the index of the anchorpoint
+     *
+     * @return the anchorpoint at the index, null if the index is out of range
+     *      | if (index < 0 || index >= size())
+     *      |   then result == null
+     *      | else result == this.anchorPoints[index]
+     */
+    public AnchorPoint get(int index) {
+        if (index < 0 || index >= anchorPoints.length) {
+            return null;
+        }
+        return anchorPoints[index];
+    }
+
+    /**
+     * getter for the bitmask of the layout
+     *
+     * @return the bitmask with the bit at the ordinal of every anchorpoint of the layout set
+     *      | this.mask
+     */
+    @Basic @Immutable
+    public int getMask() {
+        return mask;
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * returns the layout with the given anchorpoints
+     *
+     * @param anchorPoints
+     *      the anchorpoints of the layout, in order
+     *
+     * @return a shared layout with the given anchorpoints in the given order
+     *
+     * @throws NullPointerException if the anchorpoints or one of them are null
+     */
+    public static AnchorLayout of(List<AnchorPoint> anchorPoints) {
+        AnchorLayout layout = layouts.get(anchorPoints);
+        if (layout != null) {
+            return layout;
+        }
+        AnchorPoint[] copy = anchorPoints.toArray(new AnchorPoint[0]);
+        return layouts.computeIfAbsent(List.of(copy), key -> new AnchorLayout(copy));
+    }
+
+    /**
+     * returns the layout with the given anchorpoints
+     *
+     * @param anchorPoints
+     *      the anchorpoints of the layout, in order
+     *
+     * @return a shared layout with the given anchorpoints in the given order
+     *      | result == of(Arrays.asList(anchorPoints))
+     */
+    public static AnchorLayout of(AnchorPoint... anchorPoints) {
+        return of(Arrays.asList(anchorPoints));
+    }
+
+    /**
+     * returns the bit of an anchorpoint in a mask
+     *
+     * @param anchorPoint
+     *      the anchorpoint
+     *
+     * @return the bit at the ordinal of the anchorpoint
+     *      | result == 1 << anchorPoint.ordinal()
+     */
+    public static int bit(AnchorPoint anchorPoint) {
+        return 1 << anchorPoint.ordinal();
+    }
+
+    /**
+     * checks whether the layout contains an anchorpoint
+     *
+     * @param anchorPoint
+     *      the anchorpoint we are looking for
+     *
+     * @return true if the layout contains the anchorpoint, false otherwise or if the anchorpoint is null
+     *      | result == anchorPoint != null && (getMask() & bit(anchorPoint)) != 0
+     */
+    public boolean contains(AnchorPoint anchorPoint) {
+        return anchorPoint != null && (mask & bit(anchorPoint)) != 0;
+    }
+
+    /**
+     * counts how often an anchorpoint appears in the layout
+     *
+     * @param anchorPoint
+     *      the anchorpoint we want to count
+     *
+     * @return the amount of times the anchorpoint appears
+     */
+    public int count(AnchorPoint anchorPoint) {
+        if (!contains(anchorPoint)) {
+            return 0;
+        }
+        int count = 0;
+        for (AnchorPoint candidate : anchorPoints) {
+            if (candidate == anchorPoint) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * checks whether the layout holds some anchorpoint more than once
+     *
+     * @return true if the layout has duplicate anchorpoints, false otherwise
+     *      | result == Integer.bitCount(getMask()) != size()
+     */
+    public boolean hasDuplicates() {
+        return Integer.bitCount(mask) != anchorPoints.length;
+    }
+
+    /**
+     * returns a textual representation of the layout
+     *
+     * @return the anchorpoints of the layout, in order
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(anchorPoints);
+    }
+}
@@ -7,9 +7,15 @@ import com.RPG.Exception.InvalidHolderException;
 import com.RPG.Exception.InvalidItemsException;
 import com.RPG.Exception.InvalidValueException;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * A class representing a BackPack Item
@@ -33,9 +39,9 @@ public class Backpack extends Item {
      **********************************************************/
 
     /**
-     * An arraylist representing the content of the backpack
+     * A variable representing the content of the backpack, together with the running totals of its weight and value
      */
-    private ArrayList<Item> Content = new ArrayList<>();
+    private BackpackContent Content = new BackpackContent();
 
     /**
      * A variable representing the capacity of  a backpack
@@ -58,9 +64,14 @@ public class Backpack extends Item {
     private static final int defaultValue = 20;
 
     /**
-     * A variable Representing A thread-safe atomic counter used to generate unique IDs starting at 0
+     * A variable representing the time packOptimally may search for the most valuable choice by default
      */
-    private static final AtomicLong idGenerator = new AtomicLong(0);
+    private static final Duration defaultPackingBudget = Duration.ofMillis(50);
+
+    /**
+     * A variable representing the allocator of the ids of backpacks, the positive longs
+     */
+    private static final ItemIdAllocator idAllocator = new ItemIdAllocator(1, 1, 64);
 
     /**********************************************************
      * Constructors
@@ -118,9 +129,7 @@ public class Backpack extends Item {
         if (Holder != null && Holder.canEquip(this)) {
             Holder.equip(anchorPoint, this);
         }
-        for (Item item : Content) {
-            this.storeItem(item);
-        }
+        this.storeAll(Content);
     }
 
     /**
@@ -150,7 +159,6 @@ public class Backpack extends Item {
     public Backpack( double weight, int Value, int Capacity, Entity Holder, AnchorPoint anchorPoint, ShineLevel shinelevel) throws InvalidValueException, InvalidHolderException {
         super(weight, Value, Holder, anchorPoint, shinelevel, ItemType.BACKPACK);
         this.setCapacity(Capacity);
-        this.Content = new ArrayList<Item>();
     }
 
     /**
@@ -219,7 +227,7 @@ public class Backpack extends Item {
      */
     @Raw
     public Item getItemAt(int index){
-        if(index >= this.getAmountOfItems()){
+        if(index < 0 || index >= this.getAmountOfItems()){
             return null;
         }
         return Content.get(index);
@@ -228,18 +236,12 @@ public class Backpack extends Item {
     /**
      * generates a unique id for every backpack
      *
-     * @return the uniquely created Id
-     *      | nextId = IdGenerator
-     *      | idGenerator + 1
-     *      | result = nextId
+     * @return the uniquely created Id, a positive long
+     *      | result = idAllocator.nextId()
      */
     @Override @Raw
     protected long generateUniqueId() {
-        long nextId;
-        do {
-            nextId = idGenerator.getAndAdd(1);
-        } while (nextId <= 0);
-        return nextId;
+        return idAllocator.nextId();
     }
 
     /**
@@ -269,21 +271,185 @@ public class Backpack extends Item {
     /**
      * getter for the weight of the content of a backpack
      *
-     * @return the weight of every item in the backpack combined plus the backpacks own weight
+     * @return the weight of every item in the backpack combined, kept up to date by every store and unpack
      *      | TotalWeight == 0
      *      | for each item in Content
-     *      |   TotalWeight += item.getWeight
+     *      |   TotalWeight += item.getTotalWeight()
      *      | result == TotalWeight
+     *
+     * @note when assertions are enabled the running total is checked against a full recount
      */
     @Raw
     public double getContentWeight(){
-        double totalWeight = 0;
-        if (!(Content ==  null)) {
-            for (Item item : Content) {
-                totalWeight += item.getTotalWeight();
+        if (Content == null) return 0;
+        assert Entity.isSameWeight(Content.getWeight(), recountContentWeight()) : "running content weight of backpack " + getId() + " is out of sync";
+        return Content.getWeight();
+    }
+
+    /**
+     * getter for the totalValue of a backpack
+     *
+     * @return the value of every item in the backpack combined plus the backpacks own value
+     *      | result == this.getValue() + getContentValue()
+     */
+    @Override @Raw
+    public long getTotalValue(){
+        return this.getValue() + getContentValue();
+    }
+
+    /**
+     * getter for the value of the content of a backpack
+     *
+     * @return the value of every item in the backpack combined, kept up to date by every store and unpack
+     *      | TotalValue == 0
+     *      | for each item in Content
+     *      |   TotalValue += item.getTotalValue()
+     *      | result == TotalValue
+     *
+     * @note when assertions are enabled the running total is checked against a full recount
+     */
+    @Raw
+    public long getContentValue(){
+        if (Content == null) return 0;
+        assert Content.getValue() == recountContentValue() : "running content value of backpack " + getId() + " is out of sync";
+        return Content.getValue();
+    }
+
+    /**
+     * sorts a stored item again in the indexes of a backpack, after its own weight or value may have changed
+     *
+     * @param item
+     *      the stored item that changed
+     *
+     * @effect if the indexes are enabled, the item is sorted by its current weight and value
+     *      | if (isIndexed())
+     *      |   then Content.getIndex().update(item)
+     */
+    @Model
+    void updateIndex(Item item){
+        BackpackIndex index = this.Content.getIndex();
+        if (index != null) {
+            index.update(item);
+        }
+    }
+
+    /**
+     * adjusts the running totals of the content of a backpack and passes the changes on to whatever contains the
+     * backpack, unless a batch is open
+     *
+     * @param weightDelta
+     *      the change in weight of the content
+     *
+     * @param valueDelta
+     *      the change in value of the content
+     *
+     * @post the content weight and content value are adjusted
+     *      | this.Content.weight += weightDelta && this.Content.value += valueDelta
+     *
+     * @effect if no batch is open, the total weight and total value of this backpack changed by the same amounts
+     *      | if (!isBatched())
+     *      |   then propagateChange(weightDelta, valueDelta)
+     *
+     * @post if a batch is open, the changes are kept until the last batch is closed
+     *      | if (isBatched())
+     *      |   then this.Content.pendingWeight += weightDelta && this.Content.pendingValue += valueDelta
+     */
+    @Model
+    void adjustContent(double weightDelta, long valueDelta){
+        this.Content.adjust(weightDelta, valueDelta);
+        if (!this.Content.isBatched()) {
+            this.propagateChange(weightDelta, valueDelta);
+        }
+    }
+
+    /**
+     * recounts the weight of the content of a backpack without using any cached weight
+     *
+     * @return the recounted weight of every item in the backpack combined
+     *      | for each item in Content
+     *      |   TotalWeight += item.recountTotalWeight()
+     *      | result == TotalWeight
+     */
+    @Model
+    double recountContentWeight(){
+        double recounted = 0;
+        for (int index = 0; index < getAmountOfItems(); index++) {
+            recounted += Content.get(index).recountTotalWeight();
+        }
+        return recounted;
+    }
+
+    /**
+     * recounts the totalweight of a backpack without using any cached weight, as it is seen by whatever contains it
+     *
+     * @return the weight of the backpack plus the recounted weight of its content, without the changes that are
+     * still pending in an open batch
+     *      | result == getWeight() + recountContentWeight() - Content.getPendingWeight()
+     */
+    @Override @Model
+    double recountTotalWeight(){
+        double pending = (Content == null) ? 0 : Content.getPendingWeight();
+        return getWeight() + recountContentWeight() - pending;
+    }
+
+    /**
+     * recounts the value of the content of a backpack without using any cached value
+     *
+     * @return the recounted value of every item in the backpack combined
+     *      | for each item in Content
+     *      |   TotalValue += item.recountTotalValue()
+     *      | result == TotalValue
+     */
+    @Model
+    long recountContentValue(){
+        long recounted = 0;
+        for (int index = 0; index < getAmountOfItems(); index++) {
+            recounted += Content.get(index).recountTotalValue();
+        }
+        return recounted;
+    }
+
+    /**
+     * recounts the totalvalue of a backpack without using any cached value, as it is seen by whatever contains it
+     *
+     * @return the value of the backpack plus the recounted value of its content, without the changes that are still
+     * pending in an open batch
+     *      | result == getValue() + recountContentValue() - Content.getPendingValue()
+     */
+    @Override @Model
+    long recountTotalValue(){
+        long pending = (Content == null) ? 0 : Content.getPendingValue();
+        return getValue() + recountContentValue() - pending;
+    }
+
+    /**
+     * checks whether a batch is open on this backpack
+     *
+     * @return true if a batch is open, false otherwise
+     */
+    @Raw
+    public boolean isBatched(){
+        return Content != null && Content.isBatched();
+    }
+
+    /**
+     * getter for the weight that was stored in or unpacked from this backpack and the backpacks it is stored in, but
+     * was not passed on to the holder yet
+     *
+     * @return the pending weight of this backpack and of every backpack it is stored in combined
+     *      | for (Backpack container = this; container != null; container = container.getBackpack())
+     *      |   pending += container.Content.getPendingWeight()
+     *      | result == pending
+     */
+    @Model
+    double getDeferredWeight(){
+        double deferred = 0;
+        for (Backpack container = this; container != null; container = container.getBackpack()) {
+            if (container.Content != null) {
+                deferred += container.Content.getPendingWeight();
             }
         }
-        return totalWeight;
+        return deferred;
     }
 
     /**********************************************************
@@ -300,15 +466,53 @@ public class Backpack extends Item {
         return this.getTotalWeight() <= this.Capacity;
     }
 
+    /**
+     * opens a batch on a backpack, so several stores and unpacks only pass their changes in weight and value on to
+     * whatever contains the backpack once
+     *
+     * @return a batch that passes on every pending change when the last batch on this backpack is closed
+     *
+     * @post a batch is open
+     *      | isBatched()
+     *
+     * @note while a batch is open the backpacks this backpack is stored in and its holder do not see the changes yet.
+     * Their own totals stay consistent with what they see, and a backpack that is moved passes its pending changes on
+     * first
+     */
+    public Batch batch(){
+        Content.openBatch();
+        return new Batch(this);
+    }
+
+    /**
+     * passes every pending change of an open batch on to whatever contains this backpack
+     *
+     * @effect the pending changes are passed on and forgotten
+     *      | propagateChange(Content.getPendingWeight(), Content.getPendingValue()) && Content.clearPending()
+     */
+    @Override @Model
+    void flushPendingChanges(){
+        if (Content == null) return;
+        double weightDelta = Content.getPendingWeight();
+        long valueDelta = Content.getPendingValue();
+        Content.clearPending();
+        this.propagateChange(weightDelta, valueDelta);
+    }
+
     /**
      * stores an item in a backpack
      *
      * @param item
      *      the item we want to store
+     *
+     * @note in the concurrency mode the holder of this backpack and the holder of the item are locked while it is stored.
+     * An item that no entity holds is claimed for the holder of this backpack first, so no other entity can take it at
+     * the same time
      */
     @Raw
     public void storeItem(Item item){
-        this.addItem(item);
+        EntityLocks.write(this::getHolder, () -> item == null ? null : item.claimFor(this.getCarrier()),
+                () -> Item.moveClaimed(item, () -> this.addItem(item)));
     }
 
     /**
@@ -316,10 +520,295 @@ public class Backpack extends Item {
      *
      * @param item
      *      item we want to unpack
+     *
+     * @note in the concurrency mode the holder of this backpack is locked while the item is unpacked
      */
     @Raw
     public void unpackItem(Item item){
-        this.removeItem(item);
+        EntityLocks.write(this::getHolder, () -> null, () -> this.removeItem(item));
+    }
+
+    /**
+     * stores every item of a collection in a backpack, or none of them
+     *
+     * @param items
+     *      the items we want to store
+     *
+     * @post every item is stored in this backpack
+     *      | for each item in items
+     *      |   hasAsItem(item)
+     *
+     * @effect the changes in weight and value are passed on to whatever contains this backpack once
+     *      | try (Batch batch = batch()) { ... }
+     *
+     * @throws InvalidItemsException
+     *      if an item is null or terminated, if this backpack or its holder is terminated, if an item is this backpack
+     *      or a backpack it is stored in, or if the items do not fit in this backpack or can not be carried by its
+     *      holder. Nothing is stored then
+     *
+     * @note the capacity is checked once for the whole collection, items that are already stored in this backpack do
+     * not add weight. In the concurrency mode the holder of this backpack and the holders of the items are locked
+     * while they are stored, and items that no entity holds are claimed for the holder of this backpack first
+     */
+    public void storeAll(Collection<Item> items) throws InvalidItemsException {
+        if (items == null || items.isEmpty()) return;
+        InvalidItemsException[] failure = new InvalidItemsException[1];
+        EntityLocks.writeAll(() -> holdersOf(items), () -> {
+            List<Item> claimed = new ArrayList<>(2 * items.size());
+            for (Item item : items) {
+                if (item != null) {
+                    claimed.add(item.getRoot());
+                    claimed.add(item);
+                }
+            }
+            try {
+                this.addAll(items);
+            } catch (InvalidItemsException e) {
+                failure[0] = e;
+            } finally {
+                for (Item item : claimed) {
+                    item.releaseClaim();
+                }
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    /**
+     * unpacks every item of a backpack that matches a condition
+     *
+     * @param condition
+     *      the condition the items we want to unpack must match
+     *
+     * @return a list of the unpacked items
+     *      | for each item in result
+     *      |   !hasAsItem(item) && item.getBackpack() == null && item.getHolder() == null
+     *
+     * @effect the changes in weight and value are passed on to whatever contains this backpack once
+     *      | try (Batch batch = batch()) { ... }
+     *
+     * @note in the concurrency mode the holder of this backpack is locked while the items are unpacked
+     */
+    public List<Item> unpackAll(Predicate<Item> condition){
+        List<Item> unpacked = new ArrayList<>();
+        EntityLocks.write(this::getHolder, () -> null, () -> this.removeAll(condition, unpacked));
+        return unpacked;
+    }
+
+    /**
+     * stores the most valuable items of a pile that fit in a backpack
+     *
+     * @param items
+     *      the pile we can choose from
+     *
+     * @effect the items are packed within the default time budget
+     *      | packOptimally(items, defaultPackingBudget)
+     */
+    public List<Item> packOptimally(List<Item> items) throws InvalidItemsException {
+        return packOptimally(items, defaultPackingBudget);
+    }
+
+    /**
+     * stores the most valuable items of a pile that fit in a backpack, within a time budget
+     *
+     * @param items
+     *      the pile we can choose from
+     *
+     * @param budget
+     *      the time the search for the most valuable choice may take
+     *
+     * @return the items that were stored, with the highest total value the search found within the budget
+     *      | for each item in result
+     *      |   hasAsItem(item)
+     *
+     * @effect the chosen items are stored at once
+     *      | storeAll(result)
+     *
+     * @throws InvalidItemsException
+     *      if the chosen items can no longer be stored, because another thread changed them meanwhile
+     *
+     * @note items are valued and weighed with their content. Null, terminated and already stored items, and
+     * backpacks this backpack is stored in, are skipped. The room is the free capacity of this backpack, or the free
+     * capacity of its holder if that is smaller
+     *
+     * @note weights are rounded up to hundredths. A small enough pile is packed exactly by a dynamic program, a big
+     * one, or one that runs out of time, by value per weight with a repair step
+     */
+    public List<Item> packOptimally(List<Item> items, Duration budget) throws InvalidItemsException {
+        if (items == null || items.isEmpty() || this.isTerminated()) return new ArrayList<>();
+        Set<Item> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Item> candidates = new ArrayList<>(items.size());
+        for (Item item : items) {
+            if (item == null || item.isTerminated() || this.hasAsItem(item) || this.isStoredIn(item)) continue;
+            if (item.getCarrier() != null && item.getCarrier().isTerminated()) continue;
+            if (seen.add(item)) {
+                candidates.add(item);
+            }
+        }
+        double room = this.Capacity - this.getContentWeight();
+        Entity holder = this.getCarrier();
+        if (holder != null) {
+            room = Math.min(room, holder.getCapacity() - holder.getTotalWeight() - this.getDeferredWeight());
+        }
+        List<Item> chosen = KnapsackPacker.choose(candidates, room, budget.toNanos());
+        this.storeAll(chosen);
+        return chosen;
+    }
+
+    /**
+     * takes every item out of the content of a backpack and pushes it on a stack, without changing the items
+     *
+     * @param stack
+     *      the stack the items are pushed on
+     *
+     * @post the backpack is empty and every item it held forgot its index
+     *      | getAmountOfItems() == 0
+     */
+    @Override @Model
+    void drainContent(Deque<Item> stack){
+        if (Content == null) return;
+        for (int index = Content.size() - 1; index >= 0; index--) {
+            Item item = Content.get(index);
+            item.setContentIndex(-1);
+            stack.push(item);
+        }
+        Content.clear();
+    }
+
+    /**
+     * unpacks every item in the content of a backpack
+     *
+     * @effect every item is unpacked at once
+     *      | removeAll(item -> true)
+     */
+    @Override @Model
+    void releaseContent(){
+        if (Content == null) return;
+        this.removeAll(item -> true, new ArrayList<>());
+    }
+
+    /**
+     * getter for the entities a bulk store changes
+     *
+     * @param items
+     *      the items that will be stored
+     *
+     * @return the holder of this backpack followed by the holder of every item, where the items that no entity holds
+     * are claimed for the holder of this backpack
+     */
+    @Model
+    private Entity[] holdersOf(Collection<Item> items) {
+        Entity[] holders = new Entity[items.size() + 1];
+        holders[0] = this.getHolder();
+        Entity claimant = this.getCarrier();
+        int index = 1;
+        for (Item item : items) {
+            holders[index++] = (item == null) ? null : item.claimFor(claimant);
+        }
+        return holders;
+    }
+
+    /**
+     * validates a collection of items once and adds all of them to the content of a backpack
+     *
+     * @param items
+     *      the items we want to add
+     *
+     * @see #storeAll(Collection)
+     */
+    @Raw @Model
+    private void addAll(Collection<Item> items) throws InvalidItemsException {
+        Entity holder = this.getCarrier();
+        if (this.isTerminated() || (holder != null && holder.isTerminated())) {
+            throw new InvalidItemsException("a terminated backpack can not store items");
+        }
+        Set<Item> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Item> toAdd = new ArrayList<>(items.size());
+        double addedWeight = 0;
+        double carriedWeight = 0;
+        for (Item item : items) {
+            if (item == null || item.isTerminated()) {
+                throw new InvalidItemsException("all backpack items must be non-terminated");
+            }
+            if (item.getCarrier() != null && item.getCarrier().isTerminated()) {
+                throw new InvalidItemsException("items of a terminated holder can not be stored");
+            }
+            if (this.isStoredIn(item)) {
+                throw new InvalidItemsException("a backpack can not be stored in itself");
+            }
+            if (item.getBackpack() == this || !seen.add(item)) continue;
+            toAdd.add(item);
+            addedWeight += item.getTotalWeight();
+            if (holder != null && item.getCarrier() != holder) {
+                carriedWeight += item.getTotalWeight();
+            }
+        }
+        if (!this.fitsContent(addedWeight)) {
+            throw new InvalidItemsException("all items must fit in this backpack");
+        }
+        double carried = (holder == null) ? 0 : holder.getTotalWeight() + this.getDeferredWeight() + carriedWeight;
+        if (holder != null && carried > holder.getCapacity() && !Entity.isSameWeight(carried, holder.getCapacity())) {
+            throw new InvalidItemsException("the holder of this backpack can not carry all items");
+        }
+        Batch batch = this.batch();
+        try {
+            for (Item item : toAdd) {
+                Entity formerHolder = item.detach();
+                try {
+                    item.setHolder(holder);
+                } catch (InvalidHolderException e) {
+                    assert false;
+                }
+                item.flushPendingChanges();
+                Content.add(item);
+                item.setBackpack(this);
+                this.adjustContent(item.getTotalWeight(), item.getTotalValue());
+                Entity.fireItemChanged(item);
+                if (formerHolder != holder) {
+                    Entity.fireEntityChanged(formerHolder);
+                }
+            }
+        } finally {
+            batch.close();
+        }
+        Entity.fireEntityChanged(holder);
+    }
+
+    /**
+     * removes every item that matches a condition from the content of a backpack
+     *
+     * @param condition
+     *      the condition the items we want to remove must match
+     *
+     * @param removed
+     *      the list the removed items are added to
+     *
+     * @see #unpackAll(Predicate)
+     */
+    @Raw @Model
+    private void removeAll(Predicate<Item> condition, List<Item> removed) {
+        Batch batch = this.batch();
+        try {
+            for (int index = this.getAmountOfItems() - 1; index >= 0; index--) {
+                Item item = Content.get(index);
+                if (!condition.test(item)) continue;
+                this.detachItem(item);
+                try {
+                    item.setHolder(null);
+                } catch (InvalidHolderException e) {
+                    assert false;
+                }
+                Entity.fireItemChanged(item);
+                removed.add(item);
+            }
+        } finally {
+            batch.close();
+        }
+        if (!removed.isEmpty()) {
+            Entity.fireEntityChanged(this.getHolder());
+        }
     }
 
     /**
@@ -334,21 +823,52 @@ public class Backpack extends Item {
      * @effect backpack of item is set to null
      *      | item.setBackpack(null)
      *
-     * @post item is removed from the backpacks content
-     *      | this.Content.remove(item);
+     * @post item is removed from the backpacks content, the last item of the content takes its index
+     *      | this.Content.set(item.getContentIndex(), last item) && this.Content.remove(last index)
+     *
+     * @effect the weight and value of the item are removed from the content totals
+     *      | adjustContent(-item.getTotalWeight(), -item.getTotalValue())
+     *
+     * @effect every mutation listener is told the item and its former holder changed
+     *      | Entity.fireItemChanged(item) && Entity.fireEntityChanged(item.getHolder())
      */
     @Raw @Model
     private void removeItem(Item item){
         if (!this.hasAsItem(item)){
             return;
         }
+        Entity holder = item.getHolder();
+        this.detachItem(item);
         try {
             item.setHolder(null);
         } catch (InvalidHolderException e) {
             assert false;
         }
+        Entity.fireItemChanged(item);
+        Entity.fireEntityChanged(holder);
+    }
+
+    /**
+     * takes an item out of the content of a backpack, without changing the holder of the item
+     *
+     * @param item
+     *      the item we want to take out
+     *
+     * @pre the item is stored in this backpack
+     *      | hasAsItem(item)
+     *
+     * @post the item is no longer stored in this backpack
+     *      | !hasAsItem(item) && item.getBackpack() == null
+     *
+     * @effect the weight and value of the item are removed from the content totals
+     *      | adjustContent(-item.getTotalWeight(), -item.getTotalValue())
+     */
+    @Raw @Model
+    void detachItem(Item item){
+        item.flushPendingChanges();
         this.Content.remove(item);
         item.setBackpack(null);
+        this.adjustContent(-item.getTotalWeight(), -item.getTotalValue());
     }
 
     /**
@@ -359,6 +879,12 @@ public class Backpack extends Item {
      *
      * @param item
      *      the item we want to add to the content
+     *
+     * @effect the weight and value of the item are added to the content totals
+     *      | adjustContent(item.getTotalWeight(), item.getTotalValue())
+     *
+     * @effect every mutation listener is told the item and the holder of this backpack changed
+     *      | Entity.fireItemChanged(item) && Entity.fireEntityChanged(this.getHolder())
      */
     @Raw @Model
     private void addItem(Item item){
@@ -368,19 +894,22 @@ public class Backpack extends Item {
         if (item.getBackpack() == this){
             return;
         }
-        if (item.getHolder() != null){
-            item.getHolder().unequip(item.getHolder().getAnchorPointWithItem(item), item);
-        }
-        if (item.getBackpack() != null){
-            item.getBackpack().removeItem(item);
-        }
+        Entity holder = this.getCarrier();
+        Entity formerHolder = item.detach();
         try {
-            item.setHolder(this.getHolder());
+            item.setHolder(holder);
         } catch (InvalidHolderException e) {
             assert false;
         }
+        item.flushPendingChanges();
         Content.add(item);
         item.setBackpack(this);
+        this.adjustContent(item.getTotalWeight(), item.getTotalValue());
+        Entity.fireItemChanged(item);
+        if (formerHolder != holder) {
+            Entity.fireEntityChanged(formerHolder);
+        }
+        Entity.fireEntityChanged(holder);
     }
 
     /**
@@ -390,21 +919,52 @@ public class Backpack extends Item {
      *      the item we want to check
      *
      * @return true if The Holder of the backpack isn't terminated, backpack isn't terminated, item isn't terminated
-     * and if TotalWeight + item's weight is smaller than capacity, false otherwise
-     *      | if (!(this.getTotalWeight() + item.getWeight() >= this.Capacity) || item.isTerminated() || this.isTerminated() || this.getHolder().isTerminated())
+     * and if the total weight of the item still fits in this backpack, false otherwise
+     *      | if (!fitsContent(item.getTotalWeight()) || item.isTerminated() || this.isTerminated() || this.getHolder().isTerminated())
+     *      |       result == false
+     *
+     * @return false if the item is this backpack or a backpack this backpack is stored in
+     *      | if (this.isStoredIn(item))
      *      |       result == false
      */
     public boolean canAddItem(Item item){
-        if ((this.getContentWeight() + item.getWeight() >= this.Capacity)){
+        if (!this.fitsContent(item.getTotalWeight())){
+            return false;
+        }
+        if (this.isStoredIn(item)){
             return false;
         }
-        if (this.getHolder() == null || item.getHolder() == null){
+        Entity holder = this.getCarrier();
+        Entity itemHolder = item.getCarrier();
+        if (holder == null || itemHolder == null){
             return !item.isTerminated() && !this.isTerminated();
         }
-        if (!this.getHolder().canEquip(item)){
+        if (!holder.canEquip(item, this.getDeferredWeight())){
             return false;
         }
-        return !item.isTerminated() && !this.isTerminated() && !this.getHolder().isTerminated() && !item.getHolder().isTerminated();
+        return !item.isTerminated() && !this.isTerminated() && !holder.isTerminated() && !itemHolder.isTerminated();
+    }
+
+    /**
+     * checks whether this backpack is the given item or is stored in it, however deeply nested
+     *
+     * @param item
+     *      the item we want to check
+     *
+     * @return true if the item is this backpack or one of the backpacks this backpack is stored in, false otherwise
+     *      | for (Backpack container = this; container != null; container = container.getBackpack())
+     *      |   if (container == item)
+     *      |       result == true
+     *      | result == false
+     */
+    @Raw
+    public boolean isStoredIn(Item item){
+        for (Backpack container = this; container != null; container = container.getBackpack()) {
+            if (container == item) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -448,12 +1008,152 @@ public class Backpack extends Item {
      *
      * @return true if item is in backpack, false otherwise
      *      | result == this.Content.contains(item)
+     *
+     * @note the item is looked up by the index it remembers, which takes constant time
      */
     @Raw
    public boolean hasAsItem(Item item){
+       if (item == null || item.getBackpack() != this) return false;
        return this.Content.contains(item);
    }
 
+    /**
+     * checks whether the secondary indexes on the content of a backpack are kept
+     *
+     * @return true if the indexes are enabled, false otherwise
+     */
+    @Raw
+    public boolean isIndexed(){
+        return Content != null && Content.getIndex() != null;
+    }
+
+    /**
+     * enables or disables the secondary indexes on the content of a backpack
+     *
+     * @param indexed
+     *      whether the indexes must be kept
+     *
+     * @post the indexes are enabled or disabled
+     *      | isIndexed() == indexed
+     *
+     * @note the indexes bucket the content by item type and shine level and keep it sorted by value and weight.
+     * Enabling them indexes the current content once, after which every store and unpack keeps them up to date. The
+     * queries below give the same answers with or without indexes, they only scan the content when it is not indexed
+     */
+    public void setIndexed(boolean indexed){
+        Content.setIndexed(indexed);
+    }
+
+    /**
+     * getter for the items of an item type in a backpack
+     *
+     * @param itemType
+     *      the item type we are looking for
+     *
+     * @return an unmodifiable list of every item of the item type that is directly stored in this backpack
+     *      | for each item in result
+     *      |   hasAsItem(item) && item.getItemType() == itemType
+     */
+    public List<Item> getItemsOfType(ItemType itemType){
+        if (isIndexed()) return Content.getIndex().getItemsOfType(itemType);
+        return collectItems(item -> item.getItemType() == itemType);
+    }
+
+    /**
+     * getter for the items with a shine level in a backpack
+     *
+     * @param shineLevel
+     *      the shine level we are looking for
+     *
+     * @return an unmodifiable list of every item with the shine level that is directly stored in this backpack
+     *      | for each item in result
+     *      |   hasAsItem(item) && item.getShineLevel() == shineLevel
+     */
+    public List<Item> getItemsWithShineLevel(ShineLevel shineLevel){
+        if (isIndexed()) return Content.getIndex().getItemsWithShineLevel(shineLevel);
+        return collectItems(item -> item.getShineLevel() == shineLevel);
+    }
+
+    /**
+     * getter for the items in a backpack that are worth more than a value
+     *
+     * @param value
+     *      the value the items must exceed
+     *
+     * @return a list of every item directly stored in this backpack with a bigger value, from the cheapest to the
+     * most valuable
+     *      | for each item in result
+     *      |   hasAsItem(item) && item.getValue() > value
+     */
+    public List<Item> getItemsWorthMoreThan(int value){
+        if (isIndexed()) return Content.getIndex().getItemsWorthMoreThan(value);
+        List<Item> items = new ArrayList<>(collectItems(item -> item.getValue() > value));
+        items.sort((a, b) -> Integer.compare(a.getValue(), b.getValue()));
+        return items;
+    }
+
+    /**
+     * getter for the heaviest item of an item type in a backpack
+     *
+     * @param itemType
+     *      the item type we are looking for, null for any item type
+     *
+     * @return the item of the item type directly stored in this backpack with the biggest own weight, null if there
+     * is none
+     */
+    public Item getHeaviestItem(ItemType itemType){
+        if (isIndexed()) return Content.getIndex().getHeaviestItem(itemType);
+        Item heaviest = null;
+        for (int index = 0; index < getAmountOfItems(); index++) {
+            Item item = Content.get(index);
+            if ((itemType == null || item.getItemType() == itemType) && (heaviest == null || item.getWeight() > heaviest.getWeight())) {
+                heaviest = item;
+            }
+        }
+        return heaviest;
+    }
+
+    /**
+     * getter for the lightest item of an item type in a backpack
+     *
+     * @param itemType
+     *      the item type we are looking for, null for any item type
+     *
+     * @return the item of the item type directly stored in this backpack with the smallest own weight, null if there
+     * is none
+     */
+    public Item getLightestItem(ItemType itemType){
+        if (isIndexed()) return Content.getIndex().getLightestItem(itemType);
+        Item lightest = null;
+        for (int index = 0; index < getAmountOfItems(); index++) {
+            Item item = Content.get(index);
+            if ((itemType == null || item.getItemType() == itemType) && (lightest == null || item.getWeight() < lightest.getWeight())) {
+                lightest = item;
+            }
+        }
+        return lightest;
+    }
+
+    /**
+     * collects the items in a backpack that match a condition, by scanning the content
+     *
+     * @param condition
+     *      the condition the items must match
+     *
+     * @return an unmodifiable list of every item directly stored in this backpack that matches the condition
+     */
+    @Model
+    private List<Item> collectItems(Predicate<Item> condition){
+        List<Item> items = new ArrayList<>();
+        for (int index = 0; index < getAmountOfItems(); index++) {
+            Item item = Content.get(index);
+            if (condition.test(item)) {
+                items.add(item);
+            }
+        }
+        return Collections.unmodifiableList(items);
+    }
+
     /**
      * checks if a backpack can store all items from an array
      *
@@ -464,18 +1164,74 @@ public class Backpack extends Item {
      *      | if items == null OR items.isEmpty()
      *      |   return true
      *      | for each item in items
-     *      |   totalWeight += item.getWeight
-     *      | currentWeight = this.getTotalWeight()
-     *      | result == (currentWeight + totalWeight) <= this.Capacity
+     *      |   if item.getBackpack() != this
+     *      |       totalWeight += item.getTotalWeight()
+     *      | result == fitsContent(totalWeight)
      */
     @Raw
    public boolean canStoreAll(List<Item> items) {
        if (items == null || items.isEmpty()) return true;
 
-       double totalWeight = items.stream().mapToDouble(Item::getWeight).sum();
+       double totalWeight = items.stream().filter(item -> item.getBackpack() != this).mapToDouble(Item::getTotalWeight).sum();
 
-       double currentWeight = this.getContentWeight();
+       return this.fitsContent(totalWeight);
+    }
+
+    /**
+     * checks if a given weight still fits in a backpack next to its content
+     *
+     * @param addedWeight
+     *      the weight we want to add to the content
+     *
+     * @return true if the content weight and the added weight stay within the capacity, where a weight that is the
+     * same as the capacity fits
+     *      | result == (getContentWeight() + addedWeight <= Capacity || Entity.isSameWeight(getContentWeight() + addedWeight, Capacity))
+     *
+     * @note every check on the capacity of a backpack goes through this method, so storing one item and storing a
+     * collection of items agree on what fits
+     */
+    @Raw @Model
+    private boolean fitsContent(double addedWeight) {
+        double weight = this.getContentWeight() + addedWeight;
+        return weight <= this.Capacity || Entity.isSameWeight(weight, this.Capacity);
+    }
 
-       return (currentWeight + totalWeight) <= this.Capacity;
+    /**
+     * A class representing an open batch on a backpack
+     *
+     * @note closing a batch more than once has no further effect
+     */
+    public static final class Batch implements AutoCloseable {
+
+        /**
+         * A variable representing the backpack the batch is open on, null once the batch is closed
+         */
+        private Backpack backpack;
+
+        /**
+         * A constructor for a batch on a backpack
+         *
+         * @param backpack
+         *      the backpack the batch was opened on
+         */
+        private Batch(Backpack backpack) {
+            this.backpack = backpack;
+        }
+
+        /**
+         * closes the batch
+         *
+         * @effect if this was the last open batch on the backpack, its pending changes are passed on
+         *      | if (!backpack.isBatched())
+         *      |   then backpack.flushPendingChanges()
+         */
+        @Override
+        public void close() {
+            if (backpack == null) return;
+            if (backpack.Content.closeBatch()) {
+                backpack.flushPendingChanges();
+            }
+            backpack = null;
+        }
     }
 }
@@ -0,0 +1,317 @@
+package com.RPG.Core;
+
+import java.util.Arrays;
+
+/**
+ * A class representing the content of a backpack, together with the running totals of its weight and value
+ *
+ * @note the items are kept in a dense array. Every stored item remembers its index, so an item is found and removed in
+ * constant time by moving the last item into its place. Removing an item can therefore change the index of one other
+ * item
+ *
+ * @note the secondary indexes are only kept while they are enabled, and are updated by every add and remove
+ *
+ * @note while a batch is open the changes to the totals are also collected as pending changes, which the backpack
+ * passes on to whatever contains it once the last batch is closed
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+final class BackpackContent {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the capacity of a new content array
+     */
+    private static final int initialLength = 4;
+
+    /**
+     * An array representing the stored items, the first size of them are in use
+     */
+    private Item[] items = new Item[initialLength];
+
+    /**
+     * A variable representing the amount of stored items
+     */
+    private int size = 0;
+
+    /**
+     * A variable representing the running total weight of the stored items, including nested backpacks
+     */
+    private double weight = 0;
+
+    /**
+     * A variable representing the running total value of the stored items, including nested backpacks
+     */
+    private long value = 0;
+
+    /**
+     * A variable representing the amount of batches that are open
+     */
+    private int batchDepth = 0;
+
+    /**
+     * A variable representing the change in weight that was not passed on yet
+     */
+    private double pendingWeight = 0;
+
+    /**
+     * A variable representing the change in value that was not passed on yet
+     */
+    private long pendingValue = 0;
+
+    /**
+     * A variable representing the secondary indexes on the stored items, null if they are not enabled
+     */
+    private BackpackIndex index = null;
+
+    /**********************************************************
+     * Getters and Setters
+     **********************************************************/
+
+    /**
+     * getter for the amount of stored items
+     *
+     * @return the amount of stored items
+     *      | this.size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * getter for a stored item
+     *
+     * @param index
+     *      the index of the item
+     *
+     * @pre the index is smaller than the amount of stored items
+     *      | index < size()
+     *
+     * @return the item at the index
+     *      | this.items[index]
+     */
+    Item get(int index) {
+        return items[index];
+    }
+
+    /**
+     * getter for the running total weight of the stored items
+     *
+     * @return the weight
+     *      | this.weight
+     */
+    double getWeight() {
+        return weight;
+    }
+
+    /**
+     * getter for the running total value of the stored items
+     *
+     * @return the value
+     *      | this.value
+     */
+    long getValue() {
+        return value;
+    }
+
+    /**
+     * getter for the change in weight that was not passed on yet
+     *
+     * @return the pending weight
+     *      | this.pendingWeight
+     */
+    double getPendingWeight() {
+        return pendingWeight;
+    }
+
+    /**
+     * getter for the change in value that was not passed on yet
+     *
+     * @return the pending value
+     *      | this.pendingValue
+     */
+    long getPendingValue() {
+        return pendingValue;
+    }
+
+    /**
+     * getter for the secondary indexes on the stored items
+     *
+     * @return the indexes, null if they are not enabled
+     *      | this.index
+     */
+    BackpackIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * enables or disables the secondary indexes on the stored items
+     *
+     * @param enabled
+     *      whether the indexes must be kept
+     *
+     * @post if enabled, the indexes hold every stored item, otherwise there are no indexes
+     *      | if (enabled) getIndex() != null
+     *      | else getIndex() == null
+     */
+    void setIndexed(boolean enabled) {
+        if (!enabled) {
+            index = null;
+        } else if (index == null) {
+            index = new BackpackIndex(this);
+        }
+    }
+
+    /**
+     * checks whether a batch is open
+     *
+     * @return true if at least one batch is open, false otherwise
+     *      | this.batchDepth > 0
+     */
+    boolean isBatched() {
+        return batchDepth > 0;
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * checks whether an item is stored
+     *
+     * @param item
+     *      the item we are looking for
+     *
+     * @return true if the item is stored at the index it remembers, false otherwise
+     */
+    boolean contains(Item item) {
+        int position = item.getContentIndex();
+        return position >= 0 && position < size && items[position] == item;
+    }
+
+    /**
+     * adds an item at the end
+     *
+     * @param item
+     *      the item we want to add
+     *
+     * @post the item is stored at the last index and remembers it
+     *      | get(size() - 1) == item && item.getContentIndex() == size() - 1
+     */
+    void add(Item item) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+        }
+        item.setContentIndex(size);
+        items[size++] = item;
+        if (index != null) {
+            index.add(item);
+        }
+    }
+
+    /**
+     * removes a stored item by moving the last item into its place
+     *
+     * @param item
+     *      the item we want to remove
+     *
+     * @pre the item is stored
+     *      | contains(item)
+     *
+     * @post the item is no longer stored and forgot its index, the last item takes its index
+     *      | !contains(item) && item.getContentIndex() == -1
+     */
+    void remove(Item item) {
+        int position = item.getContentIndex();
+        Item last = items[--size];
+        items[size] = null;
+        if (last != item) {
+            items[position] = last;
+            last.setContentIndex(position);
+        }
+        item.setContentIndex(-1);
+        if (index != null) {
+            index.remove(item);
+        }
+    }
+
+    /**
+     * forgets every stored item and resets the running totals, without changing the items
+     *
+     * @post there are no stored items, and the totals and pending changes are zero
+     *      | size() == 0 && getWeight() == 0 && getValue() == 0 && getPendingWeight() == 0 && getPendingValue() == 0
+     */
+    void clear() {
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+        weight = 0;
+        value = 0;
+        pendingWeight = 0;
+        pendingValue = 0;
+        if (index != null) {
+            index = new BackpackIndex(this);
+        }
+    }
+
+    /**
+     * adjusts the running totals
+     *
+     * @param weightDelta
+     *      the change in weight
+     *
+     * @param valueDelta
+     *      the change in value
+     *
+     * @post the totals are adjusted, and so are the pending changes while a batch is open
+     *      | this.weight += weightDelta && this.value += valueDelta
+     *      | if (isBatched())
+     *      |   then this.pendingWeight += weightDelta && this.pendingValue += valueDelta
+     */
+    void adjust(double weightDelta, long valueDelta) {
+        weight += weightDelta;
+        value += valueDelta;
+        if (batchDepth > 0) {
+            pendingWeight += weightDelta;
+            pendingValue += valueDelta;
+        }
+    }
+
+    /**
+     * opens a batch
+     *
+     * @post one more batch is open
+     *      | this.batchDepth += 1
+     */
+    void openBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * closes a batch
+     *
+     * @pre a batch is open
+     *      | isBatched()
+     *
+     * @return true if the last open batch was closed, false otherwise
+     *      | result == (--this.batchDepth == 0)
+     */
+    boolean closeBatch() {
+        return --batchDepth == 0;
+    }
+
+    /**
+     * forgets the pending changes, once they were passed on
+     *
+     * @post there are no pending changes
+     *      | this.pendingWeight == 0 && this.pendingValue == 0
+     */
+    void clearPending() {
+        pendingWeight = 0;
+        pendingValue = 0;
+    }
+}
@@ -0,0 +1,329 @@
+package com.RPG.Core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * A class representing the secondary indexes on the content of one backpack
+ *
+ * @note the items are bucketed by their item type and by their shine level, and kept sorted by their own value and by
+ * their own weight. Every indexed item has an entry with its positions in the buckets and the keys it is sorted by,
+ * so an item is removed from a bucket in constant time and from the sorted entries in logarithmic time. Entries with
+ * the same key are sorted by the order in which their items were stored
+ *
+ * @note an item whose own weight or value changes while it is stored is sorted again with update, which the item
+ * calls when it passes the change on to its backpack
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+final class BackpackIndex {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A map representing the stored items, by their item type
+     */
+    private final Map<ItemType, ArrayList<Item>> byType = new EnumMap<>(ItemType.class);
+
+    /**
+     * A map representing the stored items, by their shine level
+     */
+    private final Map<ShineLevel, ArrayList<Item>> byShineLevel = new EnumMap<>(ShineLevel.class);
+
+    /**
+     * A variable representing the order of the entries by value
+     */
+    private static final Comparator<Entry> valueOrder =
+            Comparator.comparingDouble((Entry entry) -> entry.value).thenComparingLong(entry -> entry.sequence);
+
+    /**
+     * A variable representing the order of the entries by weight
+     */
+    private static final Comparator<Entry> weightOrder =
+            Comparator.comparingDouble((Entry entry) -> entry.weight).thenComparingLong(entry -> entry.sequence);
+
+    /**
+     * A variable representing the entries of the stored items, sorted by their value
+     */
+    private final NavigableSet<Entry> byValue = new TreeSet<>(valueOrder);
+
+    /**
+     * A variable representing the entries of the stored items, sorted by their weight
+     */
+    private final NavigableSet<Entry> byWeight = new TreeSet<>(weightOrder);
+
+    /**
+     * A variable representing the sequence number the next stored item gets
+     */
+    private long nextSequence = 0;
+
+    /**
+     * A map representing the entry of every indexed item
+     */
+    private final Map<Item, Entry> entries = new IdentityHashMap<>();
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for the indexes on the current content of a backpack
+     *
+     * @param content
+     *      the content that needs to be indexed
+     *
+     * @post every item of the content is indexed
+     */
+    BackpackIndex(BackpackContent content) {
+        for (ItemType itemType : ItemType.values()) {
+            byType.put(itemType, new ArrayList<>());
+        }
+        for (ShineLevel shineLevel : ShineLevel.values()) {
+            byShineLevel.put(shineLevel, new ArrayList<>());
+        }
+        for (int index = 0; index < content.size(); index++) {
+            add(content.get(index));
+        }
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * adds an item to every index
+     *
+     * @param item
+     *      the item that was stored
+     */
+    void add(Item item) {
+        Entry entry = new Entry(item, nextSequence++);
+        ArrayList<Item> typeBucket = byType.get(item.getItemType());
+        entry.typePosition = typeBucket.size();
+        typeBucket.add(item);
+        ArrayList<Item> shineBucket = byShineLevel.get(item.getShineLevel());
+        entry.shinePosition = shineBucket.size();
+        shineBucket.add(item);
+        entry.value = item.getValue();
+        entry.weight = item.getWeight();
+        byValue.add(entry);
+        byWeight.add(entry);
+        entries.put(item, entry);
+    }
+
+    /**
+     * removes an item from every index
+     *
+     * @param item
+     *      the item that was unpacked
+     *
+     * @pre the item was added
+     */
+    void remove(Item item) {
+        Entry entry = entries.remove(item);
+        Item moved = removeFromBucket(byType.get(item.getItemType()), entry.typePosition, item);
+        if (moved != null) {
+            entries.get(moved).typePosition = entry.typePosition;
+        }
+        moved = removeFromBucket(byShineLevel.get(item.getShineLevel()), entry.shinePosition, item);
+        if (moved != null) {
+            entries.get(moved).shinePosition = entry.shinePosition;
+        }
+        byValue.remove(entry);
+        byWeight.remove(entry);
+    }
+
+    /**
+     * sorts an item again after its own weight or value changed
+     *
+     * @param item
+     *      the item that changed
+     *
+     * @post if the item is indexed, it is sorted by its current value and weight
+     */
+    void update(Item item) {
+        Entry entry = entries.get(item);
+        if (entry == null) return;
+        if (entry.value != item.getValue()) {
+            byValue.remove(entry);
+            entry.value = item.getValue();
+            byValue.add(entry);
+        }
+        if (entry.weight != item.getWeight()) {
+            byWeight.remove(entry);
+            entry.weight = item.getWeight();
+            byWeight.add(entry);
+        }
+    }
+
+    /**
+     * removes an item from a bucket by moving the last item of the bucket into its place
+     *
+     * @param bucket
+     *      the bucket of the item
+     *
+     * @param position
+     *      the position of the item in the bucket
+     *
+     * @param item
+     *      the item we want to remove
+     *
+     * @return the item that was moved into the place of the removed item, null if no item was moved
+     */
+    private static Item removeFromBucket(ArrayList<Item> bucket, int position, Item item) {
+        assert bucket.get(position) == item : "the position of an indexed item is out of sync";
+        Item last = bucket.remove(bucket.size() - 1);
+        if (last == item) {
+            return null;
+        }
+        bucket.set(position, last);
+        return last;
+    }
+
+    /**
+     * getter for the stored items of an item type
+     *
+     * @param itemType
+     *      the item type we are looking for
+     *
+     * @return an unmodifiable copy of the stored items of the item type
+     */
+    List<Item> getItemsOfType(ItemType itemType) {
+        return Collections.unmodifiableList(new ArrayList<>(byType.get(itemType)));
+    }
+
+    /**
+     * getter for the stored items with a shine level
+     *
+     * @param shineLevel
+     *      the shine level we are looking for
+     *
+     * @return an unmodifiable copy of the stored items with the shine level
+     */
+    List<Item> getItemsWithShineLevel(ShineLevel shineLevel) {
+        return Collections.unmodifiableList(new ArrayList<>(byShineLevel.get(shineLevel)));
+    }
+
+    /**
+     * getter for the stored items that are worth more than a value
+     *
+     * @param value
+     *      the value the items must exceed
+     *
+     * @return the stored items with a bigger value, from the cheapest to the most valuable
+     */
+    List<Item> getItemsWorthMoreThan(int value) {
+        Entry bound = new Entry(null, Long.MAX_VALUE);
+        bound.value = value;
+        List<Item> items = new ArrayList<>();
+        for (Entry entry : byValue.tailSet(bound, false)) {
+            items.add(entry.item);
+        }
+        return items;
+    }
+
+    /**
+     * getter for the heaviest stored item of an item type
+     *
+     * @param itemType
+     *      the item type we are looking for, null for any item type
+     *
+     * @return the heaviest stored item of the item type, null if there is none
+     */
+    Item getHeaviestItem(ItemType itemType) {
+        return firstOfType(byWeight.descendingIterator(), itemType);
+    }
+
+    /**
+     * getter for the lightest stored item of an item type
+     *
+     * @param itemType
+     *      the item type we are looking for, null for any item type
+     *
+     * @return the lightest stored item of the item type, null if there is none
+     */
+    Item getLightestItem(ItemType itemType) {
+        return firstOfType(byWeight.iterator(), itemType);
+    }
+
+    /**
+     * getter for the first item of an item type in an order of entries
+     *
+     * @param entries
+     *      the entries in the order we want to search them
+     *
+     * @param itemType
+     *      the item type we are looking for, null for any item type
+     *
+     * @return the item of the first entry of the item type, null if there is none
+     */
+    private static Item firstOfType(Iterator<Entry> entries, ItemType itemType) {
+        while (entries.hasNext()) {
+            Item item = entries.next().item;
+            if (itemType == null || item.getItemType() == itemType) return item;
+        }
+        return null;
+    }
+
+    /**
+     * A class representing the positions and keys of an indexed item
+     */
+    private static final class Entry {
+
+        /**
+         * A variable representing the indexed item
+         */
+        private final Item item;
+
+        /**
+         * A variable representing the order in which the item was stored, among items with the same key
+         */
+        private final long sequence;
+
+        /**
+         * A variable representing the position of the item in the bucket of its item type
+         */
+        private int typePosition;
+
+        /**
+         * A variable representing the position of the item in the bucket of its shine level
+         */
+        private int shinePosition;
+
+        /**
+         * A variable representing the value the item is sorted by
+         */
+        private double value;
+
+        /**
+         * A variable representing the weight the item is sorted by
+         */
+        private double weight;
+
+        /**
+         * A constructor for the entry of an item
+         *
+         * @param item
+         *      the indexed item
+         *
+         * @param sequence
+         *      the order in which the item was stored
+         */
+        private Entry(Item item, long sequence) {
+            this.item = item;
+            this.sequence = sequence;
+        }
+    }
+}
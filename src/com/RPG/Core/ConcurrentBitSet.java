@@ -0,0 +1,217 @@
+package com.RPG.Core;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+/**
+ * A class representing a set of non-negative longs that several threads can add to and drain at the same time
+ *
+ * @note the bits are kept in pages of 2^16 bits that are created the first time one of their bits is set, so ids that
+ * lie close together share their pages. Setting a bit that is already set writes nothing
+ *
+ * @note every page keeps a summary with a bit per word that may hold set bits, and a page with set bits is queued
+ * once. A drain only visits the queued pages and, in them, the words their summary points to, so its cost follows the
+ * amount of values that were set and not the range of the values
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+final class ConcurrentBitSet {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the amount of bits a value is shifted to find its page
+     */
+    private static final int pageShift = 16;
+
+    /**
+     * A variable representing the amount of words in a page
+     */
+    private static final int wordsPerPage = (1 << pageShift) / Long.SIZE;
+
+    /**
+     * A variable representing the amount of summary words in a page
+     */
+    private static final int summaryWordsPerPage = wordsPerPage / Long.SIZE;
+
+    /**
+     * A map representing the pages that have a bit set, by their index
+     */
+    private final Map<Long, Page> pages = new ConcurrentHashMap<>();
+
+    /**
+     * A queue representing the pages that may have a bit set since the last drain, each at most once
+     */
+    private final Queue<Page> dirtyPages = new ConcurrentLinkedQueue<>();
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * adds a value to the set
+     *
+     * @param value
+     *      the value we want to add
+     *
+     * @throws IllegalArgumentException
+     *      if the value is negative
+     *      | value < 0
+     *
+     * @note the bit is set before its summary bit, and the summary bit before the page is queued, so a drain that
+     * misses the bit leaves the summary bit or the page queued for the next drain
+     */
+    void set(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("only non-negative values can be set");
+        }
+        Page page = pages.get(value >>> pageShift);
+        if (page == null) {
+            page = pages.computeIfAbsent(value >>> pageShift, Page::new);
+        }
+        int word = (int) (value >>> 6) & (wordsPerPage - 1);
+        if (!setBit(page.words, word, 1L << value)) {
+            return;
+        }
+        if (!setBit(page.summary, word >>> 6, 1L << word)) {
+            return;
+        }
+        if (page.queued.compareAndSet(false, true)) {
+            dirtyPages.add(page);
+        }
+    }
+
+    /**
+     * sets a bit in a word of an array
+     *
+     * @param words
+     *      the array that holds the word
+     *
+     * @param word
+     *      the index of the word
+     *
+     * @param bit
+     *      the bit we want to set
+     *
+     * @return true if the bit was not set yet, false otherwise
+     */
+    private static boolean setBit(AtomicLongArray words, int word, long bit) {
+        long current = words.get(word);
+        while ((current & bit) == 0) {
+            long witness = words.compareAndExchange(word, current, current | bit);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    /**
+     * checks whether a value is in the set
+     *
+     * @param value
+     *      the value we are looking for
+     *
+     * @return true if the value was set and not drained since, false otherwise
+     */
+    boolean get(long value) {
+        if (value < 0) return false;
+        Page page = pages.get(value >>> pageShift);
+        return page != null && (page.words.get((int) (value >>> 6) & (wordsPerPage - 1)) & (1L << value)) != 0;
+    }
+
+    /**
+     * getter for the amount of values in the set
+     *
+     * @return the amount of values that are set, which may already be outdated when other threads change the set
+     */
+    int cardinality() {
+        int amount = 0;
+        for (Page page : pages.values()) {
+            for (int summaryWord = 0; summaryWord < summaryWordsPerPage; summaryWord++) {
+                for (long words = page.summary.get(summaryWord); words != 0; words &= words - 1) {
+                    amount += Long.bitCount(page.words.get((summaryWord << 6) + Long.numberOfTrailingZeros(words)));
+                }
+            }
+        }
+        return amount;
+    }
+
+    /**
+     * removes every value from the set and hands it to a consumer
+     *
+     * @param consumer
+     *      the consumer that gets every removed value once
+     *
+     * @return the amount of values that were removed
+     *
+     * @note a page is taken off the queue before its summary is cleared, and every summary word and word is cleared
+     * atomically, so a value that is set during the drain is either handed to the consumer or stays in the set, it is
+     * never lost
+     */
+    int drain(LongConsumer consumer) {
+        int amount = 0;
+        for (int pending = dirtyPages.size(); pending > 0; pending--) {
+            Page page = dirtyPages.poll();
+            if (page == null) break;
+            page.queued.set(false);
+            for (int summaryWord = 0; summaryWord < summaryWordsPerPage; summaryWord++) {
+                if (page.summary.get(summaryWord) == 0) continue;
+                for (long words = page.summary.getAndSet(summaryWord, 0L); words != 0; words &= words - 1) {
+                    int word = (summaryWord << 6) + Long.numberOfTrailingZeros(words);
+                    for (long bits = page.words.getAndSet(word, 0L); bits != 0; bits &= bits - 1) {
+                        consumer.accept(page.base + ((long) word << 6) + Long.numberOfTrailingZeros(bits));
+                        amount++;
+                    }
+                }
+            }
+        }
+        return amount;
+    }
+
+    /**
+     * A class representing a page of bits with its summary
+     */
+    private static final class Page {
+
+        /**
+         * A variable representing the first value of the page
+         */
+        private final long base;
+
+        /**
+         * A variable representing the bits of the page
+         */
+        private final AtomicLongArray words = new AtomicLongArray(wordsPerPage);
+
+        /**
+         * A variable representing a bit for every word of the page that may have a bit set
+         */
+        private final AtomicLongArray summary = new AtomicLongArray(summaryWordsPerPage);
+
+        /**
+         * A variable representing whether the page is in the queue of dirty pages
+         */
+        private final AtomicBoolean queued = new AtomicBoolean(false);
+
+        /**
+         * A constructor for an empty page
+         *
+         * @param index
+         *      the index of the page
+         */
+        private Page(long index) {
+            this.base = index << pageShift;
+        }
+    }
+}
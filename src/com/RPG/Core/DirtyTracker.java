@@ -0,0 +1,160 @@
+package com.RPG.Core;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * A class that remembers which entities and items changed since they were last saved
+ *
+ * @note a tracker only sees changes while it is added as a mutation listener with Entity.addMutationListener. Every
+ * change to the hitpoints, the items or the status of an entity sets the bit of its id, and every change to the holder,
+ * the backpack, the anchorpoint or the status of an item sets the bit of its id for its item type, since items of
+ * different types can share an id
+ *
+ * @note a saver drains the ids at every checkpoint and only writes the records they belong to. Changes that happen
+ * during a drain are either drained or kept for the next checkpoint, never lost
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public class DirtyTracker implements MutationListener {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the ids of the entities that changed
+     */
+    private final ConcurrentBitSet dirtyEntities = new ConcurrentBitSet();
+
+    /**
+     * A map representing the ids of the items that changed, by their item type
+     */
+    private final Map<ItemType, ConcurrentBitSet> dirtyItems = new EnumMap<>(ItemType.class);
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for a tracker that has seen no changes yet
+     *
+     * @post no entity or item is dirty
+     */
+    public DirtyTracker() {
+        for (ItemType itemType : ItemType.values()) {
+            dirtyItems.put(itemType, new ConcurrentBitSet());
+        }
+    }
+
+    /**********************************************************
+     * Getters and Setters
+     **********************************************************/
+
+    /**
+     * checks whether an entity changed since the last drain
+     *
+     * @param entity
+     *      the entity we want to check
+     *
+     * @return true if the id of the entity is dirty, false otherwise
+     */
+    public boolean isDirty(Entity entity) {
+        return dirtyEntities.get(entity.getId());
+    }
+
+    /**
+     * checks whether an item changed since the last drain
+     *
+     * @param item
+     *      the item we want to check
+     *
+     * @return true if the id of the item is dirty for its item type, false otherwise
+     */
+    public boolean isDirty(Item item) {
+        return dirtyItems.get(item.getItemType()).get(item.getId());
+    }
+
+    /**
+     * getter for the amount of dirty entities
+     *
+     * @return the amount of entities that changed since the last drain
+     */
+    public int getAmountOfDirtyEntities() {
+        return dirtyEntities.cardinality();
+    }
+
+    /**
+     * getter for the amount of dirty items of an item type
+     *
+     * @param itemType
+     *      the item type we want to count
+     *
+     * @return the amount of items of the item type that changed since the last drain
+     */
+    public int getAmountOfDirtyItems(ItemType itemType) {
+        return dirtyItems.get(itemType).cardinality();
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * marks an entity as dirty
+     *
+     * @param entity
+     *      the entity that changed
+     *
+     * @post the entity is dirty
+     *      | isDirty(entity)
+     */
+    @Override
+    public void entityChanged(Entity entity) {
+        dirtyEntities.set(entity.getId());
+    }
+
+    /**
+     * marks an item as dirty
+     *
+     * @param item
+     *      the item that changed
+     *
+     * @post the item is dirty
+     *      | isDirty(item)
+     */
+    @Override
+    public void itemChanged(Item item) {
+        dirtyItems.get(item.getItemType()).set(item.getId());
+    }
+
+    /**
+     * hands the id of every dirty entity to a saver and marks them clean
+     *
+     * @param saver
+     *      gets the id of every dirty entity once
+     *
+     * @return the amount of ids that were drained
+     */
+    public int drainEntities(LongConsumer saver) {
+        return dirtyEntities.drain(saver);
+    }
+
+    /**
+     * hands the id of every dirty item of an item type to a saver and marks them clean
+     *
+     * @param itemType
+     *      the item type we want to drain
+     *
+     * @param saver
+     *      gets the id of every dirty item of the item type once
+     *
+     * @return the amount of ids that were drained
+     */
+    public int drainItems(ItemType itemType, LongConsumer saver) {
+        return dirtyItems.get(itemType).drain(saver);
+    }
+}
@@ -1,6 +1,7 @@
 package com.RPG.Core;
 
 import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
 import be.kuleuven.cs.som.annotate.Model;
 import be.kuleuven.cs.som.annotate.Raw;
 import com.RPG.Exception.InvalidDamageTypesException;
@@ -11,9 +12,16 @@ import javax.naming.InvalidNameException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
-import java.util.EnumMap;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.regex.Pattern;
+import java.util.stream.StreamSupport;
 
 
 /**
@@ -50,6 +58,36 @@ public abstract class Entity {
      * Variables
      **********************************************************/
 
+    /**
+     * A variable used to give every entity a unique id
+     */
+    private static final AtomicLong idGenerator = new AtomicLong(0);
+
+    /**
+     * A variable representing the unique id of an entity
+     */
+    private final long id = idGenerator.incrementAndGet();
+
+    /**
+     * A variable representing the registry this entity is registered in, null if it is not registered
+     */
+    private volatile EntityRegistry registry = null;
+
+    /**
+     * A variable representing the listeners that are told about every change to an entity or item
+     */
+    private static volatile MutationListener[] mutationListeners = new MutationListener[0];
+
+    /**
+     * A variable representing the publisher of the snapshots of an entity, null until a snapshot is asked for
+     */
+    private volatile EntitySnapshot.Publisher publisher = null;
+
+    /**
+     * A variable representing the lock that guards the inventory of an entity in the concurrency mode
+     */
+    private final StampedLock lock = new StampedLock();
+
     /**
      * A variable representing the name of an entity (defensive)
      */
@@ -58,7 +96,7 @@ public abstract class Entity {
     /**
      * A variable representing the maximum amount of hitpoints of an entity (nominal)
      */
-    private Long MaxHP = 0L;
+    private long MaxHP = 0L;
 
     /**
      * A variable representing the current amount of hitpoints (nominal)
@@ -66,14 +104,14 @@ public abstract class Entity {
     private long HP = 0L;
 
     /**
-     * A variable representing the AnchorPoints of an entity
+     * A variable representing the shared layout of the AnchorPoints of an entity
      */
-    private final ArrayList<AnchorPoint> AnchorPoints = new ArrayList<>();
+    private AnchorLayout anchorLayout;
 
     /**
      * A variable representing the terminated status of an entity
      */
-    private boolean Terminated = false;
+    private volatile boolean Terminated = false;
 
     /**
      * A regex that the name of an entity needs to follow
@@ -91,14 +129,19 @@ public abstract class Entity {
     private long Capacity = 0;
 
     /**
-     * A variable representing the DamageType of an entity
+     * A variable representing the DamageTypes of an entity, as a bitmask with the bit at the ordinal of every damageType set
      */
-    private HashSet<DamageType> DamageTypes = new HashSet<>();
+    private int damageTypeMask = 0;
 
     /**
-     * A Variable representing the strength of a Hero
+     * A variable representing all damageTypes, indexed by their ordinal
      */
-    private BigDecimal Strength = BigDecimal.valueOf(0);
+    private static final DamageType[] allDamageTypes = DamageType.values();
+
+    /**
+     * A Variable representing the strength of a Hero, stored as a fixed-point number in units of 10^-strengthScale
+     */
+    private long Strength = 0L;
 
     /**
      * A Variable representing the protection of a Hero
@@ -108,7 +151,12 @@ public abstract class Entity {
     /**
      * A variable representing the precision of the strength variable
      */
-    private static final int strengthScale = 2;
+    static final int strengthScale = 2;
+
+    /**
+     * A variable representing the amount of fixed-point strength units in one whole unit of strength
+     */
+    private static final long strengthUnit = 100L;
 
     /**
      * A variable representing the way to round the strength to the set strengthScale
@@ -116,9 +164,29 @@ public abstract class Entity {
     private static final RoundingMode roundingMode = RoundingMode.HALF_UP;
 
     /**
-     * A map representing the currently equipped items at each anchor point
+     * A variable representing all anchorpoints, indexed by their ordinal
      */
-    private final Map<AnchorPoint, Item> equipment = new EnumMap<>(AnchorPoint.class);
+    private static final AnchorPoint[] allAnchorPoints = AnchorPoint.values();
+
+    /**
+     * An array representing the currently equipped items, indexed by the ordinal of their anchor point
+     */
+    private final Item[] equipment = new Item[allAnchorPoints.length];
+
+    /**
+     * A bitmask representing the anchor points that currently hold an item, by ordinal
+     */
+    private int occupiedMask = 0;
+
+    /**
+     * A variable representing the running total weight of all items this entity holds, including the content of its backpacks
+     */
+    private double totalWeight = 0;
+
+    /**
+     * A variable representing the relative tolerance used when the running total weight is checked against a full recount
+     */
+    private static final double weightTolerance = 1e-9;
 
     /**********************************************************
      * Constructors
@@ -167,13 +235,13 @@ public abstract class Entity {
      *      | this.HP = maxHP
      *
      * @post AnchorPoints of entity are set
-     *      | this.AnchorPoints.addAll(Anchorpoints)
+     *      | this.anchorLayout = AnchorLayout.of(Anchorpoints)
      *
      * @post skinType of entity is set
      *      | this.skinType = skinType
      *
      * @post DamagesTypes of entity are set
-     *      | this.DamageTypes.addAll(damageTypes)
+     *      | this.damageTypeMask = toDamageTypeMask(damageTypes)
      */
     protected Entity(String name, Long maxHP, ArrayList<AnchorPoint> Anchorpoints, SkinType skinType, HashSet<DamageType> damageTypes) throws InvalidNameException, InvalidSkinTypeException, InvalidDamageTypesException {
         if (!isValidName(name)) {
@@ -188,9 +256,44 @@ public abstract class Entity {
         this.Name = name;
         this.MaxHP = maxHP;
         this.HP = maxHP;
-        this.AnchorPoints.addAll(Anchorpoints);
+        this.anchorLayout = AnchorLayout.of(Anchorpoints);
         this.skinType = skinType;
-        this.DamageTypes.addAll(damageTypes);
+        this.damageTypeMask = toDamageTypeMask(damageTypes);
+    }
+
+    /**
+     * A constructor for an entity whose state was validated beforehand
+     *
+     * @param name
+     *      name of the entity
+     *
+     * @param maxHP
+     *      maximum HP of the entity
+     *
+     * @param layout
+     *      the shared layout of the anchorpoints of the entity
+     *
+     * @param skinType
+     *      the skinType of the entity
+     *
+     * @param damageTypeMask
+     *      the damageTypes of the entity, as a bitmask
+     *
+     * @pre the name, skinType and damageTypes are valid for this entity
+     *      | isValidName(name) && isValidSkinType(skinType) && areValidDamageTypes(damageTypes of damageTypeMask)
+     *
+     * @post the entity has the given state and full hitpoints
+     *      | this.Name = name && this.MaxHP = maxHP && this.HP = maxHP && this.anchorLayout = layout
+     *      | && this.skinType = skinType && this.damageTypeMask = damageTypeMask
+     */
+    @Raw
+    Entity(String name, long maxHP, AnchorLayout layout, SkinType skinType, int damageTypeMask) {
+        this.Name = name;
+        this.MaxHP = maxHP;
+        this.HP = maxHP;
+        this.anchorLayout = layout;
+        this.skinType = skinType;
+        this.damageTypeMask = damageTypeMask;
     }
 
 
@@ -203,10 +306,43 @@ public abstract class Entity {
      *
      * @param strength
      *      Strength we want to set
+     *
+     * @effect the strength is rounded to the strengthScale and stored as a fixed-point number
+     *      | this.setScaledStrength(toScaledStrength(strength))
      */
     @Raw
     protected void setStrength(BigDecimal strength) {
-        this.Strength = strength;
+        this.setScaledStrength(toScaledStrength(strength));
+    }
+
+    /**
+     * setter for the fixed-point strength of an entity
+     *
+     * @param scaledStrength
+     *      strength we want to set, in units of 10^-strengthScale
+     *
+     * @post the strength is set
+     *      | this.Strength = scaledStrength
+     */
+    @Raw
+    protected void setScaledStrength(long scaledStrength) {
+        this.Strength = scaledStrength;
+    }
+
+    /**
+     * converts a strength to its fixed-point representation
+     *
+     * @param strength
+     *      the strength we want to convert
+     *
+     * @return the strength rounded to the strengthScale using the roundingMode, in units of 10^-strengthScale
+     *      | result == strength.setScale(strengthScale, roundingMode).unscaledValue().longValueExact()
+     *
+     * @throws ArithmeticException if the strength does not fit in the fixed-point representation
+     */
+    @Model
+    protected static long toScaledStrength(BigDecimal strength) {
+        return strength.setScale(strengthScale, roundingMode).unscaledValue().longValueExact();
     }
 
     /**
@@ -248,22 +384,123 @@ public abstract class Entity {
      * getter for the strength of a Hero
      *
      * @return strength of hero
+     *      | result == BigDecimal.valueOf(this.Strength, strengthScale)
+     *
+     * @note this is a view on the fixed-point strength, use getScaledStrength() to avoid the allocation
+     */
+    @Raw
+    public BigDecimal getStrength() {
+        return BigDecimal.valueOf(this.Strength, strengthScale);
+    }
+
+    /**
+     * getter for the fixed-point strength of an entity
+     *
+     * @return strength of the entity in units of 10^-strengthScale
      *      | this.Strength
      */
     @Basic @Raw
-    public BigDecimal getStrength() {
+    public long getScaledStrength() {
         return this.Strength;
     }
 
+    /**
+     * multiplies the strength of an entity with a given factor
+     *
+     * @param factor
+     *      the factor we want to multiply the strength with
+     *
+     * @return the whole part of the product, truncated towards zero
+     *      | result == this.getStrength().multiply(BigDecimal.valueOf(factor)).longValue()
+     *
+     * @throws ArithmeticException if the product overflows
+     */
+    @Model
+    protected long multiplyStrength(long factor) {
+        return multiplyScaledStrength(this.Strength, factor);
+    }
+
+    /**
+     * multiplies a fixed-point strength with a given factor
+     *
+     * @param scaledStrength
+     *      the strength in hundredths
+     *
+     * @param factor
+     *      the factor we want to multiply the strength with
+     *
+     * @return the whole part of the product, truncated towards zero
+     *      | result == scaledStrength * factor / strengthUnit
+     *
+     * @throws ArithmeticException if the product overflows
+     */
+    @Model
+    protected static long multiplyScaledStrength(long scaledStrength, long factor) {
+        return Math.multiplyExact(scaledStrength, factor) / strengthUnit;
+    }
+
     /**
      * setter for the Damagetypes of an entity
      *
      * @param damageTypes
      *      the damageTypes we want to set
+     *
+     * @post the damageTypes are stored as a bitmask
+     *      | this.damageTypeMask = toDamageTypeMask(damageTypes)
      */
     @Raw
     protected void setDamageTypes(HashSet<DamageType> damageTypes) {
-        DamageTypes = damageTypes;
+        this.damageTypeMask = toDamageTypeMask(damageTypes);
+    }
+
+    /**
+     * getter for the damageTypes of an entity
+     *
+     * @return a new set with the damageTypes of this entity
+     *      | for each damageType in DamageType.values()
+     *      |   result.contains(damageType) == this.hasDamageType(damageType)
+     */
+    @Raw
+    public HashSet<DamageType> getDamageTypes() {
+        HashSet<DamageType> damageTypes = new HashSet<>();
+        for (int mask = damageTypeMask; mask != 0; mask &= mask - 1) {
+            damageTypes.add(allDamageTypes[Integer.numberOfTrailingZeros(mask)]);
+        }
+        return damageTypes;
+    }
+
+    /**
+     * getter for the bitmask of the damageTypes of an entity
+     *
+     * @return the bitmask with the bit at the ordinal of every damageType of this entity set
+     *      | this.damageTypeMask
+     */
+    @Basic @Raw
+    public int getDamageTypeMask() {
+        return damageTypeMask;
+    }
+
+    /**
+     * converts damageTypes to a bitmask
+     *
+     * @param damageTypes
+     *      the damageTypes we want to convert, null damageTypes are skipped
+     *
+     * @return the bitmask with the bit at the ordinal of every given damageType set
+     *      | for each damageType in damageTypes
+     *      |   result |= 1 << damageType.ordinal()
+     */
+    @Model
+    protected static int toDamageTypeMask(Collection<DamageType> damageTypes) {
+        int mask = 0;
+        if (damageTypes != null) {
+            for (DamageType damageType : damageTypes) {
+                if (damageType != null) {
+                    mask |= 1 << damageType.ordinal();
+                }
+            }
+        }
+        return mask;
     }
 
     /**
@@ -272,37 +509,56 @@ public abstract class Entity {
      * @param index the index of the anchorpoint
      *
      * @return the anchorpoint at the given Index
-     *      | this.AnchorPoints.get(index)
+     *      | this.anchorLayout.get(index)
      *
      * @pre Index must be within range
      */
     @Raw
     public AnchorPoint getAnchorPointAt(int index) {
-        if (index >= this.getAmountOfAnchorPoints() || index < 0) {
-            return null;
-        }
-        return AnchorPoints.get(index);
+        return anchorLayout.get(index);
     }
 
     /**
-     * a getter for the amount of anchorpoints
+     * a getter for the amount of anchorpoints, an anchorpoint that appears more than once is counted every time
      *
      * @return amount of anchorpoints
-     *      | this.AnchorPoints.size()
+     *      | this.anchorLayout.size()
      */
     @Raw
     public int getAmountOfAnchorPoints() {
-        return AnchorPoints.size();
+        return anchorLayout.size();
+    }
+
+    /**
+     * getter for the layout of the anchorpoints of an entity
+     *
+     * @return the shared anchorpoint layout
+     *      | this.anchorLayout
+     */
+    @Basic @Raw
+    public AnchorLayout getAnchorLayout() {
+        return anchorLayout;
+    }
+
+    /**
+     * getter for the bitmask of the anchorpoints that currently hold an item
+     *
+     * @return the bitmask with the bit at the ordinal of every occupied anchorpoint set
+     *      | this.occupiedMask
+     */
+    @Basic @Raw
+    public int getOccupiedMask() {
+        return occupiedMask;
     }
 
     /**
      * getter for the amount of DamageTypes
      *
      * @return the amount of DamageTypes
-     *      | result == DamageTypes.size()
+     *      | result == Integer.bitCount(getDamageTypeMask())
      */
     public int getAmountOfDamageTypes() {
-        return DamageTypes.size();
+        return Integer.bitCount(damageTypeMask);
     }
 
     /**
@@ -312,10 +568,10 @@ public abstract class Entity {
      *      the damageType we are looking for
      *
      * @return true if entity has damageType, false otherwise
-     *      | result == DamageTypes.contains(damageType)
+     *      | result == (damageType != null && (getDamageTypeMask() & (1 << damageType.ordinal())) != 0)
      */
     public boolean hasDamageType(DamageType damageType) {
-        return DamageTypes.contains(damageType);
+        return damageType != null && (damageTypeMask & (1 << damageType.ordinal())) != 0;
     }
 
     /**
@@ -327,6 +583,166 @@ public abstract class Entity {
     @Raw
     public abstract String getNameRegex();
 
+    /**
+     * getter for the compiled nameRegex of an entity
+     *
+     * @return the nameRegex, compiled once for every entity of the same class
+     *      | result.pattern().equals(this.getNameRegex())
+     */
+    @Model @Raw
+    protected abstract Pattern getNamePattern();
+
+    /**
+     * getter for the id of an entity
+     *
+     * @return the unique id of this entity
+     *      | this.id
+     */
+    @Basic @Raw @Immutable
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * getter for the registry of an entity
+     *
+     * @return the registry this entity is registered in, null if there is none
+     *      | this.registry
+     */
+    @Basic @Raw
+    public EntityRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * setter for the registry of an entity
+     *
+     * @param registry
+     *      the registry this entity is registered in, or null
+     *
+     * @post the registry of this entity is set
+     *      | this.registry = registry
+     */
+    @Raw @Model
+    void setRegistry(EntityRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * adds a listener that is told about every change to an entity or item
+     *
+     * @param listener
+     *      the listener we want to add
+     *
+     * @post the listener is told about every change from now on, unless it was null or already added
+     */
+    public static synchronized void addMutationListener(MutationListener listener) {
+        if (listener == null) return;
+        for (MutationListener added : mutationListeners) {
+            if (added == listener) return;
+        }
+        MutationListener[] listeners = Arrays.copyOf(mutationListeners, mutationListeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        mutationListeners = listeners;
+    }
+
+    /**
+     * removes a listener that was told about every change to an entity or item
+     *
+     * @param listener
+     *      the listener we want to remove
+     *
+     * @post the listener is no longer told about changes
+     */
+    public static synchronized void removeMutationListener(MutationListener listener) {
+        MutationListener[] listeners = mutationListeners;
+        for (int index = 0; index < listeners.length; index++) {
+            if (listeners[index] == listener) {
+                MutationListener[] remaining = new MutationListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, remaining, 0, index);
+                System.arraycopy(listeners, index + 1, remaining, index, remaining.length - index);
+                mutationListeners = remaining;
+                return;
+            }
+        }
+    }
+
+    /**
+     * tells every listener that an entity changed, and makes its published snapshot outdated
+     *
+     * @param entity
+     *      the entity that changed, nothing happens if it is null
+     */
+    @Model
+    static void fireEntityChanged(Entity entity) {
+        if (entity == null) return;
+        EntitySnapshot.Publisher snapshots = entity.publisher;
+        if (snapshots != null) {
+            snapshots.invalidate();
+        }
+        MutationListener[] listeners = mutationListeners;
+        if (listeners.length == 0) return;
+        for (MutationListener listener : listeners) {
+            listener.entityChanged(entity);
+        }
+    }
+
+    /**
+     * tells every listener that an item changed
+     *
+     * @param item
+     *      the item that changed
+     */
+    @Model
+    static void fireItemChanged(Item item) {
+        MutationListener[] listeners = mutationListeners;
+        if (listeners.length == 0) return;
+        for (MutationListener listener : listeners) {
+            listener.itemChanged(item);
+        }
+    }
+
+    /**
+     * getter for a snapshot of an entity
+     *
+     * @return an immutable snapshot of the current state of this entity and its items, the same snapshot as before if
+     * this entity did not change since then
+     *
+     * @throws IllegalStateException
+     *      if the concurrency mode is disabled, because changes then take no locks and a snapshot could mix states
+     *      from different moments
+     *      | !EntityLocks.isEnabled()
+     *
+     * @note readers never lock the entity when nothing changed. A new snapshot is only built when a reader asks for it
+     * after a change, and the entity is locked for reading while it is built, so no change can happen halfway
+     */
+    public EntitySnapshot getSnapshot() {
+        if (!EntityLocks.isEnabled()) {
+            throw new IllegalStateException("snapshots can only be taken in the concurrency mode");
+        }
+        EntitySnapshot.Publisher snapshots = publisher;
+        if (snapshots == null) {
+            synchronized (this) {
+                snapshots = publisher;
+                if (snapshots == null) {
+                    publisher = snapshots = new EntitySnapshot.Publisher();
+                }
+            }
+        }
+        return snapshots.get(this);
+    }
+
+    /**
+     * getter for the lock of an entity
+     *
+     * @return the lock that guards the inventory of this entity
+     *      | this.lock
+     */
+    @Basic @Raw @Model
+    StampedLock getLock() {
+        return lock;
+    }
+
     /**
      * getter for the name of an entity
      *
@@ -365,15 +781,15 @@ public abstract class Entity {
      *
      * @return the total amount of basDamage
      *      | totalDamage = 0
-     *      | for each damageType in DamageTypes
+     *      | for each damageType in getDamageTypes()
      *      |   totalDamage += damageType.getBaseDamage()
      *      | result == totalDamage
      */
     @Model
     private long getTotalDamageTypeDamage() {
         long totalDamage = 0;
-        for (DamageType damageType : DamageTypes) {
-            totalDamage += damageType.getBaseDamage();
+        for (int mask = damageTypeMask; mask != 0; mask &= mask - 1) {
+            totalDamage += allDamageTypes[Integer.numberOfTrailingZeros(mask)].getBaseDamage();
         }
         return totalDamage;
     }
@@ -392,15 +808,12 @@ public abstract class Entity {
     private long getActiveWeaponDamage() {
         if (this.isIntelligent()) {
             long totalDamage = 0;
-            if (this.AnchorPoints.contains(AnchorPoint.LEFTHAND)) {
-                if (this.hasItemAt(AnchorPoint.LEFTHAND)) {
-                    totalDamage = this.getItemAt(AnchorPoint.LEFTHAND).getDamage();
-                }
+            int hands = occupiedMask & anchorLayout.getMask();
+            if ((hands & AnchorLayout.bit(AnchorPoint.LEFTHAND)) != 0) {
+                totalDamage = equipment[AnchorPoint.LEFTHAND.ordinal()].getDamage();
             }
-            if (this.AnchorPoints.contains(AnchorPoint.RIGHTHAND)) {
-                if (this.hasItemAt(AnchorPoint.RIGHTHAND)) {
-                    totalDamage = this.getItemAt(AnchorPoint.RIGHTHAND).getDamage();
-                }
+            if ((hands & AnchorLayout.bit(AnchorPoint.RIGHTHAND)) != 0) {
+                totalDamage = equipment[AnchorPoint.RIGHTHAND.ordinal()].getDamage();
             }
             return totalDamage;
         }
@@ -413,11 +826,15 @@ public abstract class Entity {
      * @param anchorPoint
      *      ancchorpoint we want the item of
      *
-     * @return the Item at a certain anchorpoint
-     *      | result == equipment.get(anchorPoint)
+     * @return the Item at a certain anchorpoint, null if there is none or the anchorpoint is null
+     *      | result == equipment[anchorPoint.ordinal()]
      */
     public Item getItemAt(AnchorPoint anchorPoint) {
-        return equipment.get(anchorPoint);
+        if (anchorPoint == null) {
+            return null;
+        }
+        int slot = anchorPoint.ordinal();
+        return EntityLocks.read(this, () -> equipment[slot]);
     }
 
     /**
@@ -460,49 +877,88 @@ public abstract class Entity {
      *      | if(this.isIntelligent())
      *      |   totalDamage += this.getActiveWeaponDamage + this.getStrength + this.getTotalDamageTypeDamage - 10
      *      | else totalDamage += his.getStrength + this.getTotalDamageTypeDamage - 10
-     *      | result == totalDamage
+     *      | result == max(0, totalDamage) / 2, rounded down
      *
      * @effect If the entity is intelligent we add the Active weapons damage
      *      | if(this.isIntelligent())
      */
     public long getBaseDamage() {
-        BigDecimal totalDamage = BigDecimal.ZERO;
-
-        BigDecimal weaponDamage = BigDecimal.valueOf(this.getActiveWeaponDamage());
-        BigDecimal damageTypeDamage = BigDecimal.valueOf(this.getTotalDamageTypeDamage());
+        long flatDamage = this.getTotalDamageTypeDamage() - 10;
 
         if (this.isIntelligent()) {
-            totalDamage = totalDamage.add(Strength).add(weaponDamage).add(damageTypeDamage).subtract(BigDecimal.TEN);
-        } else {
-            totalDamage = totalDamage.add(Strength).add(damageTypeDamage).subtract(BigDecimal.TEN);
+            flatDamage += this.getActiveWeaponDamage();
         }
 
-        totalDamage = totalDamage.max(BigDecimal.ZERO);
+        long totalDamage = Math.max(0L, Math.addExact(Strength, Math.multiplyExact(flatDamage, strengthUnit)));
 
-        return totalDamage.divide(BigDecimal.valueOf(2), RoundingMode.DOWN).longValue();
+        return totalDamage / (2 * strengthUnit);
     }
 
     /**
-     * getter for all items in an item on an anchorpoint, and the item itself
+     * getter for all items on the anchorpoints of an entity and everything stored in them, however deeply nested
      *
-     * @return an arraylist of items
-     *          | items = item
-     *          | for index = 0; index < item.getAmountOfItems; Index++
-     *          |   items.add(item.getItemAt(Index))
+     * @return a new arraylist of items, in depth-first order
+     *          | items = new ArrayList()
+     *          | forEachItem(items::add)
      *          | result == items
      */
     @Raw
     public ArrayList<Item> getAllItems() {
         ArrayList<Item> items = new ArrayList<>();
-        for (Item item : equipment.values()) {
-            items.add(item);
-            for (int i = 0; i < item.getAmountOfItems(); i++) {
-                items.add(item.getItemAt(i));
-            }
-        }
+        this.forEachItem(items::add);
         return items;
     }
 
+    /**
+     * performs an action on all items on the anchorpoints of an entity and everything stored in them, however deeply nested
+     *
+     * @param action
+     *      the action we want to perform on every item
+     *
+     * @effect the action is performed on every item in depth-first order, without building an intermediate collection
+     *      | for each item in new ItemCursor(this)
+     *      |   action.accept(item)
+     *
+     * @note in the concurrency mode the entity is read locked during the walk, so the action must not change it
+     */
+    @Raw
+    public void forEachItem(Consumer<? super Item> action) {
+        EntityLocks.readLocked(this, () -> {
+            ItemCursor cursor = ItemCursor.borrow(this);
+            try {
+                while (cursor.hasNext()) {
+                    action.accept(cursor.next());
+                }
+            } finally {
+                cursor.release();
+            }
+        });
+    }
+
+    /**
+     * getter for a spliterator over all items of an entity, however deeply nested
+     *
+     * @return a spliterator that splits over the anchorpoints of this entity and the content of its backpacks
+     */
+    @Raw
+    public Spliterator<Item> itemSpliterator() {
+        return new ItemSpliterator(this);
+    }
+
+    /**
+     * getter for a stream over all items of an entity, however deeply nested
+     *
+     * @param parallel
+     *      whether the stream should be parallel
+     *
+     * @return a stream over all items of this entity
+     *      | result == StreamSupport.stream(itemSpliterator(), parallel)
+     */
+    @Raw
+    public Stream<Item> itemStream(boolean parallel) {
+        return StreamSupport.stream(this.itemSpliterator(), parallel);
+    }
+
     /**
      * a getter for the skintype of an entity
      *
@@ -528,19 +984,79 @@ public abstract class Entity {
     /**
      * getter for the total weight of all items an entity has
      *
-     * @return the total weight of all the entity's items
-     *      | for each item in this.getAllItems()
-     *      |   totalweight += item.getTotalWeightweight()
+     * @return the total weight of all the entity's items, kept up to date by every equip, unequip, store and unpack
+     *      | for each item in equipment
+     *      |   totalweight += item.getTotalWeight()
      *      | result == totalweight
+     *
+     * @note when assertions are enabled the running total is checked against a full recount, outside the
+     * concurrency mode
      */
     @Raw
     public double getTotalWeight() {
-        double TotalWeight = 0;
-        ArrayList<Item> items = getAllItems();
-        for (Item item : items) {
-            TotalWeight += item.getTotalWeight();
+        assert EntityLocks.isEnabled() || hasConsistentTotalWeight() : "running total weight of " + getName() + " is out of sync";
+        return EntityLocks.readDouble(this, () -> totalWeight);
+    }
+
+    /**
+     * adjusts the running total weight of an entity
+     *
+     * @param delta
+     *      the change in weight of one of the entity's items
+     *
+     * @post the running total weight is adjusted
+     *      | this.totalWeight += delta
+     */
+    @Model
+    void adjustTotalWeight(double delta) {
+        this.totalWeight += delta;
+    }
+
+    /**
+     * recounts the total weight of all items an entity has, without using any cached weight
+     *
+     * @return the recounted total weight
+     *      | for each item in equipment
+     *      |   totalweight += item.recountTotalWeight()
+     *      | result == totalweight
+     */
+    @Model
+    double recountTotalWeight() {
+        double recounted = 0;
+        for (Item item : equipment) {
+            if (item != null) {
+                recounted += item.recountTotalWeight();
+            }
         }
-        return TotalWeight;
+        return recounted;
+    }
+
+    /**
+     * checks whether the running total weight of an entity matches a full recount
+     *
+     * @return true if both weights are equal within the weightTolerance, false otherwise
+     *      | result == isSameWeight(this.totalWeight, recountTotalWeight())
+     */
+    @Model
+    private boolean hasConsistentTotalWeight() {
+        return isSameWeight(this.totalWeight, recountTotalWeight());
+    }
+
+    /**
+     * checks whether two weights are equal, allowing for rounding errors of the running sums
+     *
+     * @param weight1
+     *      the first weight
+     *
+     * @param weight2
+     *      the second weight
+     *
+     * @return true if the weights differ less than the relative weightTolerance, false otherwise
+     *      | result == Math.abs(weight1 - weight2) <= weightTolerance * Math.max(1, Math.max(Math.abs(weight1), Math.abs(weight2)))
+     */
+    @Model
+    static boolean isSameWeight(double weight1, double weight2) {
+        return Math.abs(weight1 - weight2) <= weightTolerance * Math.max(1, Math.max(Math.abs(weight1), Math.abs(weight2)));
     }
 
     /**
@@ -560,9 +1076,8 @@ public abstract class Entity {
      *      AnchorPoint that needs to be found
      *
      * @return The AnchorPoint of the entity if found, null otherwise
-     *      | for each ap in AnchorPoints
-     *      |   if ap.equals(anchorpoint)
-     *      |   then result == ap
+     *      | if (hasAnchorpoint(anchorPoint))
+     *      |   then result == anchorPoint
      *      | result null
      *
      * @pre given Anchorpoint must be in hashset
@@ -574,12 +1089,7 @@ public abstract class Entity {
      */
     @Model
     protected AnchorPoint getAnchorPoint(AnchorPoint anchorPoint) {
-        for (AnchorPoint ap : this.AnchorPoints) {
-            if (ap.equals(anchorPoint)) {
-                return ap;
-            }
-        }
-        return null;
+        return hasAnchorpoint(anchorPoint) ? anchorPoint : null;
     }
 
     /**
@@ -604,6 +1114,7 @@ public abstract class Entity {
     @Model
     private void setHP(long newHP) {
         this.HP = Math.min(Math.max(newHP, 0), this.MaxHP);
+        fireEntityChanged(this);
     }
 
     /**
@@ -611,22 +1122,24 @@ public abstract class Entity {
      *
      * @param item
      *      item we want to find the anchorpoint of
-     * @return anchorpoint of the item
-     *      | for each anchorpoint in anchorpoints
-     *      |   if anchorpoint.getItem == item
-     *      |       result == anchorpoint
+     * @return anchorpoint of the item, null if this entity does not have the item equipped
+     *      | if (item.getHolder() == this)
+     *      |   result == item.getEquippedAnchorPoint()
      *      | result == null
+     *
+     * @note every item remembers the anchorpoint it is equipped on, so this lookup takes constant time
      */
     @Raw
     public AnchorPoint getAnchorPointWithItem(Item item) {
-        if (item == null) return null;
+        if (item == null || item.getHolder() != this) return null;
 
-        for (AnchorPoint anchorPoint : this.AnchorPoints) {
-            if (equipment.containsKey(anchorPoint) && equipment.get(anchorPoint).equals(item)) {
-                return anchorPoint;
+        return EntityLocks.read(this, () -> {
+            AnchorPoint anchorPoint = item.getEquippedAnchorPoint();
+            if (anchorPoint == null || equipment[anchorPoint.ordinal()] != item) {
+                return null;
             }
-        }
-        return null;
+            return anchorPoint;
+        });
     }
 
     /**********************************************************
@@ -638,9 +1151,11 @@ public abstract class Entity {
      *
      * @effect makes the HP prime again
      *      | makePrime(this.getHP())
+     *
+     * @note in the concurrency mode the entity is locked while its HP changes
      */
     public void normaliseHP() {
-        makePrime(this.HP);
+        EntityLocks.write(this, () -> makePrime(this.HP));
     }
 
     /**
@@ -651,13 +1166,13 @@ public abstract class Entity {
      *
      * @return tue if the anchorpoint has an item, false otherwise or anchorpoint is null
      *      | if (anchorPoint == null) return false;
-     *      | result == equipment.containsKey(anchorPoint)
+     *      | result == (getOccupiedMask() & AnchorLayout.bit(anchorPoint)) != 0
      */
     public boolean hasItemAt(AnchorPoint anchorPoint) {
         if (anchorPoint == null) {
             return false;
         }
-        return equipment.containsKey(anchorPoint);
+        return (occupiedMask & AnchorLayout.bit(anchorPoint)) != 0;
     }
 
     /**
@@ -673,24 +1188,12 @@ public abstract class Entity {
      *
      * @param HP
      *      The number we want to find the next prime number for
-     * @return the next prime number
-     *      | if HP <= 2
-     *      |   result == 2
-     *      | if HP % 2 == 0
-     *      |   HP++
-     *      | while Not isPrime
-     *      |   HP += 2
-     *      | return HP
+     * @return the smallest prime number bigger than or equal to HP
+     *      | result == PrimeService.nextPrime(HP)
      */
     @Model
     private long getNextPrime(long HP) {
-        if (HP <= 2) return 2;
-        if (HP % 2 == 0) HP++;
-
-        while (!isPrime(HP)) {
-            HP += 2;
-        }
-        return HP;
+        return PrimeService.nextPrime(HP);
     }
 
     /**
@@ -705,38 +1208,107 @@ public abstract class Entity {
     @Model
     private void makePrime(long HP) {
         this.HP = getNextPrime(HP);
+        fireEntityChanged(this);
     }
 
     /**
      * terminates an entity
      *
      * @effect unequips all items on the anchorpoints of an entity
-     *      | for each anchorpoint in Anchorpoints
-     *      |   if anchorpoint.hasItem()
-     *      |       this.unequip(anchorpoint, anchorpoint.getItem)
+     *      | for each anchorpoint in getOccupiedMask()
+     *      |   this.unequip(anchorpoint, this.getItemAt(anchorpoint))
      *
      * @post entity is terminated
      *      | this.Terminated = true
+     *
+     * @effect the registry of the entity, if any, moves it to its terminated entities
+     *      | if (getRegistry() != null)
+     *      |   then getRegistry().refreshStatus(this)
+     *
+     * @effect every mutation listener is told this entity changed
+     *      | fireEntityChanged(this)
      */
     @Model
     private void terminate() {
-        for (AnchorPoint anchorPoint : AnchorPoints) {
-            if (hasItemAt(anchorPoint)) {
-                Item item = equipment.get(anchorPoint);
-                this.unequip(anchorPoint, item);
-            }
+        for (int occupied = occupiedMask; occupied != 0; occupied &= occupied - 1) {
+            AnchorPoint anchorPoint = allAnchorPoints[Integer.numberOfTrailingZeros(occupied)];
+            this.unequip(anchorPoint, equipment[anchorPoint.ordinal()]);
         }
         this.Terminated = true;
+        EntityRegistry currentRegistry = this.registry;
+        if (currentRegistry != null) {
+            currentRegistry.refreshStatus(this);
+        }
+        fireEntityChanged(this);
     }
 
     /**
      * kills an entity
      *
-     * @effect uses terminate method to kill an entity
+     * @effect uses terminate method to kill an entity, atomically in the concurrency mode
      *      | terminate()
      */
     public void kill() {
-        this.terminate();
+        EntityLocks.write(this, this::terminate);
+    }
+
+    /**
+     * brings a terminated entity back as if it was just created, so it can be reused
+     *
+     * @param name
+     *      the new name of the entity
+     *
+     * @param maxHP
+     *      the new maximum hitpoints of the entity
+     *
+     * @param layout
+     *      the new anchorpoints of the entity
+     *
+     * @param skinType
+     *      the new skinType of the entity
+     *
+     * @param damageTypeMask
+     *      the new damageTypes of the entity, as a bitmask
+     *
+     * @pre the entity is terminated and holds no items
+     *      | isTerminated() && getOccupiedMask() == 0
+     *
+     * @pre the name, skinType and damageTypes are valid for this entity
+     *
+     * @post the entity has the given state, full hitpoints, no items and is no longer terminated
+     *      | getName() == name && getMaxHP() == maxHP && getHP() == maxHP && getAnchorLayout() == layout
+     *      | && getSkinType() == skinType && getDamageTypeMask() == damageTypeMask
+     *      | && getTotalWeight() == 0 && !isTerminated()
+     *
+     * @effect the capacity is recalculated for the new state
+     *      | setCapacity()
+     *
+     * @effect the registry of the entity, if any, finds it again under its new name as a living entity
+     *
+     * @note the entity keeps its id and its lock
+     */
+    @Raw @Model
+    void reset(String name, long maxHP, AnchorLayout layout, SkinType skinType, int damageTypeMask) {
+        assert isTerminated() && occupiedMask == 0 : "only a terminated entity without items can be reset";
+        EntityRegistry currentRegistry = this.registry;
+        if (currentRegistry != null) {
+            currentRegistry.unregister(this);
+        }
+        EntityLocks.write(this, () -> {
+            this.Name = name;
+            this.MaxHP = maxHP;
+            this.HP = maxHP;
+            this.anchorLayout = layout;
+            this.skinType = skinType;
+            this.damageTypeMask = damageTypeMask;
+            this.totalWeight = 0;
+            this.setCapacity();
+            this.Terminated = false;
+        });
+        if (currentRegistry != null) {
+            currentRegistry.register(this);
+        }
+        fireEntityChanged(this);
     }
 
     /**
@@ -750,12 +1322,14 @@ public abstract class Entity {
      *
      * @post when HP hits 0 the entity needs to be killed
      *      | kill()
+     *
+     * @note in the concurrency mode the entity is locked while its HP changes
      */
     public void reduceHP(long Damage) {
         if (Damage < 0) {
             return;
         }
-        setHP(Math.max(0, this.getHP() - Damage));
+        EntityLocks.write(this, () -> setHP(Math.max(0, this.getHP() - Damage)));
     }
 
     /**
@@ -766,13 +1340,15 @@ public abstract class Entity {
      *
      * @pre entity must be healable
      *      | this.isHealable()
+     *
+     * @note in the concurrency mode the entity is locked while its HP changes
      */
     public void increaseHP(long healingAmount) {
         if (healingAmount < 0) {
             return;
         }
         if (this.isHealable()) {
-            setHP(Math.min(this.getMaxHP(), this.getHP() + healingAmount));
+            EntityLocks.write(this, () -> setHP(Math.min(this.getMaxHP(), this.getHP() + healingAmount)));
         }
     }
 
@@ -806,11 +1382,37 @@ public abstract class Entity {
      * @post Item of anchorpoint is set to given item
      *      | this.getAnchorPoint(anchorPoint).setItem(item)
      *
+     * @post the weight of the item is added to the total weight of this entity
+     *      | this.totalWeight += item.getTotalWeight()
+     *
      * @post Holder of the item is set to this entity
      *      | item.setHolder(this)
+     *
+     * @effect every mutation listener is told the item and this entity changed
+     *      | fireItemChanged(item) && fireEntityChanged(this)
+     *
+     * @note in the concurrency mode this entity and the entity that holds the item are locked during the equip. An
+     * item that no entity holds is claimed for this entity first, so no other entity can take it at the same time
      */
     @Raw
     public void equip(AnchorPoint anchorPoint, Item item) {
+        EntityLocks.write(() -> this, () -> item == null ? null : item.claimFor(this),
+                () -> Item.moveClaimed(item, () -> equipItem(anchorPoint, item)));
+    }
+
+    /**
+     * equips a given item to a given anchorpoint, without taking any locks
+     *
+     * @param anchorPoint
+     *      the anchorpoint we want to equip the item to
+     *
+     * @param item
+     *      the item we want to equip to the anchorpoint
+     *
+     * @see #equip(AnchorPoint, Item)
+     */
+    @Raw @Model
+    private void equipItem(AnchorPoint anchorPoint, Item item) {
         if(!this.canEquip(item)){
             return;
         }
@@ -825,21 +1427,27 @@ public abstract class Entity {
         if (!anchorPoint.canAttach(item)) {
             return;
         }
-        if (item.getBackpack() != null) {
-            item.getBackpack().unpackItem(item);
+        if (hasItemAt(anchorPoint) && getItemAt(anchorPoint) != item) {
+            this.unequip(anchorPoint, getItemAt(anchorPoint));
         }
 
-        if (item.getHolder() != null) {
-            item.getHolder().unequip(item.getHolder().getAnchorPointWithItem(item), item);
-        }
-
-        equipment.put(anchorPoint, item);
+        Entity formerHolder = item.detach();
+        item.flushPendingChanges();
+        equipment[anchorPoint.ordinal()] = item;
+        occupiedMask |= AnchorLayout.bit(anchorPoint);
+        item.setEquippedAnchorPoint(anchorPoint);
+        this.adjustTotalWeight(item.getTotalWeight());
 
         try {
             item.setHolder(this);
         } catch (InvalidHolderException e) {
             assert false;
         }
+        fireItemChanged(item);
+        if (formerHolder != this) {
+            fireEntityChanged(formerHolder);
+        }
+        fireEntityChanged(this);
     }
 
     /**
@@ -864,11 +1472,35 @@ public abstract class Entity {
      * @post set item on anchorpoint to null
      *      | getAnchorPoint(anchorPoint).setItem(null)
      *
+     * @post if the item was on the anchorpoint its weight is removed from the total weight of this entity
+     *      | this.totalWeight -= item.getTotalWeight()
+     *
      * @post Holder of Item must be set to null
      *      | item.setHolder(null)
+     *
+     * @effect every mutation listener is told the item and this entity changed
+     *      | fireItemChanged(item) && fireEntityChanged(this)
+     *
+     * @note in the concurrency mode this entity is locked during the unequip
      */
     @Raw
     public void unequip(AnchorPoint anchorPoint, Item item) {
+        EntityLocks.write(this, () -> unequipItem(anchorPoint, item));
+    }
+
+    /**
+     * unequips an item from an entity, without taking any locks
+     *
+     * @param anchorPoint
+     *      the anchorpoint we want to unequip the item from
+     *
+     * @param item
+     *      the item we want to unequip from the anchorpoint
+     *
+     * @see #unequip(AnchorPoint, Item)
+     */
+    @Raw @Model
+    private void unequipItem(AnchorPoint anchorPoint, Item item) {
         if (!hasAnchorpoint(anchorPoint)) {
             return;
         }
@@ -881,13 +1513,42 @@ public abstract class Entity {
             return;
         }
 
-        this.equipment.remove(anchorPoint, item);
+        if (equipment[anchorPoint.ordinal()] != item) {
+            return;
+        }
+        this.detachItem(anchorPoint, item);
 
         try {
             item.setHolder(null);
         } catch (InvalidHolderException e) {
             assert false;
         }
+        fireItemChanged(item);
+        fireEntityChanged(this);
+    }
+
+    /**
+     * takes an item off an anchorpoint of an entity, without changing the holder of the item
+     *
+     * @param anchorPoint
+     *      the anchorpoint the item is equipped on
+     *
+     * @param item
+     *      the item we want to take off
+     *
+     * @pre the item is equipped on the anchorpoint
+     *      | getItemAt(anchorPoint) == item
+     *
+     * @post the anchorpoint is free and the weight of the item is removed from the total weight of this entity
+     *      | getItemAt(anchorPoint) == null && this.totalWeight -= item.getTotalWeight()
+     */
+    @Raw @Model
+    void detachItem(AnchorPoint anchorPoint, Item item) {
+        item.flushPendingChanges();
+        equipment[anchorPoint.ordinal()] = null;
+        occupiedMask &= ~AnchorLayout.bit(anchorPoint);
+        item.setEquippedAnchorPoint(null);
+        this.adjustTotalWeight(-item.getTotalWeight());
     }
 
     /**
@@ -905,12 +1566,12 @@ public abstract class Entity {
      *      The name to be checked
      *
      * @return True if the name is valid, not empty and follows the nameRegex, false otherwise
-     *      | if (name == null) || !name.matches(this.getNameRegex())
+     *      | if (name == null) || name.isEmpty() || !name.matches(this.getNameRegex())
      *      |   result == false
      */
     @Raw
     public boolean isValidName(String name) {
-        return name.matches(this.getNameRegex()) && !name.isEmpty();
+        return name != null && !name.isEmpty() && this.getNamePattern().matcher(name).matches();
     }
 
     /**
@@ -939,22 +1600,11 @@ public abstract class Entity {
      *           | Entity.getHP()
      *
      * @return true if HP is prime, otherwise false
-     *      | if HP == 1
-     *      | then result == false
-     *      | for each index until HP-1
-     *      |   HP % index == 0
+     *      | result == PrimeService.isPrime(HP)
      */
     @Model
     private boolean isPrime(long HP) {
-        if (HP <= 1) {
-            return false;
-        }
-        for (int index = 2; index <= Math.sqrt(HP); index++) {
-            if (HP % index == 0) {
-                return false;
-            }
-        }
-        return true;
+        return PrimeService.isPrime(HP);
     }
 
     /**
@@ -984,10 +1634,10 @@ public abstract class Entity {
      * checks whether an entity has validDamageTypes
      *
      * @return if the entity has Valid DamageTypes, false otherwise
-     *      | this.areValidDamageTypes(DamageTypes)
+     *      | this.areValidDamageTypes(getDamageTypes())
      */
     public boolean hasValidDamageTypes(){
-        return this.areValidDamageTypes(DamageTypes);
+        return this.areValidDamageTypes(this.getDamageTypes());
     }
 
     /**
@@ -1004,20 +1654,23 @@ public abstract class Entity {
     /**
      * checks if all Items in an entity are valid
      *
-     * @return true if an item is terminated or does not have this entity as its holder, false otherwise
-     *      | for each anchorpoint in anchorpoints
-     *      |   for each item in anchorPoint.getAllItems()
-     *      |       if item.isTerminated() OR item.getHolder() != this
-     *      |           result == false
+     * @return false if an item is terminated or does not have this entity as its holder, true otherwise
+     *      | for each item in getAllItems()
+     *      |   if item.isTerminated() OR item.getHolder() != this
+     *      |       result == false
      *      | result == true
+     *
+     * @note every item is visited exactly once
      */
     public boolean hasValidItems() {
-        for (AnchorPoint anchorPoint : AnchorPoints) {
-            for (Item item : this.getAllItems()) {
-                if (item != null) {
-                    if (item.isTerminated() || item.getHolder() != this) return false;
-                }
+        ItemCursor cursor = ItemCursor.borrow(this);
+        try {
+            while (cursor.hasNext()) {
+                Item item = cursor.next();
+                if (item.isTerminated() || item.getHolder() != this) return false;
             }
+        } finally {
+            cursor.release();
         }
         return true;
     }
@@ -1029,20 +1682,13 @@ public abstract class Entity {
      *      item we want to check for
      *
      * @return true if entity has item, false otherwise
-     *      | for each anchorpoint in anchorpoints
-     *      |   if anchorpoint.getItem() == item
-     *      |       result == true
-     *      | result == false
+     *      | result == (item != null && item.getHolder() == this)
+     *
+     * @note every equip, unequip, store and unpack keeps the holder of an item, and of everything stored in it, pointing
+     * to the entity at the root of its containment tree, so this check takes constant time
      */
     public boolean hasAsItem(Item item) {
-        if (item == null) return false;
-
-        for (Item item1 : this.getAllItems()) {
-            if (item1.equals(item)) {
-                return true;
-            }
-        }
-        return false;
+        return item != null && item.getHolder() == this;
     }
 
     /**
@@ -1052,14 +1698,11 @@ public abstract class Entity {
      *      the anchorpoint that needs to be checked
      *
      * @return true if the entity has the anchorpoint, false otherwise
-     *      | for Index < getAmountOfAnchorPoints(); Index++
-     *      |   if this.getAnchorpointAt(Index) == anchorpoint
-     *      |       result == true
-     *      | result == false
+     *      | result == this.getAnchorLayout().contains(anchorPoint)
      */
     @Raw
     public boolean hasAnchorpoint(AnchorPoint anchorPoint) {
-        return AnchorPoints.contains(anchorPoint);
+        return anchorLayout.contains(anchorPoint);
     }
 
     /**
@@ -1129,7 +1772,26 @@ public abstract class Entity {
      */
     @Raw
     public boolean canEquip(Item item) {
+        return canEquip(item, 0);
+    }
+
+    /**
+     * checks if an entity can equip a certain item, counting weight that was added to its backpacks but was not passed
+     * on to this entity yet
+     *
+     * @param item
+     *      item we want to check for
+     *
+     * @param deferredWeight
+     *      the weight that is still pending in an open batch on one of the backpacks of this entity
+     *
+     * @return true if we can equip Item, false otherwise
+     *      | if (item == null) result == true
+     *      | result == !(this.getTotalWeight() + deferredWeight + item.getTotalWeight() > this.Capacity)
+     */
+    @Raw @Model
+    boolean canEquip(Item item, double deferredWeight) {
         if (item == null) return true;
-        return !(this.getTotalWeight() + item.getTotalWeight() > this.Capacity);
+        return !(this.getTotalWeight() + deferredWeight + item.getTotalWeight() > this.Capacity);
     }
 }
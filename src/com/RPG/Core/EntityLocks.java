@@ -0,0 +1,440 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A class that makes changes to the inventories of several entities atomic
+ *
+ * @note every entity has its own StampedLock. When the concurrency mode is enabled, a change locks every entity it
+ * touches for writing, always in the order of their ids, so two changes can never wait for each other. A thread
+ * that already holds some locks may lock more entities, as long as their ids are higher than every id it holds.
+ * Queries first try an optimistic read and only take the read lock if a change happened at the same time
+ *
+ * @note an item that no entity holds is claimed for the entity that takes it, by setting its holder atomically before
+ * the locks are taken. Every other change to the item then finds that entity and locks it, so a free item can never
+ * end up with two entities. Storing items in or unpacking items from a backpack that no entity holds is still not
+ * protected, and must not be done by several threads at once
+ *
+ * @note when the concurrency mode is disabled, which is the default, no locks are taken and no items are claimed at all
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public final class EntityLocks {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing whether the concurrency mode is enabled
+     */
+    private static volatile boolean enabled = false;
+
+    /**
+     * A variable representing the innermost guard held by the current thread, null if it holds none
+     */
+    private static final ThreadLocal<Guard> current = new ThreadLocal<>();
+
+    /**
+     * A variable representing the order in which entities are locked
+     */
+    private static final Comparator<Entity> lockOrder = Comparator.comparingLong(Entity::getId);
+
+    /**
+     * A variable representing a guard that holds no locks
+     */
+    private static final Guard emptyGuard = new Guard(new Entity[0], new long[0], null);
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * EntityLocks only has static methods and can not be instantiated
+     */
+    private EntityLocks() {
+    }
+
+    /**********************************************************
+     * Getters and Setters
+     **********************************************************/
+
+    /**
+     * checks whether the concurrency mode is enabled
+     *
+     * @return true if changes to entities lock them, false otherwise
+     */
+    @Basic
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * enables or disables the concurrency mode
+     *
+     * @param enable
+     *      whether changes to entities must lock them
+     *
+     * @pre no thread holds or waits for a lock of an entity
+     */
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * locks entities for writing, in the order of their ids
+     *
+     * @param entities
+     *      the entities we want to lock, null entities and entities the current thread already holds are skipped
+     *
+     * @return a guard that releases the locks when it is closed, on the same thread and in reverse order of locking
+     *
+     * @throws IllegalStateException
+     *      if the current thread already holds a lock of an entity with a higher id than an entity it wants to lock
+     */
+    public static Guard lock(Entity... entities) {
+        if (!enabled) {
+            return emptyGuard;
+        }
+        Guard outer = current.get();
+        Entity[] needed = new Entity[entities.length];
+        int amount = 0;
+        for (Entity entity : entities) {
+            if (entity != null && !isHeld(outer, entity) && !contains(needed, amount, entity)) {
+                needed[amount++] = entity;
+            }
+        }
+        if (amount == 0) {
+            return emptyGuard;
+        }
+        needed = Arrays.copyOf(needed, amount);
+        Arrays.sort(needed, lockOrder);
+        if (outer != null && needed[0].getId() < outer.highestId()) {
+            throw new IllegalStateException("entities must be locked in the order of their ids");
+        }
+        long[] stamps = new long[amount];
+        for (int index = 0; index < amount; index++) {
+            stamps[index] = needed[index].getLock().writeLock();
+        }
+        Guard guard = new Guard(needed, stamps, outer);
+        current.set(guard);
+        return guard;
+    }
+
+    /**
+     * performs a change to a single entity atomically
+     *
+     * @param entity
+     *      the entity that is changed
+     *
+     * @param change
+     *      the change we want to perform
+     */
+    static void write(Entity entity, Runnable change) {
+        if (!enabled) {
+            change.run();
+            return;
+        }
+        Guard guard = lock(entity);
+        try {
+            change.run();
+        } finally {
+            guard.close();
+        }
+    }
+
+    /**
+     * performs a change to two entities atomically, where the entities are looked up again after locking them
+     *
+     * @param first
+     *      looks up the first entity that is changed, which may be null
+     *
+     * @param second
+     *      looks up the second entity that is changed, which may be null
+     *
+     * @param change
+     *      the change we want to perform
+     *
+     * @post the change is performed while both entities are locked, and both lookups still give the locked
+     * entities. If another thread changed one of them before the locks were taken, the locks are released and
+     * taken again for the new entities
+     */
+    static void write(Supplier<Entity> first, Supplier<Entity> second, Runnable change) {
+        if (!enabled) {
+            change.run();
+            return;
+        }
+        while (true) {
+            Entity firstEntity = first.get();
+            Entity secondEntity = second.get();
+            Guard guard = lock(firstEntity, secondEntity);
+            try {
+                if (first.get() == firstEntity && second.get() == secondEntity) {
+                    change.run();
+                    return;
+                }
+            } finally {
+                guard.close();
+            }
+        }
+    }
+
+    /**
+     * performs a change to several entities atomically, where the entities are looked up again after locking them
+     *
+     * @param lookup
+     *      looks up the entities that are changed, which may contain null
+     *
+     * @param change
+     *      the change we want to perform
+     *
+     * @post the change is performed while every entity is locked, and the lookup still gives the locked entities. If
+     * another thread changed one of them before the locks were taken, the locks are released and taken again for the
+     * new entities
+     */
+    static void writeAll(Supplier<Entity[]> lookup, Runnable change) {
+        if (!enabled) {
+            change.run();
+            return;
+        }
+        while (true) {
+            Entity[] entities = lookup.get();
+            Guard guard = lock(entities);
+            try {
+                if (Arrays.equals(lookup.get(), entities)) {
+                    change.run();
+                    return;
+                }
+            } finally {
+                guard.close();
+            }
+        }
+    }
+
+    /**
+     * reads a value of an entity, optimistically if possible
+     *
+     * @param entity
+     *      the entity we want to read
+     *
+     * @param query
+     *      reads the value, it must only read fields of the entity
+     *
+     * @return the value, as it was at some moment no change to the entity was in progress
+     */
+    static double readDouble(Entity entity, DoubleSupplier query) {
+        if (!enabled || isHeld(current.get(), entity)) {
+            return query.getAsDouble();
+        }
+        StampedLock lock = entity.getLock();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            double value = query.getAsDouble();
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = readLock(entity);
+        try {
+            return query.getAsDouble();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * reads a value of an entity, optimistically if possible
+     *
+     * @param entity
+     *      the entity we want to read
+     *
+     * @param query
+     *      reads the value, it must only read fields of the entity
+     *
+     * @return the value, as it was at some moment no change to the entity was in progress
+     */
+    static <T> T read(Entity entity, Supplier<T> query) {
+        if (!enabled || isHeld(current.get(), entity)) {
+            return query.get();
+        }
+        StampedLock lock = entity.getLock();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            T value = query.get();
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = readLock(entity);
+        try {
+            return query.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * walks the items of an entity while no change to it can happen
+     *
+     * @param entity
+     *      the entity we want to walk
+     *
+     * @param walk
+     *      the walk we want to perform, it must not change the entity
+     */
+    static void readLocked(Entity entity, Runnable walk) {
+        if (!enabled || isHeld(current.get(), entity)) {
+            walk.run();
+            return;
+        }
+        long stamp = readLock(entity);
+        try {
+            walk.run();
+        } finally {
+            entity.getLock().unlockRead(stamp);
+        }
+    }
+
+    /**
+     * takes the read lock of an entity, respecting the lock order of the current thread
+     *
+     * @param entity
+     *      the entity we want to read
+     *
+     * @return the stamp of the read lock
+     *
+     * @throws IllegalStateException
+     *      if the current thread holds a lock of an entity with a higher id
+     */
+    @Model
+    private static long readLock(Entity entity) {
+        Guard outer = current.get();
+        if (outer != null && entity.getId() < outer.highestId()) {
+            throw new IllegalStateException("entities must be locked in the order of their ids");
+        }
+        return entity.getLock().readLock();
+    }
+
+    /**
+     * checks whether a chain of guards holds the lock of an entity
+     *
+     * @param guard
+     *      the innermost guard of the chain, or null
+     *
+     * @param entity
+     *      the entity we are looking for
+     *
+     * @return true if some guard in the chain locked the entity, false otherwise
+     */
+    @Model
+    private static boolean isHeld(Guard guard, Entity entity) {
+        for (; guard != null; guard = guard.outer) {
+            if (contains(guard.entities, guard.entities.length, entity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * checks whether the first entities of an array include an entity
+     *
+     * @param entities
+     *      the array we want to search
+     *
+     * @param amount
+     *      the amount of entities of the array we want to search
+     *
+     * @param entity
+     *      the entity we are looking for
+     *
+     * @return true if the entity is one of the first amount entities, false otherwise
+     */
+    @Model
+    private static boolean contains(Entity[] entities, int amount, Entity entity) {
+        for (int index = 0; index < amount; index++) {
+            if (entities[index] == entity) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A class representing the write locks a thread took with a single call to lock
+     */
+    public static final class Guard implements AutoCloseable {
+
+        /**
+         * A variable representing the locked entities, in the order of their ids
+         */
+        private final Entity[] entities;
+
+        /**
+         * A variable representing the stamps of the write locks of the entities
+         */
+        private final long[] stamps;
+
+        /**
+         * A variable representing the guard the thread held before this one, null if there is none
+         */
+        private final Guard outer;
+
+        /**
+         * A constructor for a guard
+         *
+         * @param entities
+         *      the locked entities
+         *
+         * @param stamps
+         *      the stamps of their write locks
+         *
+         * @param outer
+         *      the guard the thread held before this one
+         */
+        private Guard(Entity[] entities, long[] stamps, Guard outer) {
+            this.entities = entities;
+            this.stamps = stamps;
+            this.outer = outer;
+        }
+
+        /**
+         * getter for the highest id this guard and the guards before it hold
+         *
+         * @return the highest id of a locked entity
+         */
+        private long highestId() {
+            long highest = entities[entities.length - 1].getId();
+            return outer == null ? highest : Math.max(highest, outer.highestId());
+        }
+
+        /**
+         * releases the locks of this guard
+         *
+         * @post the entities of this guard are no longer locked by the current thread
+         */
+        @Override
+        public void close() {
+            if (this == emptyGuard) {
+                return;
+            }
+            current.set(outer);
+            for (int index = entities.length - 1; index >= 0; index--) {
+                entities[index].getLock().unlockWrite(stamps[index]);
+            }
+        }
+    }
+}
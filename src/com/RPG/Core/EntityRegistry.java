@@ -0,0 +1,459 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A class representing a registry of entities that can be looked up by id, name, type and status
+ *
+ * @invar every registered entity has this registry as its registry
+ *      | for each entity in getAll()
+ *      |   entity.getRegistry() == this
+ *
+ * @invar every registered entity is either alive or terminated in this registry, according to its status
+ *      | for each entity in getAll()
+ *      |   getAlive().contains(entity) == !entity.isTerminated()
+ *
+ * @note all indexes are concurrent, so entities can be registered, looked up and killed from several threads.
+ * An entity can be registered in at most one registry at a time, and the registry is told when it is terminated
+ *
+ * @note the items the registered entities hold, however deeply nested, are kept by their id. Every item tells the
+ * registries of its former and its new holder when its holder changes, so the index follows every transfer. Item ids
+ * are only unique within an item type, so a bucket holds at most one item of every item type
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public class EntityRegistry {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A map representing the registered entities by their id
+     */
+    private final Map<Long, Entity> byId = new ConcurrentHashMap<>();
+
+    /**
+     * A map representing the registered entities by their name
+     */
+    private final Map<String, Set<Entity>> byName = new ConcurrentHashMap<>();
+
+    /**
+     * A map representing the registered entities by their concrete class
+     */
+    private final Map<Class<? extends Entity>, Set<Entity>> byType = new ConcurrentHashMap<>();
+
+    /**
+     * A set representing the registered entities that are not terminated
+     */
+    private final Set<Entity> alive = ConcurrentHashMap.newKeySet();
+
+    /**
+     * A map representing the registered entities that are not terminated, by their name and concrete class
+     */
+    private final Map<Map.Entry<String, Class<? extends Entity>>, Set<Entity>> aliveByNameAndType = new ConcurrentHashMap<>();
+
+    /**
+     * A set representing the registered entities that are terminated
+     */
+    private final Set<Entity> terminated = ConcurrentHashMap.newKeySet();
+
+    /**
+     * A map representing the items the registered entities hold, however deeply nested, by their id
+     */
+    private final Map<Long, Set<Item>> itemsById = new ConcurrentHashMap<>();
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * registers an entity
+     *
+     * @param entity
+     *      the entity we want to register
+     *
+     * @return true if the entity is registered in this registry afterwards, false if it is null or belongs to
+     * another registry
+     *
+     * @post the entity can be found by its id, name, type and status
+     *      | get(entity.getId()) == entity
+     *      | findByName(entity.getName()).contains(entity)
+     *      | findByType(entity.getClass()).contains(entity)
+     *
+     * @post this registry is the registry of the entity
+     *      | entity.getRegistry() == this
+     */
+    public boolean register(Entity entity) {
+        if (entity == null) return false;
+        synchronized (entity) {
+            if (entity.getRegistry() != null) {
+                return entity.getRegistry() == this;
+            }
+            entity.setRegistry(this);
+        }
+        byId.put(entity.getId(), entity);
+        addToBucket(byName, entity.getName(), entity);
+        addToBucket(byType, entity.getClass(), entity);
+        refreshStatus(entity);
+        entity.forEachItem(this::trackItem);
+        return true;
+    }
+
+    /**
+     * removes an entity from this registry
+     *
+     * @param entity
+     *      the entity we want to remove
+     *
+     * @return true if the entity was registered in this registry, false otherwise
+     *
+     * @post the entity can no longer be found in this registry and has no registry
+     *      | get(entity.getId()) == null && entity.getRegistry() == null
+     */
+    public boolean unregister(Entity entity) {
+        if (entity == null) return false;
+        synchronized (entity) {
+            if (entity.getRegistry() != this) {
+                return false;
+            }
+            entity.setRegistry(null);
+        }
+        byId.remove(entity.getId(), entity);
+        removeFromBucket(byName, entity.getName(), entity);
+        removeFromBucket(byType, entity.getClass(), entity);
+        alive.remove(entity);
+        removeFromBucket(aliveByNameAndType, aliveKey(entity), entity);
+        terminated.remove(entity);
+        entity.forEachItem(this::untrackItem);
+        return true;
+    }
+
+    /**
+     * puts an entity in the status index that matches whether it is terminated
+     *
+     * @param entity
+     *      the entity whose status may have changed
+     *
+     * @post the entity is alive in this registry if and only if it is not terminated
+     *      | getAlive().contains(entity) == !entity.isTerminated()
+     *
+     * @note an entity only stops being alive, it is checked again after it is added to the living entities, so a
+     * termination that happens at the same time is never lost
+     */
+    @Model
+    void refreshStatus(Entity entity) {
+        if (entity.getRegistry() != this) {
+            return;
+        }
+        if (!entity.isTerminated()) {
+            alive.add(entity);
+            addToBucket(aliveByNameAndType, aliveKey(entity), entity);
+            if (!entity.isTerminated()) {
+                return;
+            }
+        }
+        terminated.add(entity);
+        alive.remove(entity);
+        removeFromBucket(aliveByNameAndType, aliveKey(entity), entity);
+    }
+
+    /**
+     * moves an item and everything stored in it from the registry of its former holder to the registry of its new
+     * holder
+     *
+     * @param item
+     *      the item whose holder changed
+     *
+     * @param former
+     *      the holder the item had, or null
+     *
+     * @param holder
+     *      the holder the item has now, or null
+     *
+     * @post the item and its content can be found by their id in the registry of the new holder, and no longer in
+     * the registry of the former holder if that is another registry
+     */
+    @Model
+    static void itemMoved(Item item, Entity former, Entity holder) {
+        EntityRegistry from = (former == null) ? null : former.getRegistry();
+        EntityRegistry to = (holder == null) ? null : holder.getRegistry();
+        if (from == null && to == null) return;
+        ItemCursor cursor = ItemCursor.borrowContentOf(item);
+        try {
+            for (Item next = item; next != null; next = cursor.hasNext() ? cursor.next() : null) {
+                if (from != null && from != to) {
+                    from.untrackItem(next);
+                }
+                if (to != null) {
+                    to.trackItem(next);
+                }
+            }
+        } finally {
+            cursor.release();
+        }
+    }
+
+    /**
+     * adds an item to the index of the items by their id
+     *
+     * @param item
+     *      the item we want to add
+     */
+    @Model
+    private void trackItem(Item item) {
+        addToBucket(itemsById, item.getId(), item);
+    }
+
+    /**
+     * removes an item from the index of the items by their id
+     *
+     * @param item
+     *      the item we want to remove
+     */
+    @Model
+    private void untrackItem(Item item) {
+        removeFromBucket(itemsById, item.getId(), item);
+    }
+
+    /**
+     * getter for the key of an entity in the index of the living entities
+     *
+     * @param entity
+     *      the entity we want the key of
+     *
+     * @return the name and the concrete class of the entity
+     *      | Map.entry(entity.getName(), entity.getClass())
+     */
+    @Model
+    private static Map.Entry<String, Class<? extends Entity>> aliveKey(Entity entity) {
+        return Map.entry(entity.getName(), entity.getClass());
+    }
+
+    /**
+     * adds an element to a bucket of an index, and creates the bucket if there is none
+     *
+     * @param index
+     *      the index that holds the bucket
+     *
+     * @param key
+     *      the key of the bucket
+     *
+     * @param element
+     *      the entity or item we want to add
+     *
+     * @note the bucket is changed inside the update of the index, so it can not be removed for being empty while the
+     * element is added
+     */
+    @Model
+    private static <K, V> void addToBucket(Map<K, Set<V>> index, K key, V element) {
+        index.compute(key, (ignored, bucket) -> {
+            if (bucket == null) {
+                bucket = ConcurrentHashMap.newKeySet();
+            }
+            bucket.add(element);
+            return bucket;
+        });
+    }
+
+    /**
+     * removes an element from a bucket of an index, and removes the bucket if it becomes empty
+     *
+     * @param index
+     *      the index that holds the bucket
+     *
+     * @param key
+     *      the key of the bucket
+     *
+     * @param element
+     *      the entity or item we want to remove
+     */
+    @Model
+    private static <K, V> void removeFromBucket(Map<K, Set<V>> index, K key, V element) {
+        index.computeIfPresent(key, (ignored, bucket) -> {
+            bucket.remove(element);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    /**
+     * getter for a registered entity by its id
+     *
+     * @param id
+     *      the id of the entity
+     *
+     * @return the registered entity with the id, null if there is none
+     */
+    public Entity get(long id) {
+        return byId.get(id);
+    }
+
+    /**
+     * getter for the registered entities with a certain name
+     *
+     * @param name
+     *      the name we are looking for
+     *
+     * @return a snapshot of the registered entities with the name
+     */
+    public List<Entity> findByName(String name) {
+        if (name == null) return Collections.emptyList();
+        Set<Entity> bucket = byName.get(name);
+        return bucket == null ? Collections.emptyList() : new ArrayList<>(bucket);
+    }
+
+    /**
+     * getter for the registered entities of a certain concrete class
+     *
+     * @param type
+     *      the class we are looking for, subclasses are not included
+     *
+     * @return a snapshot of the registered entities of the class
+     */
+    public <T extends Entity> List<T> findByType(Class<T> type) {
+        Set<Entity> bucket = byType.get(type);
+        List<T> found = new ArrayList<>();
+        if (bucket != null) {
+            for (Entity entity : bucket) {
+                found.add(type.cast(entity));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * getter for the registered entities of a certain concrete class with a certain name that are not terminated
+     *
+     * @param name
+     *      the name we are looking for
+     *
+     * @param type
+     *      the class we are looking for, subclasses are not included
+     *
+     * @return a snapshot of the living registered entities with the name and class
+     *      | for each entity in result
+     *      |   entity.getName().equals(name) && entity.getClass() == type && !entity.isTerminated()
+     *
+     * @note the living entities are kept by their name and class, so only the matching living entities are visited
+     */
+    public <T extends Entity> List<T> findAlive(String name, Class<T> type) {
+        List<T> found = new ArrayList<>();
+        if (name == null || type == null) return found;
+        Set<Entity> bucket = aliveByNameAndType.get(Map.entry(name, type));
+        if (bucket != null) {
+            for (Entity entity : bucket) {
+                if (!entity.isTerminated()) {
+                    found.add(type.cast(entity));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * getter for the registered entity that holds an item
+     *
+     * @param item
+     *      the item we are looking for
+     *
+     * @return the registered entity at the root of the containment tree of the item, null if it has none
+     *      | if (item != null && item.getHolder() != null && item.getHolder().getRegistry() == this)
+     *      |   then result == item.getHolder()
+     *      | else result == null
+     */
+    public Entity findHolderOf(Item item) {
+        if (item == null) return null;
+        Entity holder = item.getHolder();
+        return (holder != null && holder.getRegistry() == this) ? holder : null;
+    }
+
+    /**
+     * getter for the registered entity that holds the item with an id
+     *
+     * @param itemId
+     *      the id of the item we are looking for
+     *
+     * @return the registered entity that holds an item with the id, null if there is none, or if items of different
+     * item types have the id and are held by different entities
+     *
+     * @note item ids are only unique within an item type, findHolderOf(ItemType, long) names the item type as well
+     */
+    public Entity findHolderOf(long itemId) {
+        return findHolderOf(null, itemId);
+    }
+
+    /**
+     * getter for the registered entity that holds the item of an item type with an id
+     *
+     * @param itemType
+     *      the item type of the item we are looking for, null for any item type
+     *
+     * @param itemId
+     *      the id of the item we are looking for
+     *
+     * @return the registered entity that holds the item of the item type with the id, null if there is none
+     *      | for each entity in getAll()
+     *      |   if (entity holds an item with item.getItemType() == itemType && item.getId() == itemId)
+     *      |       then result == entity
+     *
+     * @note the items are kept by their id, so only the items with the id are visited
+     */
+    public Entity findHolderOf(ItemType itemType, long itemId) {
+        Set<Item> bucket = itemsById.get(itemId);
+        if (bucket == null) return null;
+        Entity found = null;
+        for (Item item : bucket) {
+            if (itemType != null && item.getItemType() != itemType) continue;
+            Entity holder = findHolderOf(item);
+            if (holder == null) continue;
+            if (found != null && found != holder) return null;
+            found = holder;
+        }
+        return found;
+    }
+
+    /**
+     * getter for all registered entities
+     *
+     * @return an unmodifiable snapshot of all registered entities
+     */
+    public Set<Entity> getAll() {
+        return Set.copyOf(byId.values());
+    }
+
+    /**
+     * getter for the registered entities that are not terminated
+     *
+     * @return an unmodifiable live view of the living entities
+     */
+    public Set<Entity> getAlive() {
+        return Collections.unmodifiableSet(alive);
+    }
+
+    /**
+     * getter for the registered entities that are terminated
+     *
+     * @return an unmodifiable live view of the terminated entities
+     */
+    public Set<Entity> getTerminated() {
+        return Collections.unmodifiableSet(terminated);
+    }
+
+    /**
+     * getter for the amount of registered entities
+     *
+     * @return the amount of registered entities
+     */
+    public int size() {
+        return byId.size();
+    }
+}
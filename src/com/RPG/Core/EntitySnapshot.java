@@ -0,0 +1,364 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A class representing the state of an entity and its items at one moment
+ *
+ * @note a snapshot never changes, so it can be read from any thread without locking. Entity.getSnapshot hands out
+ * the snapshot of the latest version of an entity, and only builds a new one when the entity changed since the last
+ * snapshot was built
+ *
+ * @note snapshots need the concurrency mode of EntityLocks, because only then every change to an entity, its HP
+ * included, holds the write lock of the entity that a snapshot is built under
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public final class EntitySnapshot {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the version of the entity this snapshot was taken of
+     */
+    private final long version;
+
+    /**
+     * A variable representing the id of the entity
+     */
+    private final long id;
+
+    /**
+     * A variable representing the name of the entity
+     */
+    private final String name;
+
+    /**
+     * A variable representing the hitpoints of the entity
+     */
+    private final long hp;
+
+    /**
+     * A variable representing the maximum hitpoints of the entity
+     */
+    private final long maxHP;
+
+    /**
+     * A variable representing the strength of the entity, in units of 10^-strengthScale
+     */
+    private final long scaledStrength;
+
+    /**
+     * A variable representing the capacity of the entity
+     */
+    private final long capacity;
+
+    /**
+     * A variable representing the total defense of the entity
+     */
+    private final int defense;
+
+    /**
+     * A variable representing the skinType of the entity
+     */
+    private final SkinType skinType;
+
+    /**
+     * A variable representing the damageTypes of the entity, as a bitmask
+     */
+    private final int damageTypeMask;
+
+    /**
+     * A variable representing the total weight of the items of the entity
+     */
+    private final double totalWeight;
+
+    /**
+     * A variable representing whether the entity was terminated
+     */
+    private final boolean terminated;
+
+    /**
+     * A map representing the equipped items, by their anchorpoint
+     */
+    private final Map<AnchorPoint, ItemSnapshot> equipment;
+
+    /**
+     * A list representing all items of the entity, however deeply nested, each stored item right after its backpack
+     */
+    private final List<ItemSnapshot> items;
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for a snapshot of an entity
+     *
+     * @param entity
+     *      the entity we want to capture
+     *
+     * @param version
+     *      the version of the entity
+     *
+     * @pre the entity can not change while the snapshot is taken
+     *
+     * @post the snapshot has the current state of the entity and of every item it holds
+     */
+    private EntitySnapshot(Entity entity, long version) {
+        this.version = version;
+        this.id = entity.getId();
+        this.name = entity.getName();
+        this.hp = entity.getHP();
+        this.maxHP = entity.getMaxHP();
+        this.scaledStrength = entity.getScaledStrength();
+        this.capacity = entity.getCapacity();
+        this.defense = entity.getDefense();
+        this.skinType = entity.getSkinType();
+        this.damageTypeMask = entity.getDamageTypeMask();
+        this.totalWeight = entity.getTotalWeight();
+        this.terminated = entity.isTerminated();
+        Map<AnchorPoint, ItemSnapshot> equipped = new EnumMap<>(AnchorPoint.class);
+        List<ItemSnapshot> all = new ArrayList<>();
+        ItemCursor cursor = ItemCursor.borrow(entity);
+        try {
+            while (cursor.hasNext()) {
+                ItemSnapshot item = new ItemSnapshot(cursor.next());
+                all.add(item);
+                if (item.getAnchorPoint() != null) {
+                    equipped.put(item.getAnchorPoint(), item);
+                }
+            }
+        } finally {
+            cursor.release();
+        }
+        this.equipment = Collections.unmodifiableMap(equipped);
+        this.items = Collections.unmodifiableList(all);
+    }
+
+    /**********************************************************
+     * Getters and Setters
+     **********************************************************/
+
+    /**
+     * getter for the version of the entity this snapshot was taken of
+     *
+     * @return the version, which grows with every change to the entity
+     *      | this.version
+     */
+    @Basic @Immutable
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * getter for the id of the entity
+     *
+     * @return the id
+     *      | this.id
+     */
+    @Basic @Immutable
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * getter for the name of the entity
+     *
+     * @return the name
+     *      | this.name
+     */
+    @Basic @Immutable
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * getter for the hitpoints of the entity
+     *
+     * @return the hitpoints
+     *      | this.hp
+     */
+    @Basic @Immutable
+    public long getHP() {
+        return hp;
+    }
+
+    /**
+     * getter for the maximum hitpoints of the entity
+     *
+     * @return the maximum hitpoints
+     *      | this.maxHP
+     */
+    @Basic @Immutable
+    public long getMaxHP() {
+        return maxHP;
+    }
+
+    /**
+     * getter for the strength of the entity
+     *
+     * @return the strength, rounded to two decimals
+     *      | BigDecimal.valueOf(this.scaledStrength, Entity.strengthScale)
+     */
+    @Immutable
+    public BigDecimal getStrength() {
+        return BigDecimal.valueOf(scaledStrength, Entity.strengthScale);
+    }
+
+    /**
+     * getter for the capacity of the entity
+     *
+     * @return the capacity
+     *      | this.capacity
+     */
+    @Basic @Immutable
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * getter for the total defense of the entity
+     *
+     * @return the defense
+     *      | this.defense
+     */
+    @Basic @Immutable
+    public int getDefense() {
+        return defense;
+    }
+
+    /**
+     * getter for the skinType of the entity
+     *
+     * @return the skinType
+     *      | this.skinType
+     */
+    @Basic @Immutable
+    public SkinType getSkinType() {
+        return skinType;
+    }
+
+    /**
+     * checks whether the entity had a damageType
+     *
+     * @param damageType
+     *      the damageType we are looking for
+     *
+     * @return true if the entity had the damageType, false otherwise
+     */
+    @Immutable
+    public boolean hasDamageType(DamageType damageType) {
+        return damageType != null && (damageTypeMask & (1 << damageType.ordinal())) != 0;
+    }
+
+    /**
+     * getter for the total weight of the items of the entity
+     *
+     * @return the total weight
+     *      | this.totalWeight
+     */
+    @Basic @Immutable
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * checks whether the entity was terminated
+     *
+     * @return true if the entity was terminated, false otherwise
+     *      | this.terminated
+     */
+    @Basic @Immutable
+    public boolean isTerminated() {
+        return terminated;
+    }
+
+    /**
+     * getter for the item equipped on an anchorpoint
+     *
+     * @param anchorPoint
+     *      the anchorpoint we are looking at
+     *
+     * @return the snapshot of the item on the anchorpoint, null if there was none
+     */
+    @Immutable
+    public ItemSnapshot getItemAt(AnchorPoint anchorPoint) {
+        return equipment.get(anchorPoint);
+    }
+
+    /**
+     * getter for all items of the entity
+     *
+     * @return an unmodifiable list of the snapshots of all items, however deeply nested
+     *      | this.items
+     */
+    @Basic @Immutable
+    public List<ItemSnapshot> getItems() {
+        return items;
+    }
+
+    /**
+     * A class that publishes the latest snapshot of one entity
+     *
+     * @note every change to the entity raises the version. A reader that finds a snapshot of an older version builds
+     * a new one, while the entity is locked for reading, and publishes it for later readers
+     */
+    static final class Publisher {
+
+        /**
+         * A variable used to raise the version atomically
+         */
+        private static final AtomicLongFieldUpdater<Publisher> versions =
+                AtomicLongFieldUpdater.newUpdater(Publisher.class, "version");
+
+        /**
+         * A variable representing the version of the entity
+         */
+        private volatile long version = 0;
+
+        /**
+         * A variable representing the latest snapshot that was built, null if there is none
+         */
+        private volatile EntitySnapshot snapshot = null;
+
+        /**
+         * raises the version after the entity changed
+         */
+        void invalidate() {
+            versions.incrementAndGet(this);
+        }
+
+        /**
+         * getter for the snapshot of the latest version of an entity
+         *
+         * @param entity
+         *      the entity this publisher belongs to
+         *
+         * @return the published snapshot if the entity did not change since it was built, a new snapshot otherwise
+         */
+        EntitySnapshot get(Entity entity) {
+            EntitySnapshot current = snapshot;
+            if (current != null && current.getVersion() == version) {
+                return current;
+            }
+            EntitySnapshot[] built = new EntitySnapshot[1];
+            EntityLocks.readLocked(entity, () -> built[0] = new EntitySnapshot(entity, version));
+            snapshot = built[0];
+            return built[0];
+        }
+    }
+}
@@ -0,0 +1,571 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Model;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * A class representing the state of many entities, stored column by column in primitive arrays
+ *
+ * @invar every column holds a value for every row of the table
+ *      | for each column
+ *      |   column.length >= size()
+ *
+ * @note every row is addressed by a handle, the index of the row in the columns. Bulk operations walk one or two
+ * columns from start to end, so the JIT can turn them into vector instructions. A row can be read and changed
+ * through a lightweight view that holds nothing but its handle
+ *
+ * @note a row that is added from an entity is a read-only copy of the state of that entity when it was added. The
+ * entity keeps its own storage, so changing the copy would let it drift away from the entity it claims to describe.
+ * Only rows that are simulated from the rules of a hero or a monster can be changed
+ *
+ * @note a table is not thread-safe
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public class EntityTable {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the amount of rows a new table has room for
+     */
+    private static final int initialCapacity = 16;
+
+    /**
+     * A variable representing all skinTypes, indexed by their ordinal
+     */
+    private static final SkinType[] allSkinTypes = SkinType.values();
+
+    /**
+     * A variable representing the amount of rows in the table
+     */
+    private int size = 0;
+
+    /**
+     * A column representing the current hitpoints of every row
+     */
+    private long[] hp;
+
+    /**
+     * A column representing the maximum hitpoints of every row
+     */
+    private long[] maxHp;
+
+    /**
+     * A column representing the strength of every row, in hundredths
+     */
+    private long[] strength;
+
+    /**
+     * A column representing the capacity of every row
+     */
+    private long[] capacity;
+
+    /**
+     * A column representing the protection of every row, without the protection of its skin
+     */
+    private int[] protection;
+
+    /**
+     * A column representing the damageTypes of every row, as a bitmask by ordinal
+     */
+    private int[] damageTypeMask;
+
+    /**
+     * A column representing the anchorpoints of every row, as a bitmask by ordinal
+     */
+    private int[] anchorMask;
+
+    /**
+     * A column representing the ordinal of the skinType of every row
+     */
+    private byte[] skin;
+
+    /**
+     * A column representing whether every row can heal
+     */
+    private boolean[] healable;
+
+    /**
+     * A column representing whether every row is terminated
+     */
+    private boolean[] terminated;
+
+    /**
+     * A column representing whether every row is a read-only copy of an entity
+     */
+    private boolean[] readOnly;
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for an empty table
+     *
+     * @post the table has no rows
+     *      | size() == 0
+     */
+    public EntityTable() {
+        hp = new long[initialCapacity];
+        maxHp = new long[initialCapacity];
+        strength = new long[initialCapacity];
+        capacity = new long[initialCapacity];
+        protection = new int[initialCapacity];
+        damageTypeMask = new int[initialCapacity];
+        anchorMask = new int[initialCapacity];
+        skin = new byte[initialCapacity];
+        healable = new boolean[initialCapacity];
+        terminated = new boolean[initialCapacity];
+        readOnly = new boolean[initialCapacity];
+    }
+
+    /**********************************************************
+     * Getters and Setters
+     **********************************************************/
+
+    /**
+     * getter for the amount of rows in the table
+     *
+     * @return the amount of rows
+     *      | this.size
+     */
+    @Basic
+    public int size() {
+        return size;
+    }
+
+    /**
+     * getter for a view of a row
+     *
+     * @param handle
+     *      the handle of the row
+     *
+     * @return a view that reads and writes through to the columns of the row
+     *
+     * @throws IndexOutOfBoundsException
+     *      if there is no row with the handle
+     *      | handle < 0 || handle >= size()
+     */
+    public Row row(int handle) {
+        checkHandle(handle);
+        return new Row(handle);
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * adds a row with the current state of an entity
+     *
+     * @param entity
+     *      the entity we want to copy
+     *
+     * @return the handle of the new row
+     *
+     * @post the new row holds the hitpoints, strength, capacity, protection, damageTypes, anchorpoints, skinType,
+     * healability and status of the entity
+     *
+     * @post the new row is read-only
+     *      | row(result).isReadOnly()
+     */
+    public int add(Entity entity) {
+        int handle = addRow(entity.getHP(), entity.getMaxHP(), entity.getScaledStrength(), entity.getCapacity(),
+                entity.getProtection(), entity.getDamageTypeMask(), entity.getAnchorLayout().getMask(),
+                entity.getSkinType(), entity.isHealable(), entity.isTerminated());
+        readOnly[handle] = true;
+        return handle;
+    }
+
+    /**
+     * adds a row for a hero, following the rules of a hero without creating one
+     *
+     * @param maxHP
+     *      the maximum hitpoints of the hero
+     *
+     * @param strength
+     *      the strength of the hero
+     *
+     * @return the handle of the new row
+     *
+     * @post the new row has the hitpoints, strength, capacity, protection, damageType, anchorpoints and skinType a
+     * hero with the given maxHP and strength would have
+     */
+    public int addHero(long maxHP, BigDecimal strength) {
+        long scaledStrength = Entity.toScaledStrength(strength);
+        return addRow(maxHP, maxHP, scaledStrength, Hero.capacityFor(scaledStrength), Hero.defaultProtection,
+                1 << DamageType.NORMAL.ordinal(), Hero.heroAnchorMask, SkinType.NORMAL, true, false);
+    }
+
+    /**
+     * adds a row for a monster, following the rules of a monster without creating one
+     *
+     * @param maxHP
+     *      the maximum hitpoints of the monster
+     *
+     * @param layout
+     *      the anchorpoints of the monster
+     *
+     * @param damageTypeMask
+     *      the damageTypes of the monster, as a bitmask by ordinal
+     *
+     * @param skinType
+     *      the skinType of the monster
+     *
+     * @return the handle of the new row
+     *
+     * @post the new row has the hitpoints, capacity, damageTypes, anchorpoints and skinType a monster with the given
+     * properties would have
+     */
+    public int addMonster(long maxHP, AnchorLayout layout, int damageTypeMask, SkinType skinType) {
+        return addRow(maxHP, maxHP, 0L, Monster.capacityFor(layout.size()), 0, damageTypeMask, layout.getMask(),
+                skinType, false, false);
+    }
+
+    /**
+     * adds a row with the given values
+     *
+     * @return the handle of the new row
+     */
+    @Model
+    private int addRow(long currentHp, long maximumHp, long scaledStrength, long rowCapacity, int rowProtection,
+                       int damageTypes, int anchorPoints, SkinType skinType, boolean canHeal, boolean isTerminated) {
+        if (size == hp.length) {
+            grow();
+        }
+        int handle = size++;
+        hp[handle] = currentHp;
+        maxHp[handle] = maximumHp;
+        strength[handle] = scaledStrength;
+        capacity[handle] = rowCapacity;
+        protection[handle] = rowProtection;
+        damageTypeMask[handle] = damageTypes;
+        anchorMask[handle] = anchorPoints;
+        skin[handle] = (byte) skinType.ordinal();
+        healable[handle] = canHeal;
+        terminated[handle] = isTerminated;
+        readOnly[handle] = false;
+        return handle;
+    }
+
+    /**
+     * doubles the room of every column
+     */
+    @Model
+    private void grow() {
+        int grown = hp.length * 2;
+        hp = Arrays.copyOf(hp, grown);
+        maxHp = Arrays.copyOf(maxHp, grown);
+        strength = Arrays.copyOf(strength, grown);
+        capacity = Arrays.copyOf(capacity, grown);
+        protection = Arrays.copyOf(protection, grown);
+        damageTypeMask = Arrays.copyOf(damageTypeMask, grown);
+        anchorMask = Arrays.copyOf(anchorMask, grown);
+        skin = Arrays.copyOf(skin, grown);
+        healable = Arrays.copyOf(healable, grown);
+        terminated = Arrays.copyOf(terminated, grown);
+        readOnly = Arrays.copyOf(readOnly, grown);
+    }
+
+    /**
+     * checks whether a handle belongs to a row of this table
+     *
+     * @param handle
+     *      the handle we want to check
+     *
+     * @throws IndexOutOfBoundsException
+     *      if there is no row with the handle
+     *      | handle < 0 || handle >= size()
+     */
+    @Model
+    private void checkHandle(int handle) {
+        if (handle < 0 || handle >= size) {
+            throw new IndexOutOfBoundsException("no row with handle " + handle);
+        }
+    }
+
+    /**
+     * heals every row that can heal and is not read-only
+     *
+     * @param amount
+     *      the amount of hitpoints every row that can heal gets back
+     *
+     * @effect every row that can heal and is not read-only is healed the way Entity.increaseHP heals an entity
+     *      | for each handle in 0..size()-1
+     *      |   if (healable[handle] && !readOnly[handle])
+     *      |       hp[handle] = Math.min(maxHp[handle], hp[handle] + amount)
+     */
+    public void healAll(long amount) {
+        if (amount < 0) {
+            return;
+        }
+        long[] hitpoints = hp;
+        long[] maximum = maxHp;
+        boolean[] canHeal = healable;
+        boolean[] fixed = readOnly;
+        for (int handle = 0; handle < size; handle++) {
+            long healed = Math.min(maximum[handle], hitpoints[handle] + amount);
+            hitpoints[handle] = (canHeal[handle] && !fixed[handle]) ? healed : hitpoints[handle];
+        }
+    }
+
+    /**
+     * sums the capacity of all rows
+     *
+     * @return the total capacity of every row of the table
+     *      | result == sum of capacity[handle] for handle in 0..size()-1
+     */
+    public long sumCapacity() {
+        long[] column = capacity;
+        long total = 0;
+        for (int handle = 0; handle < size; handle++) {
+            total += column[handle];
+        }
+        return total;
+    }
+
+    /**
+     * counts the rows that are terminated
+     *
+     * @return the amount of terminated rows
+     */
+    public int countTerminated() {
+        boolean[] column = terminated;
+        int count = 0;
+        for (int handle = 0; handle < size; handle++) {
+            count += column[handle] ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * finds all rows that are terminated
+     *
+     * @return the handles of all terminated rows, in increasing order
+     *      | for each handle in result
+     *      |   row(handle).isTerminated()
+     */
+    public int[] findTerminated() {
+        int[] found = new int[countTerminated()];
+        boolean[] column = terminated;
+        int amount = 0;
+        for (int handle = 0; handle < size && amount < found.length; handle++) {
+            if (column[handle]) {
+                found[amount++] = handle;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * A class representing a view of a single row of the table
+     */
+    public final class Row {
+
+        /**
+         * A variable representing the handle of the row
+         */
+        private final int handle;
+
+        /**
+         * A constructor for a view of a row
+         *
+         * @param handle
+         *      the handle of the row
+         */
+        private Row(int handle) {
+            this.handle = handle;
+        }
+
+        /**
+         * getter for the handle of the row
+         *
+         * @return the handle of the row
+         */
+        @Basic
+        public int getHandle() {
+            return handle;
+        }
+
+        /**
+         * getter for the current hitpoints of the row
+         *
+         * @return the current hitpoints
+         */
+        public long getHP() {
+            return hp[handle];
+        }
+
+        /**
+         * getter for the maximum hitpoints of the row
+         *
+         * @return the maximum hitpoints
+         */
+        public long getMaxHP() {
+            return maxHp[handle];
+        }
+
+        /**
+         * getter for the strength of the row
+         *
+         * @return the strength, rounded to two decimals
+         */
+        public BigDecimal getStrength() {
+            return BigDecimal.valueOf(strength[handle], Entity.strengthScale);
+        }
+
+        /**
+         * getter for the capacity of the row
+         *
+         * @return the capacity
+         */
+        public long getCapacity() {
+            return capacity[handle];
+        }
+
+        /**
+         * getter for the total defense of the row
+         *
+         * @return the protection of the row plus the protection of its skin
+         *      | result == protection[handle] + getSkinType().getProtection()
+         */
+        public int getDefense() {
+            return protection[handle] + getSkinType().getProtection();
+        }
+
+        /**
+         * getter for the skinType of the row
+         *
+         * @return the skinType
+         */
+        public SkinType getSkinType() {
+            return allSkinTypes[skin[handle]];
+        }
+
+        /**
+         * checks whether the row has a damageType
+         *
+         * @param damageType
+         *      the damageType we are looking for
+         *
+         * @return true if the row has the damageType, false otherwise
+         */
+        public boolean hasDamageType(DamageType damageType) {
+            return damageType != null && (damageTypeMask[handle] & (1 << damageType.ordinal())) != 0;
+        }
+
+        /**
+         * checks whether the row has an anchorpoint
+         *
+         * @param anchorPoint
+         *      the anchorpoint we are looking for
+         *
+         * @return true if the row has the anchorpoint, false otherwise
+         */
+        public boolean hasAnchorpoint(AnchorPoint anchorPoint) {
+            return anchorPoint != null && (anchorMask[handle] & AnchorLayout.bit(anchorPoint)) != 0;
+        }
+
+        /**
+         * checks whether the row can heal
+         *
+         * @return true if the row can heal, false otherwise
+         */
+        public boolean isHealable() {
+            return healable[handle];
+        }
+
+        /**
+         * checks whether the row is terminated
+         *
+         * @return true if the row is terminated, false otherwise
+         */
+        public boolean isTerminated() {
+            return terminated[handle];
+        }
+
+        /**
+         * checks whether the row is a read-only copy of an entity
+         *
+         * @return true if the row was added from an entity, false otherwise
+         */
+        public boolean isReadOnly() {
+            return readOnly[handle];
+        }
+
+        /**
+         * checks whether the row can be changed
+         *
+         * @throws IllegalStateException
+         *      if the row is a read-only copy of an entity
+         *      | isReadOnly()
+         */
+        @Model
+        private void checkWritable() {
+            if (readOnly[handle]) {
+                throw new IllegalStateException("row " + handle + " is a read-only copy of an entity");
+            }
+        }
+
+        /**
+         * reduces the hitpoints of the row the way Entity.reduceHP does
+         *
+         * @param damage
+         *      the damage delivered to the hitpoints
+         *
+         * @throws IllegalStateException
+         *      if the row is a read-only copy of an entity
+         *      | isReadOnly()
+         */
+        public void reduceHP(long damage) {
+            checkWritable();
+            if (damage < 0) {
+                return;
+            }
+            hp[handle] = Math.max(0, hp[handle] - damage);
+        }
+
+        /**
+         * increases the hitpoints of the row the way Entity.increaseHP does
+         *
+         * @param amount
+         *      the amount of hitpoints the row gets back
+         *
+         * @throws IllegalStateException
+         *      if the row is a read-only copy of an entity
+         *      | isReadOnly()
+         */
+        public void increaseHP(long amount) {
+            checkWritable();
+            if (amount < 0 || !healable[handle]) {
+                return;
+            }
+            hp[handle] = Math.min(maxHp[handle], hp[handle] + amount);
+        }
+
+        /**
+         * terminates the row
+         *
+         * @post the row is terminated
+         *      | isTerminated()
+         *
+         * @throws IllegalStateException
+         *      if the row is a read-only copy of an entity
+         *      | isReadOnly()
+         *
+         * @note a simulated row carries no items, so there is nothing to drop or unequip
+         */
+        public void kill() {
+            checkWritable();
+            terminated[handle] = true;
+        }
+    }
+}
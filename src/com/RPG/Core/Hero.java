@@ -1,12 +1,14 @@
 package com.RPG.Core;
 
 import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Model;
 import be.kuleuven.cs.som.annotate.Raw;
 import com.RPG.Exception.*;
 
 import javax.naming.InvalidNameException;
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * A class representing A Hero entity
@@ -32,6 +34,16 @@ public class Hero extends Entity {
      */
     private static final String nameRegex = "^[A-Z][a-zA-Z ’:]*$";
 
+    /**
+     * The nameRegex of a hero, compiled once for all heroes
+     */
+    private static final Pattern namePattern = Pattern.compile(nameRegex);
+
+    /**
+     * The maximum amount of apostrophes in the name of a hero
+     */
+    private static final int maxApostrophes = 2;
+
     /**
      * A variable representing whether a hero can heal
      */
@@ -45,7 +57,7 @@ public class Hero extends Entity {
     /**
      * A variable representing a hero's capacity multiplier
      */
-    private static final float capacityMultiplier = 5F;
+    private static final int capacityMultiplier = 5;
 
     /**
      * defaultStrength of a hero
@@ -55,7 +67,18 @@ public class Hero extends Entity {
     /**
      * defaultProtection of a hero
      */
-    private static final int defaultProtection = 10;
+    static final int defaultProtection = 10;
+
+    /**
+     * bitmask of the anchorpoints every hero has exactly once
+     */
+    static final int heroAnchorMask = AnchorLayout.of(
+            AnchorPoint.BELT,
+            AnchorPoint.BACK,
+            AnchorPoint.BODY,
+            AnchorPoint.LEFTHAND,
+            AnchorPoint.RIGHTHAND
+    ).getMask();
 
     /**********************************************************
      * Constructors
@@ -98,7 +121,7 @@ public class Hero extends Entity {
      *      | this.equipStarterItems(items)
      *
      * @post Strength of Hero is set
-     *      | this.setStrength(strength.setScale(getStrengthScale(), getRoundingMode()))
+     *      | this.setStrength(strength)
      *
      * @post Protection of Hero is set
      *      | this.setProtection(defaultProtection)
@@ -117,7 +140,7 @@ public class Hero extends Entity {
                 AnchorPoint.LEFTHAND,
                 AnchorPoint.RIGHTHAND
         )), SkinType.NORMAL, new HashSet<>(List.of(DamageType.NORMAL)));
-        this.setStrength(strength.setScale(getStrengthScale(), getRoundingMode()));
+        this.setStrength(strength);
         this.setProtection(defaultProtection);
         this.setCapacity();
         if (items == null || items.isEmpty()) {
@@ -154,6 +177,17 @@ public class Hero extends Entity {
         return nameRegex;
     }
 
+    /**
+     * getter for the compiled nameRegex of a hero
+     *
+     * @return the compiled nameRegex
+     *      | this.namePattern
+     */
+    @Override @Model @Raw @Basic
+    protected Pattern getNamePattern() {
+        return namePattern;
+    }
+
     /**********************************************************
      * Methods
      **********************************************************/
@@ -181,8 +215,9 @@ public class Hero extends Entity {
      * @param items
      *      items we want to equip
      *
-     * @throws InvalidItemsException If there is no backpack to store remaining items
-     *      | (Backpack) findBackpack(items) == null
+     * @throws InvalidItemsException If there is no backpack to store remaining items, or if they do not all fit in it.
+     * Nothing is equipped then
+     *      | (Backpack) findBackpack(items) == null || !findBackpack(items).canStoreAll(toStore)
      */
     @Raw
     private void equipStarterItems(ArrayList<Item> items) throws InvalidItemsException {
@@ -199,13 +234,12 @@ public class Hero extends Entity {
 
         validateTotalWeight(items);
 
-        if (backpack != null) {
-            if (backpack.canStoreAll(toStore)) {
-                equipBackpack(backpack);
-            }
-        } else if(!(toStore.isEmpty())){
+        if (backpack == null ? !toStore.isEmpty() : !backpack.canStoreAll(toStore)) {
             throw new InvalidItemsException("Too many items");
         }
+        if (backpack != null) {
+            equipBackpack(backpack);
+        }
 
         equipItems(toEquip);
 
@@ -402,16 +436,16 @@ public class Hero extends Entity {
      * @param toStore
      *      items we want to store in backpack
      *
-     * @post all items are stored in the given backpack
-     *      | for each item in toStore
-     *      |   backpack.storeItem(item)
+     * @effect all items are stored in the given backpack at once
+     *      | backpack.storeAll(toStore)
+     *
+     * @throws InvalidItemsException if the backpack can not store all items
+     *      | !backpack.canStoreAll(toStore)
      */
     @Raw
-    private void storeRemainingItemsInBackpack(Backpack backpack, List<Item> toStore) {
+    private void storeRemainingItemsInBackpack(Backpack backpack, List<Item> toStore) throws InvalidItemsException {
         if (backpack != null) {
-            for (Item item : toStore) {
-                backpack.storeItem(item);
-            }
+            backpack.storeAll(toStore);
         }
     }
 
@@ -430,11 +464,25 @@ public class Hero extends Entity {
      * a method to calculate the capacity of a Hero
      *
      * @return capacity of that hero
-     *      | result == this.getStrength().multiply(BigDecimal.valueOf(capacityMultiplier)).longValue();
+     *      | result == this.multiplyStrength(capacityMultiplier)
      */
     @Override @Raw
     protected long calculateCapacity() {
-        return this.getStrength().multiply(BigDecimal.valueOf(capacityMultiplier)).longValue();
+        return this.multiplyStrength(capacityMultiplier);
+    }
+
+    /**
+     * a method to calculate the capacity of a hero with a given strength
+     *
+     * @param scaledStrength
+     *      the strength of the hero in hundredths
+     *
+     * @return the capacity a hero with that strength has
+     *      | result == multiplyScaledStrength(scaledStrength, capacityMultiplier)
+     */
+    @Model
+    static long capacityFor(long scaledStrength) {
+        return multiplyScaledStrength(scaledStrength, capacityMultiplier);
     }
 
     /**
@@ -444,21 +492,68 @@ public class Hero extends Entity {
      *      The name to be checked
      *
      * @return True if the name is valid, not empty, follows the nameRegex, has a maximum of 2 apostrophes and after a ':' there is always a ' ', false otherwise
-     *      | result == (name != null) && name.matches(nameRegex)
-     *      | && (name.chars().filter(c -> c == '’').count() > 2)
+     *      | result == (name != null) && !name.isEmpty() && name.matches(nameRegex)
+     *      | && (name.chars().filter(c -> c == '’').count() <= 2)
      *      | && !(name.charAt(index) == ':' && name.charAt(index + 1) != ' ')
      */
     @Override
     public boolean isValidName(String name) {
+        return isValidHeroName(name);
+    }
 
-        long Apostrof = name.chars().filter(c -> c == '’').count();
-        if (Apostrof > 2) return false;
-
-        for (int index = 0; index < name.length() - 1; index++) {
-            if (name.charAt(index) == ':' && name.charAt(index + 1) != ' ') return false;
+    /**
+     * Checks a batch of names at once, for example before creating many heroes
+     *
+     * @param names
+     *      the names to be checked
+     *
+     * @return for every name, whether it is a valid name for a hero
+     *      | for each index in 0..names.size()-1
+     *      |   result[index] == isValidName(names.get(index))
+     */
+    public static boolean[] validateNames(List<String> names) {
+        boolean[] valid = new boolean[names.size()];
+        int index = 0;
+        for (String name : names) {
+            valid[index++] = isValidHeroName(name);
         }
+        return valid;
+    }
 
-        return super.isValidName(name);
+    /**
+     * Checks all rules for the name of a hero in a single pass over the name
+     *
+     * @param name
+     *      The name to be checked
+     *
+     * @return True if the name is not empty, follows the nameRegex, has a maximum of 2 apostrophes and after a ':'
+     * there is always a ' ', false otherwise
+     *
+     * @note this check gives the same result as namePattern together with the apostrophe and colon rules
+     */
+    @Model
+    private static boolean isValidHeroName(String name) {
+        if (name == null || name.isEmpty()) return false;
+
+        char first = name.charAt(0);
+        if (first < 'A' || first > 'Z') return false;
+
+        int apostrophes = 0;
+        int last = name.length() - 1;
+        for (int index = 1; index <= last; index++) {
+            char character = name.charAt(index);
+            if ((character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') || character == ' ') {
+                continue;
+            }
+            if (character == '’') {
+                if (++apostrophes > maxApostrophes) return false;
+            } else if (character == ':') {
+                if (index < last && name.charAt(index + 1) != ' ') return false;
+            } else {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -503,39 +598,13 @@ public class Hero extends Entity {
      * a checker that checks if a hero has all the needed anchorpoints exactly once
      *
      * @return true if a hero has all the needed anchorpoints exactly once, false otherwise
-     *      | Set<AnchorPoint> expected = EnumSet.of(
-     *      |           AnchorPoint.BELT,
-     *      |           AnchorPoint.BACK,
-     *      |           AnchorPoint.BODY,
-     *      |           AnchorPoint.LEFTHAND,
-     *      |           AnchorPoint.RIGHTHAND
-     *      |   );
-     *      | Set<AnchorPoint> found = EnumSet.noneOf(AnchorPoint.class)
-     *      | for (index < getAmountOfAnchorPoints())
-     *      |   if (!expected.contains(getAnchorPointAt(index)) || !found.add(getAnchorPointAt(index)))
-     *      |   then result == false
-     *      | result == found.equals(expected)
+     *      | result == getAnchorLayout().size() == Integer.bitCount(heroAnchorMask)
+     *      |       && getAnchorLayout().getMask() == heroAnchorMask
      */
     @Override
     public boolean hasProperAnchorpoints() {
-        Set<AnchorPoint> expected = EnumSet.of(
-                AnchorPoint.BELT,
-                AnchorPoint.BACK,
-                AnchorPoint.BODY,
-                AnchorPoint.LEFTHAND,
-                AnchorPoint.RIGHTHAND
-        );
-
-        Set<AnchorPoint> found = EnumSet.noneOf(AnchorPoint.class);
-
-        for (int index = 0; index < this.getAmountOfAnchorPoints(); index++) {
-            AnchorPoint anchorPoint = getAnchorPointAt(index);
-            if (!expected.contains(anchorPoint) || !found.add(anchorPoint)) {
-                return false;
-            }
-        }
-
-        return found.equals(expected);
+        AnchorLayout layout = this.getAnchorLayout();
+        return layout.size() == Integer.bitCount(heroAnchorMask) && layout.getMask() == heroAnchorMask;
     }
 
     /**
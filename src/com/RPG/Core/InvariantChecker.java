@@ -0,0 +1,222 @@
+package com.RPG.Core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A class that checks the consistency of entities and items, only looking at what changed since the last check
+ *
+ * @note a checker only sees changes while it is added as a mutation listener with Entity.addMutationListener. It
+ * remembers every entity and item that changed and checks each of them once at the next sweep, no matter how often it
+ * changed in between
+ *
+ * @note an entity is consistent when it holds no items if it is terminated, and when every item it holds, however
+ * deeply nested, is not terminated, has it as its holder and is either equipped on the anchorpoint it remembers or
+ * stored in the backpack it remembers
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public class InvariantChecker implements MutationListener {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A set representing the entities that changed since the last sweep
+     */
+    private final Set<Entity> dirtyEntities = ConcurrentHashMap.newKeySet();
+
+    /**
+     * A set representing the items that changed since the last sweep
+     */
+    private final Set<Item> dirtyItems = ConcurrentHashMap.newKeySet();
+
+    /**********************************************************
+     * Getters and Setters
+     **********************************************************/
+
+    /**
+     * getter for the amount of entities that changed since the last sweep
+     *
+     * @return the amount of entities the next sweep checks
+     */
+    public int getAmountOfDirtyEntities() {
+        return dirtyEntities.size();
+    }
+
+    /**
+     * getter for the amount of items that changed since the last sweep
+     *
+     * @return the amount of items the next sweep checks
+     */
+    public int getAmountOfDirtyItems() {
+        return dirtyItems.size();
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * remembers that an entity changed
+     *
+     * @param entity
+     *      the entity that changed
+     */
+    @Override
+    public void entityChanged(Entity entity) {
+        dirtyEntities.add(entity);
+    }
+
+    /**
+     * remembers that an item changed
+     *
+     * @param item
+     *      the item that changed
+     */
+    @Override
+    public void itemChanged(Item item) {
+        dirtyItems.add(item);
+    }
+
+    /**
+     * checks every entity that changed since the last sweep
+     *
+     * @return the checked entities that are not consistent
+     *      | for each entity in result
+     *      |   !isConsistent(entity)
+     *
+     * @post the entities that were checked are forgotten, until they change again
+     */
+    public List<Entity> checkDirtyEntities() {
+        List<Entity> inconsistent = new ArrayList<>();
+        for (Iterator<Entity> iterator = dirtyEntities.iterator(); iterator.hasNext(); ) {
+            Entity entity = iterator.next();
+            iterator.remove();
+            if (!isConsistent(entity)) {
+                inconsistent.add(entity);
+            }
+        }
+        return inconsistent;
+    }
+
+    /**
+     * checks every item that changed since the last sweep
+     *
+     * @return the checked items that are not consistent
+     *      | for each item in result
+     *      |   !isConsistent(item)
+     *
+     * @post the items that were checked are forgotten, until they change again
+     */
+    public List<Item> checkDirtyItems() {
+        List<Item> inconsistent = new ArrayList<>();
+        for (Iterator<Item> iterator = dirtyItems.iterator(); iterator.hasNext(); ) {
+            Item item = iterator.next();
+            iterator.remove();
+            if (!isConsistent(item)) {
+                inconsistent.add(item);
+            }
+        }
+        return inconsistent;
+    }
+
+    /**
+     * checks a collection of entities, spread over all available processors
+     *
+     * @param entities
+     *      the entities we want to check
+     *
+     * @return the entities that are not consistent
+     *      | for each entity in result
+     *      |   !isConsistent(entity)
+     */
+    public static List<Entity> checkAll(Collection<? extends Entity> entities) {
+        return entities.parallelStream()
+                .filter(entity -> !isConsistent(entity))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * checks whether an entity and the items it holds are consistent, visiting every item once
+     *
+     * @param entity
+     *      the entity we want to check
+     *
+     * @return true if the entity holds no items when it is terminated, and every item it holds is not terminated,
+     * has it as its holder and is either equipped on the anchorpoint it remembers or stored in the backpack it
+     * remembers, false otherwise
+     *
+     * @note in the concurrency mode the entity is locked for reading during the check
+     */
+    public static boolean isConsistent(Entity entity) {
+        boolean[] consistent = {true};
+        EntityLocks.readLocked(entity, () -> {
+            if (entity.isTerminated() && entity.getOccupiedMask() != 0) {
+                consistent[0] = false;
+                return;
+            }
+            ItemCursor cursor = ItemCursor.borrow(entity);
+            try {
+                while (cursor.hasNext()) {
+                    Item item = cursor.next();
+                    if (item.isTerminated() || item.getHolder() != entity || !isPlacedConsistently(item)) {
+                        consistent[0] = false;
+                        return;
+                    }
+                }
+            } finally {
+                cursor.release();
+            }
+        });
+        return consistent[0];
+    }
+
+    /**
+     * checks whether an item is consistent with its holder and its backpack
+     *
+     * @param item
+     *      the item we want to check
+     *
+     * @return true if a terminated item has no holder, backpack or anchorpoint, and an item that is not terminated
+     * is either free or equipped on the anchorpoint it remembers or stored in the backpack it remembers, false otherwise
+     *
+     * @note an item that is claimed by an entity but not equipped or stored yet is in the middle of a transfer and
+     * counts as free
+     */
+    public static boolean isConsistent(Item item) {
+        if (item.isTerminated()) {
+            return item.getHolder() == null && item.getBackpack() == null && item.getEquippedAnchorPoint() == null;
+        }
+        if (item.getCarrier() == null && item.getEquippedAnchorPoint() == null && item.getBackpack() == null) {
+            return true;
+        }
+        return isPlacedConsistently(item);
+    }
+
+    /**
+     * checks whether an item is where it remembers to be
+     *
+     * @param item
+     *      the item we want to check
+     *
+     * @return true if the item is equipped on the anchorpoint it remembers and is in no backpack, or if it is on no
+     * anchorpoint and stored in the backpack it remembers, which has the same holder, false otherwise
+     */
+    private static boolean isPlacedConsistently(Item item) {
+        AnchorPoint anchorPoint = item.getEquippedAnchorPoint();
+        Backpack backpack = item.getBackpack();
+        if (anchorPoint != null) {
+            return backpack == null && item.getHolder() != null && item.getHolder().getItemAt(anchorPoint) == item;
+        }
+        return backpack != null && backpack.getHolder() == item.getHolder() && backpack.hasAsItem(item);
+    }
+}
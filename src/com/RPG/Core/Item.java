@@ -6,6 +6,10 @@ import be.kuleuven.cs.som.annotate.Raw;
 import com.RPG.Exception.InvalidHolderException;
 import com.RPG.Exception.InvalidValueException;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 /**
  * abstract class representing all items
  *
@@ -41,7 +45,7 @@ public abstract class Item {
     /**
      * A variable representing the Id of an Item
      */
-    private final Long Id;
+    private final long Id;
 
     /**
      * A variable representing the weight of an Item
@@ -56,7 +60,7 @@ public abstract class Item {
     /**
      * A variable representing the maxValue of an Item
      */
-    private final int maxValue = 500;
+    private static final int maxValue = 500;
 
     /**
      * A variable representing the value of an Item
@@ -64,9 +68,21 @@ public abstract class Item {
     private int Value = 0;
 
     /**
-     * A variable representing the Holder of an Item
+     * A variable representing the Holder of an Item, this is the entity at the root of the containment tree the item is in
+     *
+     * @note the holder is read without locks to find the entity that must be locked before the item is moved, so it is
+     * volatile and a move never passes through a null holder
+     *
+     * @note an item that no entity holds is claimed by the entity that wants to take it before that entity is locked,
+     * so the holder of an item that is neither equipped nor stored is the entity that claimed it
+     */
+    private volatile Entity Holder;
+
+    /**
+     * A variable used to claim an item that no entity holds atomically
      */
-    private Entity Holder;
+    private static final AtomicReferenceFieldUpdater<Item, Entity> holders =
+            AtomicReferenceFieldUpdater.newUpdater(Item.class, Entity.class, "Holder");
 
     /**
      * A variable representing the Shinelevel of an item
@@ -83,6 +99,16 @@ public abstract class Item {
      */
     private Backpack backpack = null;
 
+    /**
+     * A variable representing the anchorpoint of its holder this item is equipped on, null if it is not equipped
+     */
+    private AnchorPoint equippedAnchorPoint = null;
+
+    /**
+     * A variable representing the position of an item in the content of its backpack, -1 if it is not stored
+     */
+    private int contentIndex = -1;
+
     /**
      * the maximum weight an item can be
      */
@@ -172,10 +198,10 @@ public abstract class Item {
         this.setValue(Value);
         this.itemType = itemType;
         this.ShineLevel = ShineLevel;
+        this.Id = generateUniqueId();
         if (Holder != null && Holder.canEquip(this)) {
             Holder.equip(anchorpoint, this);
         }
-        this.Id = generateUniqueId();
     }
 
     /**
@@ -348,13 +374,32 @@ public abstract class Item {
      *
      * @post the Holder of the Item is set to the given Holder
      *      | this.Holder = Holder
+     *
+     * @post the Holder of every item stored in this item, however deeply nested, is set to the given Holder
+     *      | for each item in content
+     *      |   item.Holder = Holder
+     *
+     * @effect the registries of the former and the new holder are told the item and its content moved
+     *      | EntityRegistry.itemMoved(this, old.getHolder(), Holder)
      */
     @Raw @Model
     protected void setHolder(Entity Holder) throws InvalidHolderException {
         if (isTerminated()){
             throw new InvalidHolderException("Holder cannot be terminated");
         }
+        Entity former = this.Holder;
         this.Holder = Holder;
+        if (this.getAmountOfItems() > 0) {
+            ItemCursor cursor = ItemCursor.borrowContentOf(this);
+            try {
+                while (cursor.hasNext()) {
+                    cursor.next().Holder = Holder;
+                }
+            } finally {
+                cursor.release();
+            }
+        }
+        EntityRegistry.itemMoved(this, former, Holder);
     }
 
     /**
@@ -396,9 +441,11 @@ public abstract class Item {
      *      | this.Weight = weight
      */
     protected void setWeight(double weight){
+        double oldWeight = this.Weight;
         if (!isValidWeight(weight)){
             this.Weight = defaultWeight;
         } else this.Weight = weight;
+        this.propagateChange(this.Weight - oldWeight, 0);
     }
 
     /**
@@ -411,6 +458,222 @@ public abstract class Item {
         return getWeight();
     }
 
+    /**
+     * recounts the totalweight of an Item without using any cached weight
+     *
+     * @return the weight of an item and all items it contains
+     *      | result == getWeight()
+     */
+    @Model
+    double recountTotalWeight(){
+        return getWeight();
+    }
+
+    /**
+     * getter for the totalvalue of an Item
+     *
+     * @return the value of an item and all items it contains
+     *      | result == getValue()
+     */
+    @Raw
+    public long getTotalValue(){
+        return getValue();
+    }
+
+    /**
+     * recounts the totalvalue of an Item without using any cached value
+     *
+     * @return the value of an item and all items it contains
+     *      | result == getValue()
+     */
+    @Model
+    long recountTotalValue(){
+        return getValue();
+    }
+
+    /**
+     * passes a change in the total weight and total value of this item on to whatever contains it
+     *
+     * @param weightDelta
+     *      the change in total weight of this item
+     *
+     * @param valueDelta
+     *      the change in total value of this item
+     *
+     * @effect if the item is stored in a backpack, that backpack sorts it again in its indexes and adjusts its content
+     * totals
+     *      | if (getBackpack() != null)
+     *      |   then getBackpack().updateIndex(this) && getBackpack().adjustContent(weightDelta, valueDelta)
+     *
+     * @effect if the item is equipped by its holder, the total weight of that holder is adjusted
+     *      | else if (getHolder() != null && getHolder().getAnchorPointWithItem(this) != null)
+     *      |   then getHolder().adjustTotalWeight(weightDelta)
+     */
+    @Model
+    void propagateChange(double weightDelta, long valueDelta){
+        if (weightDelta == 0 && valueDelta == 0) return;
+        if (backpack != null) {
+            backpack.updateIndex(this);
+            backpack.adjustContent(weightDelta, valueDelta);
+        } else if (Holder != null && Holder.getAnchorPointWithItem(this) != null && weightDelta != 0) {
+            Holder.adjustTotalWeight(weightDelta);
+        }
+    }
+
+    /**
+     * takes this item out of the backpack it is stored in or off the anchorpoint it is equipped on, without changing
+     * its holder
+     *
+     * @return the holder the item had
+     *      | result == old.getHolder()
+     *
+     * @effect if the item is stored in a backpack, it is detached from that backpack
+     *      | if (getBackpack() != null)
+     *      |   then getBackpack().detachItem(this)
+     *
+     * @effect if the item is equipped by its holder, it is detached from that holder
+     *      | else if (getHolder() != null && getEquippedAnchorPoint() != null)
+     *      |   then getHolder().detachItem(getEquippedAnchorPoint(), this)
+     *
+     * @note the caller sets the new holder of the item right after, while the former holder is locked in the
+     * concurrency mode
+     */
+    @Model
+    Entity detach(){
+        Entity formerHolder = Holder;
+        if (backpack != null) {
+            backpack.detachItem(this);
+        } else if (formerHolder != null && equippedAnchorPoint != null) {
+            formerHolder.detachItem(equippedAnchorPoint, this);
+        }
+        return formerHolder;
+    }
+
+    /**
+     * getter for the entity that carries an item
+     *
+     * @return the holder of this item, null if the item is only claimed
+     *      | if (isClaimed()) result == null
+     *      | else result == getHolder()
+     */
+    @Model
+    Entity getCarrier(){
+        return isClaimed() ? null : Holder;
+    }
+
+    /**
+     * checks whether an item is claimed by an entity without being equipped or stored
+     *
+     * @return true if the item has a holder but is neither equipped nor stored, false otherwise
+     *      | result == (getHolder() != null && getEquippedAnchorPoint() == null && getBackpack() == null)
+     */
+    @Model
+    boolean isClaimed(){
+        return Holder != null && equippedAnchorPoint == null && backpack == null;
+    }
+
+    /**
+     * getter for the outermost item an item is stored in
+     *
+     * @return the item itself if it is not stored, otherwise the outermost backpack it is stored in
+     *      | root = this; while (root.getBackpack() != null) root = root.getBackpack()
+     *      | result == root
+     */
+    @Model
+    Item getRoot(){
+        Item root = this;
+        for (Backpack container = backpack; container != null; container = container.getBackpack()) {
+            root = container;
+        }
+        return root;
+    }
+
+    /**
+     * looks up the entity that must be locked before an item is moved, and claims the item for an entity if no entity
+     * holds it
+     *
+     * @param claimant
+     *      the entity that wants to take the item, or null if the item must not be claimed
+     *
+     * @return the holder of the outermost item this item is stored in, which is the claimant if that item was free
+     *      | root = getRoot()
+     *      | if (root.getHolder() == null && claimant != null)
+     *      |   then root.Holder = claimant
+     *      | result == root.getHolder()
+     *
+     * @note the holder is set with a compare and set, so of several entities that claim the same free item at the same
+     * time only one succeeds. The others find the claimant and lock it before they touch the item, and every move
+     * gives up the claims it finds with releaseClaim
+     */
+    @Model
+    Entity claimFor(Entity claimant){
+        Item root = this.getRoot();
+        while (true) {
+            Entity holder = root.Holder;
+            if (holder != null || claimant == null) {
+                return holder;
+            }
+            if (holders.compareAndSet(root, null, claimant)) {
+                return claimant;
+            }
+        }
+    }
+
+    /**
+     * performs a move of an item while its holder is locked, and gives up the claim on the item afterwards
+     *
+     * @param item
+     *      the item that is moved, which may be null
+     *
+     * @param move
+     *      the move we want to perform
+     *
+     * @effect the move is performed
+     *      | move.run()
+     *
+     * @effect the outermost item the item was stored in before the move, and the item itself, are no longer claimed
+     *      | root.releaseClaim() && item.releaseClaim()
+     */
+    @Model
+    static void moveClaimed(Item item, Runnable move){
+        if (item == null) {
+            move.run();
+            return;
+        }
+        Item root = item.getRoot();
+        try {
+            move.run();
+        } finally {
+            root.releaseClaim();
+            item.releaseClaim();
+        }
+    }
+
+    /**
+     * gives up the claim on an item that was claimed but neither equipped nor stored
+     *
+     * @post the item is no longer claimed
+     *      | !isClaimed()
+     *
+     * @note the claimant is locked, so no other move can claim the item at the same time
+     */
+    @Model
+    void releaseClaim(){
+        Entity claimant = Holder;
+        if (claimant != null && equippedAnchorPoint == null && backpack == null) {
+            holders.compareAndSet(this, claimant, null);
+        }
+    }
+
+    /**
+     * passes every change that is still pending in an open batch on to whatever contains this item
+     *
+     * @note an item that is not a backpack never has pending changes
+     */
+    @Model
+    void flushPendingChanges(){
+    }
+
     /**
      * setter for the value of an Item
      *
@@ -428,6 +691,9 @@ public abstract class Item {
      *
      * @post value is set as th value of the Item
      *      | this.Value = value
+     *
+     * @effect the change in value is passed on to whatever contains this item
+     *      | propagateChange(0, value - old.Value)
      */
     @Raw
     protected void setValue(int value) throws InvalidValueException {
@@ -435,7 +701,9 @@ public abstract class Item {
         if(!isValidValue(value)){
             throw new InvalidValueException("Value cannot be negative");
         }
+        int oldValue = this.Value;
         this.Value = value;
+        this.propagateChange(0, this.Value - oldValue);
     }
 
     /**
@@ -465,6 +733,56 @@ public abstract class Item {
         this.backpack = backpack;
     }
 
+    /**
+     * getter for the anchorpoint this item is equipped on
+     *
+     * @return the anchorpoint of the holder this item is equipped on, null if it is not equipped
+     *      | this.equippedAnchorPoint
+     */
+    @Basic @Raw
+    public AnchorPoint getEquippedAnchorPoint() {
+        return equippedAnchorPoint;
+    }
+
+    /**
+     * sets the anchorpoint this item is equipped on
+     *
+     * @pre the holder of this item must have this item on the given anchorpoint, or anchorpoint must be null
+     *      | anchorPoint == null || getHolder().getItemAt(anchorPoint) == this
+     *
+     * @param anchorPoint
+     *      the anchorpoint this item is equipped on
+     */
+    @Raw @Model
+    void setEquippedAnchorPoint(AnchorPoint anchorPoint) {
+        this.equippedAnchorPoint = anchorPoint;
+    }
+
+    /**
+     * getter for the position of an item in the content of its backpack
+     *
+     * @return the index of this item in the content of its backpack, -1 if it is not stored in a backpack
+     *      | this.contentIndex
+     */
+    @Basic @Raw @Model
+    int getContentIndex() {
+        return contentIndex;
+    }
+
+    /**
+     * setter for the position of an item in the content of its backpack
+     *
+     * @param contentIndex
+     *      the index of this item in the content of its backpack, or -1
+     *
+     * @post the position is set
+     *      | this.contentIndex = contentIndex
+     */
+    @Raw @Model
+    void setContentIndex(int contentIndex) {
+        this.contentIndex = contentIndex;
+    }
+
     /**
      * getter for the Backpack of an Item
      *
@@ -525,7 +843,9 @@ public abstract class Item {
      *      the holder that needs to be checked
      *
      * @return true if holder is valid, false otherwise
-     *      | !Holder.isTerminated()
+     *      | !Holder.isTerminated() && Holder.hasAsItem(this)
+     *
+     * @note this check takes constant time, because the holder of every item is kept up to date
      */
     public boolean isValidHolder(Entity Holder){
         if (Holder == null) return true;
@@ -582,28 +902,107 @@ public abstract class Item {
      * terminates an Item and its relations with other classes
      *
      * @effect makes sure both the bidirectional relation with Entity and Backpack is removed properly
-     *      | if backpack != null
-     *      | then backpack.unpackItem(this)
-     *      | Holder != null
-     *      | this.getHolder().unequip(this.getHolder().getAnchorPointWithItem(this), this )
+     *      | detach()
+     *
+     * @effect if this item has content remove everything out of its content, the items themselves are not terminated
+     *      | releaseContent()
      *
-     * @effect if this item has content remove everything out of its content
-     *      | if this.getAmountOfItems() > 0
-     *      |   for index < this.getAmountOfItems(); index++
-     *      |       this.getBackpack().unpackItem(this.getItemAt(index))
+     * @post the item is terminated and has no holder
+     *      | isTerminated() && getHolder() == null && getBackpack() == null
+     *
+     * @effect every mutation listener is told this item and its former holder changed
+     *      | Entity.fireItemChanged(this) && Entity.fireEntityChanged(old.getHolder())
+     *
+     * @note in the concurrency mode the holder of this item is locked while it is terminated
      */
     public void terminate(){
-        terminated = true;
-        if (this.getAmountOfItems() > 0){
-            for (int index = 0; index < this.getAmountOfItems(); index++){
-                this.getBackpack().unpackItem(this.getItemAt(index));
-            }
-        }
-        if (backpack != null) {
-            backpack.unpackItem(this);
+        EntityLocks.write(this::getHolder, () -> null, () -> this.terminateItem(false));
+    }
+
+    /**
+     * terminates an Item together with every item it contains, however deeply nested
+     *
+     * @effect makes sure both the bidirectional relation with Entity and Backpack is removed properly
+     *      | detach()
+     *
+     * @post the item and every item it contained are terminated, have no holder and are not stored anywhere
+     *      | isTerminated() && getHolder() == null && getBackpack() == null && getAmountOfItems() == 0
+     *
+     * @effect every mutation listener is told every terminated item and the former holder changed
+     *
+     * @note the containment tree is walked with an explicit stack instead of recursion, and every item is taken out of
+     * its backpack in constant time, so the cost grows linearly with the amount of items however deep the tree is. In
+     * the concurrency mode the holder of this item is locked while the tree is terminated
+     */
+    public void terminateAll(){
+        EntityLocks.write(this::getHolder, () -> null, () -> this.terminateItem(true));
+    }
+
+    /**
+     * terminates an Item, without taking any locks
+     *
+     * @param cascade
+     *      whether the content of the item is terminated as well, instead of being released
+     *
+     * @see #terminate()
+     * @see #terminateAll()
+     */
+    @Model
+    private void terminateItem(boolean cascade){
+        if (terminated) return;
+        Entity formerHolder = this.detach();
+        if (cascade) {
+            this.terminateContent();
+        } else {
+            this.releaseContent();
         }
-        if (Holder != null) {
-            this.getHolder().unequip(this.getHolder().getAnchorPointWithItem(this), this );
+        EntityRegistry.itemMoved(this, this.Holder, null);
+        this.Holder = null;
+        terminated = true;
+        Entity.fireItemChanged(this);
+        Entity.fireEntityChanged(formerHolder);
+    }
+
+    /**
+     * terminates every item in the content of this item, however deeply nested, without recursion
+     *
+     * @post every item that was nested in this item is terminated, has no holder and is not stored anywhere
+     *
+     * @effect every mutation listener is told every terminated item changed
+     */
+    @Model
+    private void terminateContent(){
+        ArrayDeque<Item> pending = new ArrayDeque<>();
+        this.drainContent(pending);
+        while (!pending.isEmpty()) {
+            Item item = pending.pop();
+            item.drainContent(pending);
+            item.backpack = null;
+            EntityRegistry.itemMoved(item, item.Holder, null);
+            item.Holder = null;
+            item.terminated = true;
+            Entity.fireItemChanged(item);
         }
     }
+
+    /**
+     * takes every item out of the content of this item and pushes it on a stack, without changing the items
+     *
+     * @param stack
+     *      the stack the items are pushed on
+     *
+     * @note an item that is not a backpack has no content
+     */
+    @Model
+    void drainContent(Deque<Item> stack){
+    }
+
+    /**
+     * unpacks every item in the content of this item, so they no longer have a holder
+     *
+     * @note an item that is not a backpack has no content
+     */
+    @Model
+    void releaseContent(){
+    }
 }
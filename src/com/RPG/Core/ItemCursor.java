@@ -0,0 +1,285 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Model;
+import be.kuleuven.cs.som.annotate.Raw;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A reusable depth-first cursor over all items an entity holds, including the content of nested backpacks
+ *
+ * @note a cursor keeps its internal stack between uses, so resetting it to another entity does not allocate
+ * unless the new containment tree is deeper than any tree it has walked before
+ *
+ * @note the cursor does not detect changes to the containment tree while it is walking it
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public final class ItemCursor implements Iterator<Item> {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing all anchorpoints, in the order the cursor visits them
+     */
+    private static final AnchorPoint[] anchorPoints = AnchorPoint.values();
+
+    /**
+     * A variable representing the initial depth of the stack of a cursor
+     */
+    private static final int initialDepth = 8;
+
+    /**
+     * A variable representing a cursor per thread that can be borrowed for internal traversals
+     */
+    private static final ThreadLocal<ItemCursor> sharedCursor = ThreadLocal.withInitial(ItemCursor::new);
+
+    /**
+     * A variable representing the entity whose anchorpoints are being walked, null if only a container is walked
+     */
+    private Entity entity;
+
+    /**
+     * A variable representing the index of the next anchorpoint to visit
+     */
+    private int anchorIndex;
+
+    /**
+     * A variable representing the stack of containers that are being walked
+     */
+    private Item[] containers = new Item[initialDepth];
+
+    /**
+     * A variable representing, for each container on the stack, the index of the next item to visit
+     */
+    private int[] positions = new int[initialDepth];
+
+    /**
+     * A variable representing the amount of containers on the stack
+     */
+    private int depth;
+
+    /**
+     * A variable representing the next item the cursor returns, null if it has not been looked up yet
+     */
+    private Item next;
+
+    /**
+     * A variable representing whether this cursor is currently borrowed from sharedCursor
+     */
+    private boolean borrowed;
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for a cursor that is not positioned on any entity yet
+     *
+     * @post the cursor has no items
+     *      | !hasNext()
+     */
+    public ItemCursor() {
+        this.anchorIndex = anchorPoints.length;
+    }
+
+    /**
+     * A constructor for a cursor positioned at the first item of an entity
+     *
+     * @param entity
+     *      the entity whose items we want to walk
+     *
+     * @effect the cursor is reset to the given entity
+     *      | reset(entity)
+     */
+    public ItemCursor(Entity entity) {
+        this.reset(entity);
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * positions the cursor at the first item of an entity
+     *
+     * @param entity
+     *      the entity whose items we want to walk
+     *
+     * @return this cursor
+     *
+     * @post the cursor returns every equipped item of the entity, each directly followed by its content
+     */
+    public ItemCursor reset(Entity entity) {
+        this.clear();
+        this.entity = entity;
+        this.anchorIndex = (entity == null) ? anchorPoints.length : 0;
+        return this;
+    }
+
+    /**
+     * positions the cursor at the first item stored in a container, the container itself is not returned
+     *
+     * @param container
+     *      the item whose content we want to walk
+     *
+     * @return this cursor
+     */
+    @Raw
+    ItemCursor resetTo(Item container) {
+        this.clear();
+        this.anchorIndex = anchorPoints.length;
+        if (container != null) {
+            push(container);
+        }
+        return this;
+    }
+
+    /**
+     * checks whether the cursor has another item
+     *
+     * @return true if there is another item, false otherwise
+     */
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    /**
+     * returns the next item of the cursor
+     *
+     * @return the next item in depth-first order
+     *
+     * @throws NoSuchElementException if there are no items left
+     *      | !hasNext()
+     */
+    @Override
+    public Item next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Item result = next;
+        next = null;
+        return result;
+    }
+
+    /**
+     * looks up the next item in depth-first order
+     *
+     * @return the next item, or null if the walk is over
+     */
+    @Model
+    private Item advance() {
+        while (depth > 0) {
+            Item container = containers[depth - 1];
+            int index = positions[depth - 1];
+            if (index < container.getAmountOfItems()) {
+                positions[depth - 1] = index + 1;
+                Item child = container.getItemAt(index);
+                if (child != null && child.getAmountOfItems() > 0) {
+                    push(child);
+                }
+                if (child != null) {
+                    return child;
+                }
+            } else {
+                containers[--depth] = null;
+            }
+        }
+        while (anchorIndex < anchorPoints.length) {
+            Item item = entity.getItemAt(anchorPoints[anchorIndex++]);
+            if (item != null) {
+                if (item.getAmountOfItems() > 0) {
+                    push(item);
+                }
+                return item;
+            }
+        }
+        entity = null;
+        return null;
+    }
+
+    /**
+     * pushes a container on the stack of this cursor, growing the stack if needed
+     *
+     * @param container
+     *      the container we want to walk next
+     */
+    @Model
+    private void push(Item container) {
+        if (depth == containers.length) {
+            Item[] grownContainers = new Item[depth * 2];
+            int[] grownPositions = new int[depth * 2];
+            System.arraycopy(containers, 0, grownContainers, 0, depth);
+            System.arraycopy(positions, 0, grownPositions, 0, depth);
+            containers = grownContainers;
+            positions = grownPositions;
+        }
+        containers[depth] = container;
+        positions[depth] = 0;
+        depth++;
+    }
+
+    /**
+     * clears the stack of this cursor
+     */
+    @Model
+    private void clear() {
+        while (depth > 0) {
+            containers[--depth] = null;
+        }
+        entity = null;
+        next = null;
+    }
+
+    /**
+     * borrows the cursor of the current thread, or a new cursor if that one is already in use
+     *
+     * @param entity
+     *      the entity whose items we want to walk
+     *
+     * @return a cursor positioned at the first item of the entity, to be handed back with release()
+     */
+    @Model
+    static ItemCursor borrow(Entity entity) {
+        ItemCursor cursor = sharedCursor.get();
+        if (cursor.borrowed) {
+            cursor = new ItemCursor();
+        }
+        cursor.borrowed = true;
+        return cursor.reset(entity);
+    }
+
+    /**
+     * borrows the cursor of the current thread positioned at the content of a container
+     *
+     * @param container
+     *      the item whose content we want to walk
+     *
+     * @return a cursor positioned at the first item stored in the container, to be handed back with release()
+     */
+    @Model
+    static ItemCursor borrowContentOf(Item container) {
+        ItemCursor cursor = borrow(null);
+        return cursor.resetTo(container);
+    }
+
+    /**
+     * hands a borrowed cursor back
+     *
+     * @post the cursor no longer holds references to any items
+     */
+    @Model
+    void release() {
+        this.clear();
+        this.borrowed = false;
+    }
+}
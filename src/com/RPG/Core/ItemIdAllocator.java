@@ -0,0 +1,123 @@
+package com.RPG.Core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A class that hands out unique ids of the form start + stride * k, for every k from 0 on
+ *
+ * @note every thread claims a block of blockSize consecutive k's from one shared counter and hands them out without
+ * touching the counter again, so spawning threads only meet each other once per block. The ids of one thread grow,
+ * but the ids of different threads interleave by block. Blocks are kept small, so the ids stay close together for the
+ * bitsets of a DirtyTracker
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+final class ItemIdAllocator {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the first id
+     */
+    private final long start;
+
+    /**
+     * A variable representing the difference between two ids that follow each other
+     */
+    private final long stride;
+
+    /**
+     * A variable representing the amount of ids in a block
+     */
+    private final int blockSize;
+
+    /**
+     * A variable representing the amount of blocks that can be claimed before the ids run out
+     */
+    private final long maxBlocks;
+
+    /**
+     * A variable representing the shared counter of the blocks that were claimed
+     */
+    private final AtomicLong claimedBlocks = new AtomicLong(0);
+
+    /**
+     * A variable representing the block every thread is handing out
+     */
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for an allocator of the ids start, start + stride, start + 2 * stride, ...
+     *
+     * @param start
+     *      the first id
+     *
+     * @param stride
+     *      the difference between two ids that follow each other
+     *
+     * @param blockSize
+     *      the amount of ids a thread claims at once
+     *
+     * @pre the first id is positive, and so are the stride and the block size
+     *      | start > 0 && stride > 0 && blockSize > 0
+     *
+     * @post the allocator has not handed out any id yet
+     */
+    ItemIdAllocator(long start, long stride, int blockSize) {
+        assert start > 0 && stride > 0 && blockSize > 0;
+        this.start = start;
+        this.stride = stride;
+        this.blockSize = blockSize;
+        this.maxBlocks = ((Long.MAX_VALUE - start) / stride + 1) / blockSize;
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * hands out an id that was never handed out before by this allocator
+     *
+     * @return an id of the form start + stride * k
+     *      | result > 0 && (result - start) % stride == 0
+     *
+     * @throws IllegalStateException
+     *      if every id was handed out
+     */
+    long nextId() {
+        Block block = blocks.get();
+        if (block.next == block.end) {
+            long claimed = claimedBlocks.getAndIncrement();
+            if (claimed >= maxBlocks) {
+                throw new IllegalStateException("no item ids left");
+            }
+            block.next = claimed * blockSize;
+            block.end = block.next + blockSize;
+        }
+        return start + stride * block.next++;
+    }
+
+    /**
+     * A class representing the k's a thread still has to hand out, from next up to but not including end
+     */
+    private static final class Block {
+
+        /**
+         * A variable representing the next k to hand out
+         */
+        private long next = 0;
+
+        /**
+         * A variable representing the first k that does not belong to the block
+         */
+        private long end = 0;
+    }
+}
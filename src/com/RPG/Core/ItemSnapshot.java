@@ -0,0 +1,177 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class representing the state of an item at the moment the snapshot of its holder was taken
+ *
+ * @note a snapshot never changes, whatever happens to the item afterwards
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public final class ItemSnapshot {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the id of the item
+     */
+    private final long id;
+
+    /**
+     * A variable representing the type of the item
+     */
+    private final ItemType itemType;
+
+    /**
+     * A variable representing the weight of the item itself
+     */
+    private final double weight;
+
+    /**
+     * A variable representing the weight of the item and its content
+     */
+    private final double totalWeight;
+
+    /**
+     * A variable representing the value of the item
+     */
+    private final int value;
+
+    /**
+     * A variable representing the damage of the item
+     */
+    private final int damage;
+
+    /**
+     * A variable representing the anchorpoint the item was equipped on, null if it was stored in a backpack
+     */
+    private final AnchorPoint anchorPoint;
+
+    /**
+     * A variable representing the id of the backpack the item was stored in, 0 if it was equipped
+     */
+    private final long backpackId;
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for a snapshot of an item
+     *
+     * @param item
+     *      the item we want to capture
+     *
+     * @pre the holder of the item can not change while the snapshot is taken
+     *
+     * @post the snapshot has the current state of the item
+     */
+    ItemSnapshot(Item item) {
+        this.id = item.getId();
+        this.itemType = item.getItemType();
+        this.weight = item.getWeight();
+        this.totalWeight = item.getTotalWeight();
+        this.value = item.getValue();
+        this.damage = item.getDamage();
+        this.anchorPoint = item.getEquippedAnchorPoint();
+        this.backpackId = (item.getBackpack() == null) ? 0 : item.getBackpack().getId();
+    }
+
+    /**********************************************************
+     * Getters and Setters
+     **********************************************************/
+
+    /**
+     * getter for the id of the item
+     *
+     * @return the id
+     *      | this.id
+     */
+    @Basic @Immutable
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * getter for the type of the item
+     *
+     * @return the itemType
+     *      | this.itemType
+     */
+    @Basic @Immutable
+    public ItemType getItemType() {
+        return itemType;
+    }
+
+    /**
+     * getter for the weight of the item itself
+     *
+     * @return the weight
+     *      | this.weight
+     */
+    @Basic @Immutable
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * getter for the weight of the item and its content
+     *
+     * @return the total weight
+     *      | this.totalWeight
+     */
+    @Basic @Immutable
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * getter for the value of the item
+     *
+     * @return the value
+     *      | this.value
+     */
+    @Basic @Immutable
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * getter for the damage of the item
+     *
+     * @return the damage
+     *      | this.damage
+     */
+    @Basic @Immutable
+    public int getDamage() {
+        return damage;
+    }
+
+    /**
+     * getter for the anchorpoint the item was equipped on
+     *
+     * @return the anchorpoint, null if the item was stored in a backpack
+     *      | this.anchorPoint
+     */
+    @Basic @Immutable
+    public AnchorPoint getAnchorPoint() {
+        return anchorPoint;
+    }
+
+    /**
+     * getter for the backpack the item was stored in
+     *
+     * @return the id of the backpack, 0 if the item was equipped
+     *      | this.backpackId
+     */
+    @Basic @Immutable
+    public long getBackpackId() {
+        return backpackId;
+    }
+}
@@ -0,0 +1,265 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Model;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over all items an entity holds, including the content of nested backpacks
+ *
+ * @note a spliterator covers a range of anchorpoints of an entity or a range of the content of a backpack,
+ * together with everything stored below the items in that range. Splitting halves the range, and a range
+ * of a single backpack is split over the content of that backpack
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+final class ItemSpliterator implements Spliterator<Item> {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing all anchorpoints, indexed by their ordinal
+     */
+    private static final AnchorPoint[] anchorPoints = AnchorPoint.values();
+
+    /**
+     * A variable representing the entity whose anchorpoints are covered, null if a backpack is covered
+     */
+    private Entity entity;
+
+    /**
+     * A variable representing the item whose content is covered, null if an entity is covered
+     */
+    private Item container;
+
+    /**
+     * A variable representing the index of the next item of the range
+     */
+    private int index;
+
+    /**
+     * A variable representing the index just after the last item of the range
+     */
+    private int fence;
+
+    /**
+     * A variable representing an item that must be returned before the range, null if there is none
+     */
+    private Item pending;
+
+    /**
+     * A variable representing the cursor over the content of the last returned item of the range
+     */
+    private final ItemCursor subtree = new ItemCursor();
+
+    /**
+     * A variable representing the item whose content the subtree cursor walks, null if it walks nothing
+     */
+    private Item subtreeRoot;
+
+    /**
+     * A variable representing the amount of items the subtree cursor already returned
+     */
+    private long subtreeReturned;
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for a spliterator over all items of an entity
+     *
+     * @param entity
+     *      the entity whose items we want to cover
+     */
+    ItemSpliterator(Entity entity) {
+        this(entity, null, 0, anchorPoints.length, null);
+    }
+
+    /**
+     * A constructor for a spliterator over a range of an entity or a container
+     *
+     * @param entity
+     *      the entity whose anchorpoints are covered, or null
+     *
+     * @param container
+     *      the item whose content is covered, or null
+     *
+     * @param index
+     *      the first index of the range
+     *
+     * @param fence
+     *      the index just after the range
+     *
+     * @param pending
+     *      an item to return before the range, or null
+     */
+    private ItemSpliterator(Entity entity, Item container, int index, int fence, Item pending) {
+        this.entity = entity;
+        this.container = container;
+        this.index = index;
+        this.fence = fence;
+        this.pending = pending;
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * getter for the item at a given index of the range
+     *
+     * @param position
+     *      the index of the item
+     *
+     * @return the item at that index, null if there is none
+     */
+    @Model
+    private Item rootAt(int position) {
+        if (entity != null) {
+            return entity.getItemAt(anchorPoints[position]);
+        }
+        return container.getItemAt(position);
+    }
+
+    /**
+     * performs the given action on the next item
+     *
+     * @param action
+     *      the action we want to perform
+     *
+     * @return true if there was a next item, false otherwise
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super Item> action) {
+        if (pending != null) {
+            Item item = pending;
+            pending = null;
+            action.accept(item);
+            return true;
+        }
+        if (subtree.hasNext()) {
+            subtreeReturned++;
+            action.accept(subtree.next());
+            return true;
+        }
+        while (index < fence) {
+            Item root = rootAt(index++);
+            if (root != null) {
+                if (root.getAmountOfItems() > 0) {
+                    subtree.resetTo(root);
+                    subtreeRoot = root;
+                    subtreeReturned = 0;
+                }
+                action.accept(root);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * performs the given action on all remaining items
+     *
+     * @param action
+     *      the action we want to perform
+     */
+    @Override
+    public void forEachRemaining(Consumer<? super Item> action) {
+        while (tryAdvance(action)) {
+            // tryAdvance does the work
+        }
+    }
+
+    /**
+     * splits off the first half of the remaining items
+     *
+     * @return a spliterator over the first half, or null if the remaining items cannot be split
+     */
+    @Override
+    public Spliterator<Item> trySplit() {
+        if (subtree.hasNext()) {
+            return null;
+        }
+        if (pending == null && fence - index == 1) {
+            Item root = rootAt(index);
+            if (root != null && root.getAmountOfItems() > 1) {
+                this.entity = null;
+                this.container = root;
+                this.index = 0;
+                this.fence = root.getAmountOfItems();
+                this.pending = root;
+            }
+        }
+        if (fence - index < 2) {
+            return null;
+        }
+        int middle = (index + fence) >>> 1;
+        ItemSpliterator prefix = new ItemSpliterator(entity, container, index, middle, pending);
+        this.pending = null;
+        this.index = middle;
+        return prefix;
+    }
+
+    /**
+     * estimates the amount of remaining items
+     *
+     * @return the amount of items that are still to be returned, counting the content of every backpack in the range
+     * however deeply nested
+     *
+     * @note the items are counted again on every call, so the estimate is exact as long as the items do not move
+     */
+    @Override
+    public long estimateSize() {
+        long size = (pending == null) ? 0 : 1;
+        if (subtree.hasNext()) {
+            size += countBelow(subtreeRoot) - subtreeReturned;
+        }
+        for (int position = index; position < fence; position++) {
+            Item root = rootAt(position);
+            if (root != null) {
+                size += 1 + countBelow(root);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * counts the items stored in an item, however deeply nested
+     *
+     * @param container
+     *      the item whose content we want to count
+     *
+     * @return the amount of items stored in the container and in the backpacks it holds
+     */
+    @Model
+    private static long countBelow(Item container) {
+        if (container.getAmountOfItems() == 0) return 0;
+        long count = 0;
+        ItemCursor cursor = ItemCursor.borrowContentOf(container);
+        try {
+            while (cursor.hasNext()) {
+                cursor.next();
+                count++;
+            }
+        } finally {
+            cursor.release();
+        }
+        return count;
+    }
+
+    /**
+     * getter for the characteristics of this spliterator
+     *
+     * @return ORDERED, DISTINCT and NONNULL
+     */
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL;
+    }
+}
@@ -0,0 +1,245 @@
+package com.RPG.Core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A class that chooses which items of a pile to pack so their value is as high as possible within a weight limit
+ *
+ * @note the weights are rounded up to hundredths, so every choice really fits. When every item that fits on its own
+ * fits together with the others, all of them are taken. Otherwise the limit is smaller than their combined weight, and
+ * when the pile and the limit are small enough, a dynamic program over the rounded weights finds the most valuable
+ * choice. Otherwise, or when the time budget runs out, the items are taken by value per weight and the choice is
+ * repaired with the most valuable single item and a final fill. The better of the answers that were found is returned
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+final class KnapsackPacker {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the amount of weight units in one unit of weight
+     */
+    private static final int weightScale = 100;
+
+    /**
+     * A variable representing the biggest amount of longs the dynamic program may allocate, for its best values and its
+     * rows of choices together
+     */
+    private static final long maxWords = 1L << 22;
+
+    /**
+     * A variable representing the rounding error that is ignored when the weights are rounded to weight units
+     */
+    private static final double tolerance = 1e-6;
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * KnapsackPacker only has static methods and can not be instantiated
+     */
+    private KnapsackPacker() {
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * chooses the items of a pile with the highest total value that fit within a weight limit
+     *
+     * @param items
+     *      the items we can choose from, every item appears once
+     *
+     * @param room
+     *      the weight limit
+     *
+     * @param budgetNanos
+     *      the time the dynamic program may take, in nanoseconds
+     *
+     * @return a list of items from the pile whose total weight does not exceed the room
+     *      | sum of item.getTotalWeight() for each item in result <= room
+     */
+    static List<Item> choose(List<Item> items, double room, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        long capacity = (long) Math.floor(room * weightScale + tolerance);
+        if (items.isEmpty() || capacity < 0) return new ArrayList<>();
+        int[] weights = new int[items.size()];
+        long[] values = new long[items.size()];
+        for (int index = 0; index < items.size(); index++) {
+            Item item = items.get(index);
+            double weight = Math.ceil(item.getTotalWeight() * weightScale - tolerance);
+            weights[index] = (weight > capacity) ? -1 : (int) weight;
+            values[index] = item.getTotalValue();
+        }
+        boolean[] chosen = chooseAllFitting(weights, capacity);
+        if (chosen == null) {
+            boolean[] greedy = chooseGreedily(weights, values, capacity);
+            boolean[] exact = null;
+            if ((capacity + 1) + items.size() * ((capacity >>> 6) + 1) <= maxWords) {
+                exact = chooseExactly(weights, values, (int) capacity, deadline);
+            }
+            chosen = (exact != null && valueOf(exact, values) >= valueOf(greedy, values)) ? exact : greedy;
+        }
+        List<Item> result = new ArrayList<>();
+        for (int index = 0; index < chosen.length; index++) {
+            if (chosen[index]) {
+                result.add(items.get(index));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * chooses every item that fits on its own, if they all fit together
+     *
+     * @param weights
+     *      the weight of every item in weight units, -1 if it never fits
+     *
+     * @param capacity
+     *      the weight limit in weight units
+     *
+     * @return for every item whether it fits on its own, null if those items weigh more than the limit together
+     *
+     * @note when the result is null, the limit is smaller than the combined weight of the items, so the dynamic
+     * program never sizes its rows by more weight units than the pile can fill
+     */
+    private static boolean[] chooseAllFitting(int[] weights, long capacity) {
+        long fitting = 0;
+        boolean[] chosen = new boolean[weights.length];
+        for (int index = 0; index < weights.length; index++) {
+            if (weights[index] >= 0) {
+                fitting += weights[index];
+                chosen[index] = true;
+            }
+        }
+        return (fitting <= capacity) ? chosen : null;
+    }
+
+    /**
+     * chooses the most valuable items that fit, with a dynamic program over the weight units
+     *
+     * @param weights
+     *      the weight of every item in weight units, -1 if it never fits
+     *
+     * @param values
+     *      the value of every item
+     *
+     * @param capacity
+     *      the weight limit in weight units
+     *
+     * @param deadline
+     *      the moment the program must give up, as given by System.nanoTime
+     *
+     * @return for every item whether it is chosen, null if the deadline passed first
+     */
+    private static boolean[] chooseExactly(int[] weights, long[] values, int capacity, long deadline) {
+        int amount = weights.length;
+        long[] best = new long[capacity + 1];
+        long[][] taken = new long[amount][];
+        for (int index = 0; index < amount; index++) {
+            if (System.nanoTime() > deadline) return null;
+            int weight = weights[index];
+            if (weight < 0) continue;
+            long[] row = new long[(capacity >>> 6) + 1];
+            long value = values[index];
+            for (int room = capacity; room >= weight; room--) {
+                long candidate = best[room - weight] + value;
+                if (candidate > best[room]) {
+                    best[room] = candidate;
+                    row[room >>> 6] |= 1L << room;
+                }
+            }
+            taken[index] = row;
+        }
+        boolean[] chosen = new boolean[amount];
+        int room = capacity;
+        for (int index = amount - 1; index >= 0; index--) {
+            long[] row = taken[index];
+            if (row != null && (row[room >>> 6] & (1L << room)) != 0) {
+                chosen[index] = true;
+                room -= weights[index];
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * chooses items by their value per weight, and repairs the choice with the most valuable single item and a fill
+     *
+     * @param weights
+     *      the weight of every item in weight units, -1 if it never fits
+     *
+     * @param values
+     *      the value of every item
+     *
+     * @param capacity
+     *      the weight limit in weight units
+     *
+     * @return for every item whether it is chosen
+     *
+     * @note the result is worth at least half of the most valuable choice
+     */
+    private static boolean[] chooseGreedily(int[] weights, long[] values, long capacity) {
+        int amount = weights.length;
+        Integer[] order = new Integer[amount];
+        for (int index = 0; index < amount; index++) {
+            order[index] = index;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(values[b] * Math.max(weights[a], 1), values[a] * Math.max(weights[b], 1)));
+        boolean[] chosen = new boolean[amount];
+        long room = capacity;
+        long value = 0;
+        int best = -1;
+        for (int index : order) {
+            if (weights[index] < 0) continue;
+            if (best < 0 || values[index] > values[best]) {
+                best = index;
+            }
+            if (weights[index] <= room) {
+                chosen[index] = true;
+                room -= weights[index];
+                value += values[index];
+            }
+        }
+        if (best >= 0 && values[best] > value) {
+            chosen = new boolean[amount];
+            chosen[best] = true;
+            room = capacity - weights[best];
+            for (int index : order) {
+                if (!chosen[index] && weights[index] >= 0 && weights[index] <= room) {
+                    chosen[index] = true;
+                    room -= weights[index];
+                }
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * calculates the total value of a choice
+     *
+     * @param chosen
+     *      for every item whether it is chosen
+     *
+     * @param values
+     *      the value of every item
+     *
+     * @return the total value of the chosen items
+     */
+    private static long valueOf(boolean[] chosen, long[] values) {
+        long total = 0;
+        for (int index = 0; index < chosen.length; index++) {
+            if (chosen[index]) total += values[index];
+        }
+        return total;
+    }
+}
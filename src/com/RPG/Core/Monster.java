@@ -1,5 +1,7 @@
 package com.RPG.Core;
 
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Model;
 import be.kuleuven.cs.som.annotate.Raw;
 import com.RPG.Exception.InvalidDamageTypesException;
 import com.RPG.Exception.InvalidHolderException;
@@ -8,6 +10,10 @@ import com.RPG.Exception.InvalidValueException;
 
 import javax.naming.InvalidNameException;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * A class representing a Monster Entity
@@ -30,7 +36,7 @@ public class Monster extends Entity {
     /**
      * A variable representing the spawn chance of an item on an anchorpoint
      */
-    private static final float itemSpawnChance = 0.20F;
+    static final float itemSpawnChance = 0.20F;
 
     /**
      * A regex that the name of an entity needs to follow
@@ -38,13 +44,23 @@ public class Monster extends Entity {
     private static final String nameRegex = "^[A-Z][a-zA-Z ’:]*$";
 
     /**
-     * A map containing all not null ItemFactories needed for a monster
+     * The nameRegex of a monster, compiled once for all monsters
      */
-    private final Map<ItemType, MonsterLootFactory> factories = Map.of(
+    private static final Pattern namePattern = Pattern.compile(nameRegex);
+
+    /**
+     * A map containing all not null ItemFactories needed for a monster, the factories hold no state and are shared by all monsters
+     */
+    private static final Map<ItemType, MonsterLootFactory> factories = Map.of(
             ItemType.WEAPON, new WeaponFactory(),
             ItemType.BACKPACK, new BackpackFactory()
     );
 
+    /**
+     * An array representing the item types an anchorpoint that allows any item can get as loot
+     */
+    private static final ItemType[] lootTypes = {ItemType.WEAPON, ItemType.ARMOR, ItemType.MONEY_POUCH, ItemType.BACKPACK};
+
     /**
      * A variable representing whether an entity can heal
      */
@@ -60,6 +76,32 @@ public class Monster extends Entity {
      */
     private static final int capacityPerAnchorPoint = 31;
 
+    /**
+     * A variable representing the maximum hitpoints of a monster when none are given
+     */
+    static final long defaultMaxHP = 997L;
+
+    /**
+     * A variable representing the anchorpoints of a monster when none are given
+     */
+    static final List<AnchorPoint> defaultAnchorPoints = List.of(
+            AnchorPoint.BELT,
+            AnchorPoint.BACK,
+            AnchorPoint.BODY,
+            AnchorPoint.LEFTHAND,
+            AnchorPoint.RIGHTHAND
+    );
+
+    /**
+     * A variable representing the damageType of a monster when none is given
+     */
+    static final DamageType defaultDamageType = DamageType.CLAWS;
+
+    /**
+     * A variable representing the skinType of a monster when none is given
+     */
+    static final SkinType defaultSkinType = SkinType.THICK;
+
     /**********************************************************
      * Constructors
      *********************************************************/
@@ -97,7 +139,7 @@ public class Monster extends Entity {
      *      | then this.setDamageTypes( new HashSet<DamageType>(List.of(DamageType.TAIL)))
      *
      * @effect every anchorpoint has a chance to get an Item
-     *      | createLoot()
+     *      | createLoot(itemSpawnChance, ThreadLocalRandom.current())
      *
      * @post Capacity of monster is set
      *      | this.setCapacity()
@@ -117,7 +159,7 @@ public class Monster extends Entity {
             this.setSkinType(skintype);
         } else this.setSkinType(SkinType.TOUGH);
         this.setCapacity();
-        createLoot();
+        createLoot(itemSpawnChance, ThreadLocalRandom.current());
     }
 
     /**
@@ -137,13 +179,58 @@ public class Monster extends Entity {
      *
      */
     public Monster(String name) throws InvalidNameException, InvalidDamageTypesException, InvalidSkinTypeException {
-        this(name, 997L, new ArrayList<>(Arrays.asList(
-                AnchorPoint.BELT,
-                AnchorPoint.BACK,
-                AnchorPoint.BODY,
-                AnchorPoint.LEFTHAND,
-                AnchorPoint.RIGHTHAND
-        )), new HashSet<>(List.of(DamageType.CLAWS)), SkinType.THICK );
+        this(name, defaultMaxHP, new ArrayList<>(defaultAnchorPoints),
+                new HashSet<>(List.of(defaultDamageType)), defaultSkinType);
+    }
+
+    /**
+     * A constructor for a monster spawned from an archetype
+     *
+     * @param archetype
+     *      the archetype that describes the monster
+     *
+     * @post the monster has the name, maxHP, anchorpoints, damageTypes and skinType of the archetype, which were
+     * validated when the archetype was created
+     *      | getName() == archetype.getName() && getMaxHP() == archetype.getMaxHP()
+     *      | && getAnchorLayout() == archetype.getAnchorLayout() && getSkinType() == archetype.getSkinType()
+     *      | && getDamageTypeMask() == archetype.getDamageTypeMask()
+     *
+     * @post Capacity of monster is set
+     *      | this.setCapacity()
+     *
+     * @effect the monster is created with the random numbers of the current thread
+     *      | this(archetype, ThreadLocalRandom.current())
+     */
+    public Monster(MonsterArchetype archetype) {
+        this(archetype, ThreadLocalRandom.current());
+    }
+
+    /**
+     * A constructor for a monster spawned from an archetype, with the loot rolled by a given random generator
+     *
+     * @param archetype
+     *      the archetype that describes the monster
+     *
+     * @param random
+     *      the random generator that rolls the loot, only used by the current thread
+     *
+     * @post the monster has the name, maxHP, anchorpoints, damageTypes and skinType of the archetype, which were
+     * validated when the archetype was created
+     *      | getName() == archetype.getName() && getMaxHP() == archetype.getMaxHP()
+     *      | && getAnchorLayout() == archetype.getAnchorLayout() && getSkinType() == archetype.getSkinType()
+     *      | && getDamageTypeMask() == archetype.getDamageTypeMask()
+     *
+     * @post Capacity of monster is set
+     *      | this.setCapacity()
+     *
+     * @effect every anchorpoint has the loot chance of the archetype to get an Item
+     *      | createLoot(archetype.getLootChance(), random)
+     */
+    Monster(MonsterArchetype archetype, RandomGenerator random) {
+        super(archetype.getName(), archetype.getMaxHP(), archetype.getAnchorLayout(), archetype.getSkinType(),
+                archetype.getDamageTypeMask());
+        this.setCapacity();
+        createLoot(archetype.getLootChance(), random);
     }
 
     /**********************************************************
@@ -161,6 +248,17 @@ public class Monster extends Entity {
         return nameRegex;
     }
 
+    /**
+     * getter for the compiled nameRegex of a monster
+     *
+     * @return the compiled nameRegex
+     *      | this.namePattern
+     */
+    @Override @Model @Raw @Basic
+    protected Pattern getNamePattern() {
+        return namePattern;
+    }
+
     /**
      * getter for the adjusted roll of a monster, If the roll is less than the current HP, the roll is returned unchanged.
      * Otherwise, the method returns the HP value, effectively capping the roll at the current HP.
@@ -191,11 +289,21 @@ public class Monster extends Entity {
      */
     @Override @Raw
     protected long calculateCapacity() {
-        long capacity = 0L;
-        for (int index = 0; index < this.getAmountOfAnchorPoints(); index++) {
-            capacity += capacityPerAnchorPoint;
-        }
-        return capacity;
+        return capacityFor(this.getAmountOfAnchorPoints());
+    }
+
+    /**
+     * a method to calculate the capacity of a monster with a given amount of anchorpoints
+     *
+     * @param amountOfAnchorPoints
+     *      the amount of anchorpoints of the monster
+     *
+     * @return the capacity a monster with that many anchorpoints has
+     *      | result == amountOfAnchorPoints * capacityPerAnchorPoint
+     */
+    @Model
+    static long capacityFor(int amountOfAnchorPoints) {
+        return (long) amountOfAnchorPoints * capacityPerAnchorPoint;
     }
 
     /**
@@ -212,6 +320,43 @@ public class Monster extends Entity {
         return super.isValidName(name);
     }
 
+    /**
+     * Checks whether a name is valid for any monster
+     *
+     * @param name
+     *      The name to be checked
+     *
+     * @return True if the name is not empty and follows the nameRegex, false otherwise
+     *      | result == (name != null) && !name.isEmpty() && name.matches(nameRegex)
+     */
+    @Model
+    static boolean isValidMonsterName(String name) {
+        return name != null && !name.isEmpty() && namePattern.matcher(name).matches();
+    }
+
+    /**
+     * Checks a batch of names at once, for example before spawning many monsters
+     *
+     * @param names
+     *      the names to be checked
+     *
+     * @return for every name, whether it is a valid name for a monster
+     *      | for each index in 0..names.size()-1
+     *      |   result[index] == (names.get(index) != null && !names.get(index).isEmpty()
+     *      |       && names.get(index).matches(nameRegex))
+     *
+     * @note one matcher is reused for the whole batch
+     */
+    public static boolean[] validateNames(List<String> names) {
+        boolean[] valid = new boolean[names.size()];
+        Matcher matcher = namePattern.matcher("");
+        int index = 0;
+        for (String name : names) {
+            valid[index++] = name != null && !name.isEmpty() && matcher.reset(name).matches();
+        }
+        return valid;
+    }
+
     /**
      * checks whether an entity can heal
      *
@@ -234,21 +379,62 @@ public class Monster extends Entity {
         return Intelligent;
     }
 
+    /**
+     * brings a terminated monster back as a fresh monster with a given state
+     *
+     * @param name
+     *      the new name of the monster
+     *
+     * @param maxHP
+     *      the new maximum hitpoints of the monster
+     *
+     * @param layout
+     *      the new anchorpoints of the monster
+     *
+     * @param skinType
+     *      the new skinType of the monster
+     *
+     * @param damageTypeMask
+     *      the new damageTypes of the monster, as a bitmask
+     *
+     * @pre the monster is terminated and holds no items
+     *      | isTerminated() && getOccupiedMask() == 0
+     *
+     * @effect the monster is reset to the given state
+     *      | reset(name, maxHP, layout, skinType, damageTypeMask)
+     *
+     * @param lootChance
+     *      the chance every anchorpoint has to get an item
+     *
+     * @effect every anchorpoint has a chance to get an Item, like for a new monster
+     *      | createLoot(lootChance, ThreadLocalRandom.current())
+     */
+    @Raw @Model
+    void respawn(String name, long maxHP, AnchorLayout layout, SkinType skinType, int damageTypeMask, float lootChance) {
+        this.reset(name, maxHP, layout, skinType, damageTypeMask);
+        createLoot(lootChance, ThreadLocalRandom.current());
+    }
+
     /**
      * Attempts to create loot items for each anchor point based on a random spawn chance.
      *
+     * @param lootChance
+     *      the chance every anchor point has to get an item
+     *
+     * @param random
+     *      the random generator that rolls the loot, so threads that spawn monsters do not share one generator
+     *
      * @effect  For each anchor point on the object, this method checks if a random number is less than
-     * the itemSpawnChance. If so, it attempts to create an item of the allowed type
+     * the lootChance. If so, it attempts to create an item of the allowed type
      * for that anchor point using the appropriate MonsterLootFactory.
-     *      | if (Math.random() < itemSpawnChance)
+     *      | if (random.nextFloat() < lootChance)
      *      | then MonsterLootFactory factory = factories.get(anchorpoint.getAllowedItemType());
      *
      * @effect If the anchor point allows any item type ItemType.ANY, a specific type is
      * chosen randomly from a fixed set: WEAPON, ARMOR, MONEY_POUCH,
      * and BACKPACK.
      *      | if(anchorpoint.getAllowedItemType() == ItemType.ANY)
-     *      |       ItemType[] types = {ItemType.WEAPON, ItemType.ARMOR, ItemType.MONEY_POUCH, ItemType.BACKPACK}
-     *      |       type = types[(int) (Math.random() * types.length)]
+     *      |       type = lootTypes[random.nextInt(lootTypes.length)]
      *
      * @effect If a matching loot factory exists for the chosen item type, it is used to create the item
      * and associate it with the current object and anchor point. If the creation throws
@@ -258,17 +444,14 @@ public class Monster extends Entity {
      *
      */
     @Raw
-    private void createLoot(){
+    private void createLoot(float lootChance, RandomGenerator random){
         for (int index = 0; index < this.getAmountOfAnchorPoints(); index++) {
-            if (Math.random() < itemSpawnChance) {
+            if (random.nextFloat() < lootChance) {
                 AnchorPoint anchorpoint = this.getAnchorPointAt(index);
                 ItemType type = anchorpoint.getAllowedItemType();
 
                 switch (type) {
-                    case ANY -> {
-                        ItemType[] types = {ItemType.WEAPON, ItemType.ARMOR, ItemType.MONEY_POUCH, ItemType.BACKPACK};
-                        type = types[(int) (Math.random() * types.length)];
-                    }
+                    case ANY -> type = lootTypes[random.nextInt(lootTypes.length)];
                 }
 
                 MonsterLootFactory factory = factories.get(type);
@@ -298,9 +481,23 @@ public class Monster extends Entity {
      */
     @Override @Raw
     public boolean areValidDamageTypes(HashSet<DamageType> damageTypes){
-        if (damageTypes.size() != 1) return false;
+        return areValidMonsterDamageTypes(damageTypes);
+    }
+
+    /**
+     * checks if damageTypes are valid for any monster
+     *
+     * @param damageTypes
+     *      the damagetypes that need to be checked
+     *
+     * @return true if there is exactly one damageType and it is different from Normal, false otherwise
+     *      | result == (damageTypes != null && damageTypes.size() == 1 && !damageTypes.contains(DamageType.NORMAL))
+     */
+    @Model
+    static boolean areValidMonsterDamageTypes(Set<DamageType> damageTypes){
+        if (damageTypes == null || damageTypes.size() != 1) return false;
         for (DamageType damageType : damageTypes){
-            if (damageType == DamageType.NORMAL){
+            if (damageType == null || damageType == DamageType.NORMAL){
                 return false;
             }
         }
@@ -318,6 +515,20 @@ public class Monster extends Entity {
      */
     @Override @Raw
     public boolean isValidSkinType(SkinType skinType){
+        return isValidMonsterSkinType(skinType);
+    }
+
+    /**
+     * checks if a skintype is valid for any monster
+     *
+     * @param skinType
+     *      SkinType we need to check
+     *
+     * @return true if different from Normal, false otherwise
+     *      | result == (skinType != SkinType.NORMAL)
+     */
+    @Model
+    static boolean isValidMonsterSkinType(SkinType skinType){
         return skinType != SkinType.NORMAL;
     }
 
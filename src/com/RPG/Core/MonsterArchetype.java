@@ -0,0 +1,233 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import com.RPG.Exception.InvalidDamageTypesException;
+import com.RPG.Exception.InvalidSkinTypeException;
+import com.RPG.Exception.InvalidValueException;
+
+import javax.naming.InvalidNameException;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A class representing a kind of monster, whose state is validated once and shared by every monster spawned from it
+ *
+ * @invar the name, damageTypes and skinType of an archetype are valid for a monster
+ *
+ * @invar the loot chance of an archetype lies between 0 and 1
+ *      | 0 <= getLootChance() <= 1
+ *
+ * @note an archetype never changes, so it can be shared by any amount of monsters and threads. Spawning a monster
+ * from an archetype validates nothing and only copies a few fields, the anchorpoints are shared through their
+ * AnchorLayout
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public final class MonsterArchetype {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the name of the monsters of this archetype
+     */
+    private final String name;
+
+    /**
+     * A variable representing the maximum hitpoints of the monsters of this archetype
+     */
+    private final long maxHP;
+
+    /**
+     * A variable representing the shared anchorpoints of the monsters of this archetype
+     */
+    private final AnchorLayout anchorLayout;
+
+    /**
+     * A variable representing the damageTypes of the monsters of this archetype, as a bitmask
+     */
+    private final int damageTypeMask;
+
+    /**
+     * A variable representing the skinType of the monsters of this archetype
+     */
+    private final SkinType skinType;
+
+    /**
+     * A variable representing the chance every anchorpoint of a monster of this archetype has to get an item
+     */
+    private final float lootChance;
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for an archetype with a given name, maxHP, anchorpoints, damageTypes, skinType and loot chance
+     *
+     * @param name
+     *      name of the monsters
+     *
+     * @param maxHP
+     *      maxHP of the monsters
+     *
+     * @param anchorPoints
+     *      anchorpoints of the monsters
+     *
+     * @param damageTypes
+     *      damagetypes of the monsters
+     *
+     * @param skinType
+     *      skintype of the monsters
+     *
+     * @param lootChance
+     *      the chance every anchorpoint has to get an item
+     *
+     * @throws InvalidNameException gets thrown when the name isn't valid for a monster
+     *      | !Monster.isValidMonsterName(name)
+     *
+     * @throws InvalidSkinTypeException gets thrown when skinType isn't valid for a monster
+     *      | skinType == null || !Monster.isValidMonsterSkinType(skinType)
+     *
+     * @throws InvalidDamageTypesException gets thrown when damageTypes are not valid for a monster
+     *      | !Monster.areValidMonsterDamageTypes(damageTypes)
+     *
+     * @throws InvalidValueException gets thrown when the loot chance does not lie between 0 and 1
+     *      | !(0 <= lootChance && lootChance <= 1)
+     *
+     * @post the archetype has the given state
+     *      | getName() == name && getMaxHP() == maxHP && getAnchorLayout() == AnchorLayout.of(anchorPoints)
+     *      | && getDamageTypeMask() == Entity.toDamageTypeMask(damageTypes) && getSkinType() == skinType
+     *      | && getLootChance() == lootChance
+     */
+    public MonsterArchetype(String name, long maxHP, List<AnchorPoint> anchorPoints, HashSet<DamageType> damageTypes, SkinType skinType, float lootChance) throws InvalidNameException, InvalidDamageTypesException, InvalidSkinTypeException, InvalidValueException {
+        if (!Monster.isValidMonsterName(name)) {
+            throw new InvalidNameException("name must follow naming rules");
+        }
+        if (skinType == null || !Monster.isValidMonsterSkinType(skinType)) {
+            throw new InvalidSkinTypeException("SkinType is not Valid");
+        }
+        if (!Monster.areValidMonsterDamageTypes(damageTypes)) {
+            throw new InvalidDamageTypesException("DamageTypes are not valid");
+        }
+        if (!(0 <= lootChance && lootChance <= 1)) {
+            throw new InvalidValueException("loot chance must lie between 0 and 1");
+        }
+        this.name = name;
+        this.maxHP = maxHP;
+        this.anchorLayout = AnchorLayout.of(anchorPoints);
+        this.damageTypeMask = Entity.toDamageTypeMask(damageTypes);
+        this.skinType = skinType;
+        this.lootChance = lootChance;
+    }
+
+    /**
+     * A constructor for an archetype with a given name, maxHP, anchorpoints, damageTypes and skinType
+     *
+     * @effect the archetype is created with the loot chance of an ordinary monster
+     *      | this(name, maxHP, anchorPoints, damageTypes, skinType, Monster.itemSpawnChance)
+     */
+    public MonsterArchetype(String name, long maxHP, List<AnchorPoint> anchorPoints, HashSet<DamageType> damageTypes, SkinType skinType) throws InvalidNameException, InvalidDamageTypesException, InvalidSkinTypeException, InvalidValueException {
+        this(name, maxHP, anchorPoints, damageTypes, skinType, Monster.itemSpawnChance);
+    }
+
+    /**
+     * A constructor for an archetype with a given name
+     *
+     * @effect the archetype is created with the state of a monster created with only a name
+     *      | this(name, Monster.defaultMaxHP, Monster.defaultAnchorPoints,
+     *      |       new HashSet<>(List.of(Monster.defaultDamageType)), Monster.defaultSkinType)
+     */
+    public MonsterArchetype(String name) throws InvalidNameException, InvalidDamageTypesException, InvalidSkinTypeException, InvalidValueException {
+        this(name, Monster.defaultMaxHP, Monster.defaultAnchorPoints,
+                new HashSet<>(List.of(Monster.defaultDamageType)), Monster.defaultSkinType);
+    }
+
+    /**********************************************************
+     * Getters and Setters
+     **********************************************************/
+
+    /**
+     * getter for the name of the monsters of this archetype
+     *
+     * @return the name
+     *      | this.name
+     */
+    @Basic @Immutable
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * getter for the maximum hitpoints of the monsters of this archetype
+     *
+     * @return the maximum hitpoints
+     *      | this.maxHP
+     */
+    @Basic @Immutable
+    public long getMaxHP() {
+        return maxHP;
+    }
+
+    /**
+     * getter for the anchorpoints of the monsters of this archetype
+     *
+     * @return the shared layout of the anchorpoints
+     *      | this.anchorLayout
+     */
+    @Basic @Immutable
+    public AnchorLayout getAnchorLayout() {
+        return anchorLayout;
+    }
+
+    /**
+     * getter for the damageTypes of the monsters of this archetype
+     *
+     * @return the damageTypes as a bitmask with the bit at the ordinal of every damageType set
+     *      | this.damageTypeMask
+     */
+    @Basic @Immutable
+    public int getDamageTypeMask() {
+        return damageTypeMask;
+    }
+
+    /**
+     * getter for the skinType of the monsters of this archetype
+     *
+     * @return the skinType
+     *      | this.skinType
+     */
+    @Basic @Immutable
+    public SkinType getSkinType() {
+        return skinType;
+    }
+
+    /**
+     * getter for the loot chance of the monsters of this archetype
+     *
+     * @return the chance every anchorpoint has to get an item
+     *      | this.lootChance
+     */
+    @Basic @Immutable
+    public float getLootChance() {
+        return lootChance;
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * spawns a new monster of this archetype
+     *
+     * @return a new monster with the state of this archetype
+     *      | result == new Monster(this)
+     */
+    public Monster spawn() {
+        return new Monster(this);
+    }
+}
@@ -0,0 +1,254 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import be.kuleuven.cs.som.annotate.Model;
+import com.RPG.Exception.InvalidDamageTypesException;
+import com.RPG.Exception.InvalidSkinTypeException;
+
+import javax.naming.InvalidNameException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A class representing a pool of terminated monsters that are reused instead of creating new ones
+ *
+ * @invar the pool never holds more monsters than its capacity
+ *      | getAmountOfPooledMonsters() <= getCapacity()
+ *
+ * @invar every pooled monster is terminated and holds no items
+ *
+ * @note a monster handed out by the pool is in the same state as a monster created with the same arguments: full
+ * hitpoints, the given anchorpoints, damageTypes and skinType, new loot and not terminated. Only its id stays the
+ * same. The items the monster held before it was killed are not reused
+ *
+ * @note a pool can be used from several threads at once
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public class MonsterPool {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the maximum amount of monsters the pool holds
+     */
+    private final int capacity;
+
+    /**
+     * A queue representing the pooled monsters, in the order they were released
+     */
+    private final Queue<Monster> free = new ConcurrentLinkedQueue<>();
+
+    /**
+     * A set representing the pooled monsters, so a monster can not be pooled twice
+     */
+    private final Set<Monster> pooled = ConcurrentHashMap.newKeySet();
+
+    /**
+     * A variable representing the amount of places in the pool that are taken, including places that are reserved by a
+     * release that is still in progress
+     */
+    private final AtomicInteger taken = new AtomicInteger(0);
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for an empty pool
+     *
+     * @param capacity
+     *      the maximum amount of monsters the pool holds
+     *
+     * @throws IllegalArgumentException
+     *      if the capacity is negative
+     *      | capacity < 0
+     *
+     * @post the pool is empty and has the given capacity
+     *      | getAmountOfPooledMonsters() == 0 && getCapacity() == capacity
+     */
+    public MonsterPool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity can not be negative");
+        }
+        this.capacity = capacity;
+    }
+
+    /**********************************************************
+     * Getters and Setters
+     **********************************************************/
+
+    /**
+     * getter for the capacity of the pool
+     *
+     * @return the maximum amount of monsters the pool holds
+     *      | this.capacity
+     */
+    @Basic @Immutable
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * getter for the amount of monsters in the pool
+     *
+     * @return the amount of monsters that can be handed out again
+     */
+    public int getAmountOfPooledMonsters() {
+        return pooled.size();
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * gives a monster back to the pool
+     *
+     * @param monster
+     *      the monster we want to reuse later
+     *
+     * @return true if the monster is pooled, false if it is null, not terminated, still holds items, is already pooled
+     * or the pool is full
+     *
+     * @note a place in the pool is reserved atomically before the monster is added, and given back if the monster was
+     * already pooled, so releases from several threads at once never exceed the capacity
+     */
+    public boolean release(Monster monster) {
+        if (monster == null || !monster.isTerminated() || monster.getOccupiedMask() != 0) {
+            return false;
+        }
+        if (!reservePlace()) {
+            return false;
+        }
+        if (!pooled.add(monster)) {
+            taken.decrementAndGet();
+            return false;
+        }
+        free.offer(monster);
+        return true;
+    }
+
+    /**
+     * reserves a place in the pool
+     *
+     * @return true if fewer places than the capacity were taken and one more is taken now, false otherwise
+     */
+    @Model
+    private boolean reservePlace() {
+        int current = taken.get();
+        while (current < capacity) {
+            int witness = taken.compareAndExchange(current, current + 1);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    /**
+     * hands out a monster with a given name
+     *
+     * @param name
+     *      the name of the monster
+     *
+     * @effect a monster is handed out with the default state of a monster
+     *      | acquire(name, Monster.defaultMaxHP, new ArrayList<>(Monster.defaultAnchorPoints),
+     *      |       new HashSet<>(List.of(Monster.defaultDamageType)), Monster.defaultSkinType)
+     */
+    public Monster acquire(String name) throws InvalidNameException, InvalidDamageTypesException, InvalidSkinTypeException {
+        return acquire(name, Monster.defaultMaxHP, new ArrayList<>(Monster.defaultAnchorPoints),
+                new HashSet<>(List.of(Monster.defaultDamageType)), Monster.defaultSkinType);
+    }
+
+    /**
+     * hands out a monster with a given name, maxHP, anchorpoints, damageTypes and skinType
+     *
+     * @param name
+     *      name of the monster
+     *
+     * @param maxHP
+     *      maxHP of the monster
+     *
+     * @param anchorPoints
+     *      anchorpoints of the monster
+     *
+     * @param damageTypes
+     *      damagetypes of the monster
+     *
+     * @param skinType
+     *      skintype of the monster
+     *
+     * @return a pooled monster brought back with the given state, or a new monster if the pool is empty
+     *      | if (getAmountOfPooledMonsters() == 0)
+     *      |   then result == new Monster(name, maxHP, anchorPoints, damageTypes, skinType)
+     *
+     * @throws InvalidNameException gets thrown when the name isn't valid
+     *      | !result.isValidName(name)
+     *
+     * @throws InvalidSkinTypeException gets thrown when skinType isn't valid
+     *      | !result.isValidSkinType(skinType)
+     *
+     * @throws InvalidDamageTypesException gets thrown when damageTypes are not valid
+     *      | !result.areValidDamageTypes(damageTypes)
+     */
+    public Monster acquire(String name, Long maxHP, ArrayList<AnchorPoint> anchorPoints, HashSet<DamageType> damageTypes, SkinType skinType) throws InvalidNameException, InvalidDamageTypesException, InvalidSkinTypeException {
+        Monster monster = free.poll();
+        if (monster == null) {
+            return new Monster(name, maxHP, anchorPoints, damageTypes, skinType);
+        }
+        if (!monster.isValidName(name)) {
+            free.offer(monster);
+            throw new InvalidNameException("name must follow naming rules");
+        }
+        if (!monster.isValidSkinType(skinType)) {
+            free.offer(monster);
+            throw new InvalidSkinTypeException("SkinType is not Valid");
+        }
+        if (!monster.areValidDamageTypes(damageTypes)) {
+            free.offer(monster);
+            throw new InvalidDamageTypesException("DamageTypes are not valid");
+        }
+        pooled.remove(monster);
+        taken.decrementAndGet();
+        monster.respawn(name, maxHP, AnchorLayout.of(anchorPoints), (skinType == null) ? SkinType.TOUGH : skinType,
+                Entity.toDamageTypeMask(damageTypes), Monster.itemSpawnChance);
+        return monster;
+    }
+
+    /**
+     * hands out a monster of an archetype
+     *
+     * @param archetype
+     *      the archetype that describes the monster
+     *
+     * @return a pooled monster brought back as a monster of the archetype, or a new monster if the pool is empty
+     *      | if (getAmountOfPooledMonsters() == 0)
+     *      |   then result == new Monster(archetype)
+     *
+     * @note the archetype was validated when it was created, so nothing is validated again
+     */
+    public Monster acquire(MonsterArchetype archetype) {
+        Monster monster = free.poll();
+        if (monster == null) {
+            return new Monster(archetype);
+        }
+        pooled.remove(monster);
+        taken.decrementAndGet();
+        monster.respawn(archetype.getName(), archetype.getMaxHP(), archetype.getAnchorLayout(),
+                archetype.getSkinType(), archetype.getDamageTypeMask(), archetype.getLootChance());
+        return monster;
+    }
+}
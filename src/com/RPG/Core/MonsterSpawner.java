@@ -0,0 +1,104 @@
+package com.RPG.Core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * A class that spawns many monsters of an archetype at once, spread over all available processors
+ *
+ * @note the monsters are spawned in batches. Every batch rolls its loot with its own random generator, split from one
+ * root generator before any batch starts, so no two threads ever share a generator and the same seed always gives
+ * the same loot in the same positions
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public final class MonsterSpawner {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the amount of monsters in a batch, fixed so the loot of a seed does not depend on the
+     * amount of processors
+     */
+    private static final int batchSize = 256;
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * MonsterSpawner only has static methods and can not be instantiated
+     */
+    private MonsterSpawner() {
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * spawns monsters of an archetype
+     *
+     * @param archetype
+     *      the archetype of the monsters
+     *
+     * @param count
+     *      the amount of monsters we want
+     *
+     * @effect the monsters are spawned with a random seed
+     *      | spawn(archetype, count, ThreadLocalRandom.current().nextLong())
+     */
+    public static List<Monster> spawn(MonsterArchetype archetype, int count) {
+        return spawn(archetype, count, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * spawns monsters of an archetype, rolling their loot from a given seed
+     *
+     * @param archetype
+     *      the archetype of the monsters
+     *
+     * @param count
+     *      the amount of monsters we want
+     *
+     * @param seed
+     *      the seed of the root random generator
+     *
+     * @return an unmodifiable list of count new monsters of the archetype, backed by a single array
+     *      | result.size() == count
+     *      | for each monster in result
+     *      |   monster.getName() == archetype.getName() && monster.getAnchorLayout() == archetype.getAnchorLayout()
+     *
+     * @throws IllegalArgumentException
+     *      if the count is negative
+     *      | count < 0
+     */
+    public static List<Monster> spawn(MonsterArchetype archetype, int count, long seed) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count can not be negative");
+        }
+        Monster[] monsters = new Monster[count];
+        int amountOfBatches = (count + batchSize - 1) / batchSize;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[amountOfBatches];
+        for (int batch = 0; batch < amountOfBatches; batch++) {
+            randoms[batch] = root.split();
+        }
+        IntStream.range(0, amountOfBatches).parallel().forEach(batch -> {
+            SplittableRandom random = randoms[batch];
+            int end = Math.min(count, (batch + 1) * batchSize);
+            for (int index = batch * batchSize; index < end; index++) {
+                monsters[index] = new Monster(archetype, random);
+            }
+        });
+        return Collections.unmodifiableList(Arrays.asList(monsters));
+    }
+}
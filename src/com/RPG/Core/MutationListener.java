@@ -0,0 +1,32 @@
+package com.RPG.Core;
+
+/**
+ * An interface for classes that want to be told about changes to entities and items
+ *
+ * @note listeners are told about a change right after it happens, on the thread that made it and, in the concurrency
+ * mode, while the entities involved are still locked. A listener must therefore be quick and must not change any
+ * entity or item itself
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public interface MutationListener {
+
+    /**
+     * is called after the hitpoints, the items or the status of an entity changed
+     *
+     * @param entity
+     *      the entity that changed
+     */
+    void entityChanged(Entity entity);
+
+    /**
+     * is called after the holder, the backpack, the anchorpoint or the status of an item changed
+     *
+     * @param item
+     *      the item that changed
+     */
+    default void itemChanged(Item item) {
+    }
+}
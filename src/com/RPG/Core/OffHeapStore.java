@@ -0,0 +1,772 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Model;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A class representing a read-only export of the state of entities and items outside the heap
+ *
+ * @note every entity and every item is copied into a fixed-width record in direct memory, addressed by a handle. The
+ * records are read through flyweight views that can be moved from one record to another, so walking millions of
+ * records creates no objects. Freed records go on a free list and are reused before the store grows
+ *
+ * @note the store is not a backend for the entities. Heroes, monsters and their items stay on the heap and remain
+ * the only state the game changes, so a record is a copy of an entity at the moment it was stored. Every entity has at
+ * most one record: storing it again overwrites that record and the records of its items in place, and a record is
+ * given back with free or, for entities that were terminated when they were stored, with freeTerminated
+ *
+ * @note a store is not thread-safe
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public class OffHeapStore {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the amount of records in a chunk of direct memory when none is given
+     */
+    private static final int defaultRecordsPerChunk = 1 << 16;
+
+    /**
+     * Offsets of the fields of an entity record, which is 64 bytes wide
+     */
+    private static final int entityId = 0, entityHp = 8, entityMaxHp = 16, entityStrength = 24, entityCapacity = 32,
+            entityTotalWeight = 40, entityProtection = 48, entityDamageTypes = 52, entityAnchorPoints = 56,
+            entitySkin = 60, entityKind = 61, entityFlags = 62, entityRecordSize = 64;
+
+    /**
+     * Offsets of the fields of an item record, which is 48 bytes wide
+     */
+    private static final int itemId = 0, itemWeight = 8, itemContentWeight = 16, itemHolder = 24, itemContainer = 28,
+            itemValue = 32, itemDamage = 36, itemCapacity = 40, itemType = 44, itemShine = 45, itemAnchor = 46,
+            itemFlags = 47, itemRecordSize = 48;
+
+    /**
+     * Flags of a record
+     */
+    private static final byte liveFlag = 1, terminatedFlag = 2, healableFlag = 4;
+
+    /**
+     * Kinds of an entity record
+     */
+    private static final byte heroKind = 1, monsterKind = 2;
+
+    /**
+     * A variable representing all skinTypes, indexed by their ordinal
+     */
+    private static final SkinType[] allSkinTypes = SkinType.values();
+
+    /**
+     * A variable representing all itemTypes, indexed by their ordinal
+     */
+    private static final ItemType[] allItemTypes = ItemType.values();
+
+    /**
+     * A variable representing all shineLevels, indexed by their ordinal
+     */
+    private static final ShineLevel[] allShineLevels = ShineLevel.values();
+
+    /**
+     * A variable representing all anchorpoints, indexed by their ordinal
+     */
+    private static final AnchorPoint[] allAnchorPoints = AnchorPoint.values();
+
+    /**
+     * A variable representing the records of the entities
+     */
+    private final RecordArea entities;
+
+    /**
+     * A variable representing the records of the items
+     */
+    private final RecordArea items;
+
+    /**
+     * A map representing the handle of the record of every stored entity
+     */
+    private final Map<Entity, Integer> handles = new IdentityHashMap<>();
+
+    /**
+     * A map representing the entity of every live entity record, by its handle
+     */
+    private final Map<Integer, Entity> owners = new HashMap<>();
+
+    /**
+     * A map representing the handles of the item records of every live entity record, by its handle
+     */
+    private final Map<Integer, int[]> itemHandles = new HashMap<>();
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for an empty store
+     *
+     * @effect the store is created with the default amount of records per chunk
+     *      | this(defaultRecordsPerChunk)
+     */
+    public OffHeapStore() {
+        this(defaultRecordsPerChunk);
+    }
+
+    /**
+     * A constructor for an empty store with a given amount of records per chunk of direct memory
+     *
+     * @param recordsPerChunk
+     *      the amount of records the store allocates at once, rounded up to a power of two
+     *
+     * @post the store has no entities and no items
+     *      | getAmountOfEntities() == 0 && getAmountOfItems() == 0
+     */
+    public OffHeapStore(int recordsPerChunk) {
+        this.entities = new RecordArea(entityRecordSize, recordsPerChunk);
+        this.items = new RecordArea(itemRecordSize, recordsPerChunk);
+    }
+
+    /**********************************************************
+     * Getters and Setters
+     **********************************************************/
+
+    /**
+     * getter for the amount of live entity records
+     *
+     * @return the amount of entities in the store
+     */
+    public int getAmountOfEntities() {
+        return entities.getAmountOfLiveRecords();
+    }
+
+    /**
+     * getter for the amount of live item records
+     *
+     * @return the amount of items in the store
+     */
+    public int getAmountOfItems() {
+        return items.getAmountOfLiveRecords();
+    }
+
+    /**
+     * getter for a new view on the entity records of this store
+     *
+     * @return a view that is not positioned on any record yet
+     */
+    public EntityView entityView() {
+        return new EntityView();
+    }
+
+    /**
+     * getter for a new view on the item records of this store
+     *
+     * @return a view that is not positioned on any record yet
+     */
+    public ItemView itemView() {
+        return new ItemView();
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * stores the current state of an entity and of all its items
+     *
+     * @param entity
+     *      the entity we want to store
+     *
+     * @return the handle of the entity record
+     *
+     * @effect if the entity is already stored, its record is replaced with its current state
+     *      | if (getHandleOf(entity) != -1)
+     *      |   then replaceEntity(getHandleOf(entity), entity)
+     *
+     * @post otherwise the store holds a new record for the entity and a record for every item it holds, however deeply
+     * nested, where every item record refers to the entity record and to the record of the backpack it is stored in
+     */
+    public int storeEntity(Entity entity) {
+        Integer stored = handles.get(entity);
+        if (stored != null) {
+            replaceEntity(stored, entity);
+            return stored;
+        }
+        int handle = entities.allocate();
+        handles.put(entity, handle);
+        owners.put(handle, entity);
+        writeEntity(handle, entity, new int[0]);
+        return handle;
+    }
+
+    /**
+     * replaces an entity record with the current state of an entity, reusing the records of its items
+     *
+     * @param handle
+     *      the handle of the entity record
+     *
+     * @param entity
+     *      the entity whose state we want to store in the record
+     *
+     * @post the record holds the current state of the entity, and the store holds a record for every item the entity
+     * holds. The item records of the former state are reused first, and those that are left over are freed
+     *
+     * @throws IndexOutOfBoundsException
+     *      if the handle does not belong to a live entity record
+     *
+     * @throws IllegalArgumentException
+     *      if the entity is stored under another handle
+     *      | getHandleOf(entity) != -1 && getHandleOf(entity) != handle
+     */
+    public void replaceEntity(int handle, Entity entity) {
+        checkLiveEntity(handle);
+        Integer stored = handles.get(entity);
+        if (stored != null && stored != handle) {
+            throw new IllegalArgumentException("the entity is stored under handle " + stored);
+        }
+        Entity former = owners.put(handle, entity);
+        if (former != entity) {
+            handles.remove(former);
+            handles.put(entity, handle);
+        }
+        writeEntity(handle, entity, itemHandles.get(handle));
+    }
+
+    /**
+     * frees an entity record together with the records of its items
+     *
+     * @param handle
+     *      the handle of the entity record
+     *
+     * @post the record and the records of its items are freed, and the entity is no longer stored
+     *      | getHandleOf(old entity of handle) == -1
+     *
+     * @throws IndexOutOfBoundsException
+     *      if the handle does not belong to a live entity record
+     */
+    public void free(int handle) {
+        checkLiveEntity(handle);
+        for (int item : itemHandles.remove(handle)) {
+            items.free(item);
+        }
+        handles.remove(owners.remove(handle));
+        entities.free(handle);
+    }
+
+    /**
+     * getter for the handle of the record of an entity
+     *
+     * @param entity
+     *      the entity we are looking for
+     *
+     * @return the handle of the record of the entity, -1 if the entity is not stored
+     */
+    public int getHandleOf(Entity entity) {
+        Integer handle = handles.get(entity);
+        return (handle == null) ? RecordArea.noRecord : handle;
+    }
+
+    /**
+     * frees the record of every entity that was terminated when it was stored, together with the records of its items
+     *
+     * @return the amount of entity records that were freed
+     *
+     * @effect every live entity record that is terminated is freed
+     *      | for each handle with a terminated live record
+     *      |   free(handle)
+     */
+    public int freeTerminated() {
+        int freed = 0;
+        for (int handle = 0; handle < entities.getAmountOfRecords(); handle++) {
+            byte flags = entities.chunkOf(handle).get(entities.offsetOf(handle) + entityFlags);
+            if ((flags & liveFlag) != 0 && (flags & terminatedFlag) != 0) {
+                free(handle);
+                freed++;
+            }
+        }
+        return freed;
+    }
+
+    /**
+     * checks whether a handle belongs to a live entity record
+     *
+     * @param handle
+     *      the handle we want to check
+     *
+     * @throws IndexOutOfBoundsException
+     *      if the handle does not belong to a live entity record
+     */
+    @Model
+    private void checkLiveEntity(int handle) {
+        if (!entities.isHandle(handle)
+                || (entities.chunkOf(handle).get(entities.offsetOf(handle) + entityFlags) & liveFlag) == 0) {
+            throw new IndexOutOfBoundsException("no live entity with handle " + handle);
+        }
+    }
+
+    /**
+     * writes the current state of an entity and of all its items into the store
+     *
+     * @param handle
+     *      the handle of the entity record
+     *
+     * @param entity
+     *      the entity we want to write
+     *
+     * @param reusable
+     *      the handles of item records that are written over before new ones are allocated
+     *
+     * @post the entity record holds the state of the entity, and the item records that were not needed are freed
+     */
+    @Model
+    private void writeEntity(int handle, Entity entity, int[] reusable) {
+        ByteBuffer chunk = entities.chunkOf(handle);
+        int offset = entities.offsetOf(handle);
+        chunk.putLong(offset + entityId, entity.getId());
+        chunk.putLong(offset + entityHp, entity.getHP());
+        chunk.putLong(offset + entityMaxHp, entity.getMaxHP());
+        chunk.putLong(offset + entityStrength, entity.getScaledStrength());
+        chunk.putLong(offset + entityCapacity, entity.getCapacity());
+        chunk.putDouble(offset + entityTotalWeight, entity.getTotalWeight());
+        chunk.putInt(offset + entityProtection, entity.getProtection());
+        chunk.putInt(offset + entityDamageTypes, entity.getDamageTypeMask());
+        chunk.putInt(offset + entityAnchorPoints, entity.getAnchorLayout().getMask());
+        chunk.put(offset + entitySkin, (byte) entity.getSkinType().ordinal());
+        chunk.put(offset + entityKind, entity instanceof Hero ? heroKind : monsterKind);
+        byte flags = liveFlag;
+        if (entity.isTerminated()) flags |= terminatedFlag;
+        if (entity.isHealable()) flags |= healableFlag;
+        chunk.put(offset + entityFlags, flags);
+
+        List<Item> held = new ArrayList<>();
+        entity.forEachItem(held::add);
+        Map<Item, Integer> stored = new IdentityHashMap<>();
+        int[] records = Arrays.copyOf(reusable, held.size());
+        for (int index = 0; index < records.length; index++) {
+            Item item = held.get(index);
+            Backpack container = item.getBackpack();
+            int containerHandle = (container == null) ? RecordArea.noRecord : stored.get(container);
+            if (index >= reusable.length) {
+                records[index] = items.allocate();
+            }
+            writeItem(records[index], item, handle, containerHandle);
+            stored.put(item, records[index]);
+        }
+        for (int index = records.length; index < reusable.length; index++) {
+            items.free(reusable[index]);
+        }
+        itemHandles.put(handle, records);
+    }
+
+    /**
+     * writes the current state of an item into an item record
+     *
+     * @param handle
+     *      the handle of the item record
+     *
+     * @param item
+     *      the item we want to write
+     *
+     * @param holder
+     *      the handle of the entity record of its holder, or -1
+     *
+     * @param container
+     *      the handle of the item record of the backpack it is stored in, or -1
+     */
+    @Model
+    private void writeItem(int handle, Item item, int holder, int container) {
+        ByteBuffer chunk = items.chunkOf(handle);
+        int offset = items.offsetOf(handle);
+        chunk.putLong(offset + itemId, item.getId());
+        chunk.putDouble(offset + itemWeight, item.getWeight());
+        chunk.putInt(offset + itemHolder, holder + 1);
+        chunk.putInt(offset + itemContainer, container + 1);
+        chunk.putInt(offset + itemValue, item.getValue());
+        chunk.putInt(offset + itemDamage, item.getDamage());
+        chunk.put(offset + itemType, (byte) item.getItemType().ordinal());
+        chunk.put(offset + itemShine, (byte) item.getShineLevel().ordinal());
+        AnchorPoint anchorPoint = item.getEquippedAnchorPoint();
+        chunk.put(offset + itemAnchor, (byte) (anchorPoint == null ? 0 : anchorPoint.ordinal() + 1));
+        if (item instanceof Backpack backpack) {
+            chunk.putDouble(offset + itemContentWeight, backpack.getContentWeight());
+            chunk.putInt(offset + itemCapacity, backpack.getCapacity());
+        } else {
+            chunk.putDouble(offset + itemContentWeight, 0.0);
+            chunk.putInt(offset + itemCapacity, 0);
+        }
+        byte flags = liveFlag;
+        if (item.isTerminated()) flags |= terminatedFlag;
+        chunk.put(offset + itemFlags, flags);
+    }
+
+    /**
+     * A class representing a movable view on an entity record, which can only be read
+     */
+    public final class EntityView {
+
+        /**
+         * A variable representing the chunk of the record
+         */
+        private ByteBuffer chunk;
+
+        /**
+         * A variable representing the position of the record in its chunk
+         */
+        private int offset;
+
+        /**
+         * A variable representing the handle of the record
+         */
+        private int handle = RecordArea.noRecord;
+
+        /**
+         * A constructor for a view that is not positioned yet
+         */
+        private EntityView() {
+        }
+
+        /**
+         * positions this view on an entity record
+         *
+         * @param handle
+         *      the handle of the record
+         *
+         * @return this view
+         *
+         * @throws IndexOutOfBoundsException
+         *      if the handle does not belong to a live entity record
+         */
+        public EntityView moveTo(int handle) {
+            checkLiveEntity(handle);
+            this.chunk = entities.chunkOf(handle);
+            this.offset = entities.offsetOf(handle);
+            this.handle = handle;
+            return this;
+        }
+
+        /**
+         * getter for the handle of the record this view is positioned on
+         *
+         * @return the handle, -1 if the view is not positioned
+         */
+        @Basic
+        public int getHandle() {
+            return handle;
+        }
+
+        /**
+         * getter for the id of the entity
+         *
+         * @return the id the entity had when it was stored
+         */
+        public long getId() {
+            return chunk.getLong(offset + entityId);
+        }
+
+        /**
+         * getter for the hitpoints of the entity
+         *
+         * @return the current hitpoints
+         */
+        public long getHP() {
+            return chunk.getLong(offset + entityHp);
+        }
+
+        /**
+         * getter for the maximum hitpoints of the entity
+         *
+         * @return the maximum hitpoints
+         */
+        public long getMaxHP() {
+            return chunk.getLong(offset + entityMaxHp);
+        }
+
+        /**
+         * getter for the strength of the entity
+         *
+         * @return the strength, rounded to two decimals
+         */
+        public BigDecimal getStrength() {
+            return BigDecimal.valueOf(chunk.getLong(offset + entityStrength), Entity.strengthScale);
+        }
+
+        /**
+         * getter for the capacity of the entity
+         *
+         * @return the capacity
+         */
+        public long getCapacity() {
+            return chunk.getLong(offset + entityCapacity);
+        }
+
+        /**
+         * getter for the total weight of the items of the entity
+         *
+         * @return the total weight when the entity was stored
+         */
+        public double getTotalWeight() {
+            return chunk.getDouble(offset + entityTotalWeight);
+        }
+
+        /**
+         * getter for the total defense of the entity
+         *
+         * @return the protection of the entity plus the protection of its skin
+         */
+        public int getDefense() {
+            return chunk.getInt(offset + entityProtection) + getSkinType().getProtection();
+        }
+
+        /**
+         * getter for the skinType of the entity
+         *
+         * @return the skinType
+         */
+        public SkinType getSkinType() {
+            return allSkinTypes[chunk.get(offset + entitySkin)];
+        }
+
+        /**
+         * checks whether the entity has a damageType
+         *
+         * @param damageType
+         *      the damageType we are looking for
+         *
+         * @return true if the entity has the damageType, false otherwise
+         */
+        public boolean hasDamageType(DamageType damageType) {
+            return damageType != null && (chunk.getInt(offset + entityDamageTypes) & (1 << damageType.ordinal())) != 0;
+        }
+
+        /**
+         * checks whether the entity has an anchorpoint
+         *
+         * @param anchorPoint
+         *      the anchorpoint we are looking for
+         *
+         * @return true if the entity has the anchorpoint, false otherwise
+         */
+        public boolean hasAnchorpoint(AnchorPoint anchorPoint) {
+            return anchorPoint != null && (chunk.getInt(offset + entityAnchorPoints) & AnchorLayout.bit(anchorPoint)) != 0;
+        }
+
+        /**
+         * checks whether the entity is a hero
+         *
+         * @return true if the entity was a hero, false if it was a monster
+         */
+        public boolean isHero() {
+            return chunk.get(offset + entityKind) == heroKind;
+        }
+
+        /**
+         * checks whether the entity can heal
+         *
+         * @return true if the entity can heal, false otherwise
+         */
+        public boolean isHealable() {
+            return (chunk.get(offset + entityFlags) & healableFlag) != 0;
+        }
+
+        /**
+         * checks whether the entity is terminated
+         *
+         * @return true if the entity is terminated, false otherwise
+         */
+        public boolean isTerminated() {
+            return (chunk.get(offset + entityFlags) & terminatedFlag) != 0;
+        }
+    }
+
+    /**
+     * A class representing a movable view on an item record, which can only be read
+     */
+    public final class ItemView {
+
+        /**
+         * A variable representing the chunk of the record
+         */
+        private ByteBuffer chunk;
+
+        /**
+         * A variable representing the position of the record in its chunk
+         */
+        private int offset;
+
+        /**
+         * A variable representing the handle of the record
+         */
+        private int handle = RecordArea.noRecord;
+
+        /**
+         * A constructor for a view that is not positioned yet
+         */
+        private ItemView() {
+        }
+
+        /**
+         * positions this view on an item record
+         *
+         * @param handle
+         *      the handle of the record
+         *
+         * @return this view
+         *
+         * @throws IndexOutOfBoundsException
+         *      if the handle does not belong to a live item record
+         */
+        public ItemView moveTo(int handle) {
+            if (!items.isHandle(handle)
+                    || (items.chunkOf(handle).get(items.offsetOf(handle) + itemFlags) & liveFlag) == 0) {
+                throw new IndexOutOfBoundsException("no live item with handle " + handle);
+            }
+            this.chunk = items.chunkOf(handle);
+            this.offset = items.offsetOf(handle);
+            this.handle = handle;
+            return this;
+        }
+
+        /**
+         * checks whether a handle belongs to a live item record
+         *
+         * @param handle
+         *      the handle we want to check
+         *
+         * @return true if moveTo(handle) would succeed, false otherwise
+         */
+        public boolean isLive(int handle) {
+            return items.isHandle(handle)
+                    && (items.chunkOf(handle).get(items.offsetOf(handle) + itemFlags) & liveFlag) != 0;
+        }
+
+        /**
+         * getter for the handle of the record this view is positioned on
+         *
+         * @return the handle, -1 if the view is not positioned
+         */
+        @Basic
+        public int getHandle() {
+            return handle;
+        }
+
+        /**
+         * getter for the id of the item
+         *
+         * @return the id the item had when it was stored
+         */
+        public long getId() {
+            return chunk.getLong(offset + itemId);
+        }
+
+        /**
+         * getter for the weight of the item
+         *
+         * @return the weight of the item itself
+         */
+        public double getWeight() {
+            return chunk.getDouble(offset + itemWeight);
+        }
+
+        /**
+         * getter for the total weight of the item
+         *
+         * @return the weight of the item plus the weight of its content
+         */
+        public double getTotalWeight() {
+            return getWeight() + chunk.getDouble(offset + itemContentWeight);
+        }
+
+        /**
+         * getter for the holder of the item
+         *
+         * @return the handle of the entity record of the holder, -1 if there is none
+         */
+        public int getHolder() {
+            return chunk.getInt(offset + itemHolder) - 1;
+        }
+
+        /**
+         * getter for the backpack the item is stored in
+         *
+         * @return the handle of the item record of the backpack, -1 if there is none
+         */
+        public int getContainer() {
+            return chunk.getInt(offset + itemContainer) - 1;
+        }
+
+        /**
+         * getter for the value of the item
+         *
+         * @return the value
+         */
+        public int getValue() {
+            return chunk.getInt(offset + itemValue);
+        }
+
+        /**
+         * getter for the damage of the item
+         *
+         * @return the damage
+         */
+        public int getDamage() {
+            return chunk.getInt(offset + itemDamage);
+        }
+
+        /**
+         * getter for the capacity of the item
+         *
+         * @return the capacity if the item is a backpack, 0 otherwise
+         */
+        public int getCapacity() {
+            return chunk.getInt(offset + itemCapacity);
+        }
+
+        /**
+         * getter for the type of the item
+         *
+         * @return the itemType
+         */
+        public ItemType getItemType() {
+            return allItemTypes[chunk.get(offset + itemType)];
+        }
+
+        /**
+         * getter for the shineLevel of the item
+         *
+         * @return the shineLevel
+         */
+        public ShineLevel getShineLevel() {
+            return allShineLevels[chunk.get(offset + itemShine)];
+        }
+
+        /**
+         * getter for the anchorpoint the item is equipped on
+         *
+         * @return the anchorpoint, null if the item is not equipped
+         */
+        public AnchorPoint getEquippedAnchorPoint() {
+            int anchor = chunk.get(offset + itemAnchor);
+            return anchor == 0 ? null : allAnchorPoints[anchor - 1];
+        }
+
+        /**
+         * checks whether the item is terminated
+         *
+         * @return true if the item is terminated, false otherwise
+         */
+        public boolean isTerminated() {
+            return (chunk.get(offset + itemFlags) & terminatedFlag) != 0;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Model;
+
+/**
+ * A class shared by all entities to test and find prime numbers
+ *
+ * @note numbers below the sieve limit are looked up in a sieve that is built once, the first time it is needed.
+ * Larger numbers are tested with a Miller-Rabin test whose bases are known to be correct for every long, so
+ * the answers are exact. The class holds no mutable state after the sieve is built and can be used by any thread
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+public final class PrimeService {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the first number that is not looked up in the sieve
+     */
+    private static final int sieveLimit = 1 << 21;
+
+    /**
+     * A variable representing the largest prime that fits in a long
+     */
+    private static final long largestPrime = Long.MAX_VALUE - 24;
+
+    /**
+     * A variable representing the Miller-Rabin bases that give an exact answer for every long
+     */
+    private static final long[] witnesses = {2, 325, 9375, 28178, 450775, 9780504, 1795265022};
+
+    /**
+     * A variable representing the small primes used to rule out most composite numbers before Miller-Rabin
+     */
+    private static final int[] smallPrimes = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47};
+
+    /**
+     * A variable representing the numbers below 30 that share no factor with 30, the spokes of the wheel
+     */
+    private static final int[] wheelSpokes = {1, 7, 11, 13, 17, 19, 23, 29};
+
+    /**
+     * A variable representing, for every remainder modulo 30, the distance to the next spoke of the wheel
+     */
+    private static final int[] wheelGaps = new int[30];
+
+    static {
+        for (int remainder = 0; remainder < 30; remainder++) {
+            int gap = 0;
+            while (!isWheelSpoke((remainder + gap) % 30)) {
+                gap++;
+            }
+            wheelGaps[remainder] = gap;
+        }
+    }
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * PrimeService only has static methods and can not be instantiated
+     */
+    private PrimeService() {
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * checks whether a number is prime
+     *
+     * @param number
+     *      the number we want to check
+     *
+     * @return true if the number is prime, false otherwise
+     *      | result == (number > 1 && for no divisor in 2..sqrt(number): number % divisor == 0)
+     */
+    public static boolean isPrime(long number) {
+        if (number < sieveLimit) {
+            return number >= 2 && Sieve.isPrime((int) number);
+        }
+        for (int prime : smallPrimes) {
+            if (number % prime == 0) {
+                return false;
+            }
+        }
+        return isProbablePrime(number);
+    }
+
+    /**
+     * getter for the smallest prime number that is bigger than or equal to a number
+     *
+     * @param number
+     *      the number we want to find the next prime for
+     *
+     * @return the smallest prime that is bigger than or equal to number
+     *      | if number <= 2
+     *      |   then result == 2
+     *      | else isPrime(result) && result >= number
+     *      |   && for no candidate in number..result-1: isPrime(candidate)
+     *
+     * @throws ArithmeticException
+     *      if there is no prime bigger than or equal to number that fits in a long
+     *      | number > Long.MAX_VALUE - 24
+     */
+    public static long nextPrime(long number) {
+        if (number <= 2) {
+            return 2;
+        }
+        if (number > largestPrime) {
+            throw new ArithmeticException("no prime bigger than " + number + " fits in a long");
+        }
+        if (number < sieveLimit) {
+            int prime = Sieve.nextPrime((int) number);
+            if (prime >= 0) {
+                return prime;
+            }
+            number = sieveLimit;
+        }
+        long candidate = number + wheelGaps[(int) (number % 30)];
+        int spoke = spokeIndex((int) (candidate % 30));
+        while (!isPrime(candidate)) {
+            int next = (spoke + 1) & 7;
+            candidate += (next == 0 ? 30 : 0) + wheelSpokes[next] - wheelSpokes[spoke];
+            spoke = next;
+        }
+        return candidate;
+    }
+
+    /**
+     * checks whether a number is a spoke of the wheel
+     *
+     * @param remainder
+     *      a number below 30
+     *
+     * @return true if the number shares no factor with 30, false otherwise
+     */
+    @Model
+    private static boolean isWheelSpoke(int remainder) {
+        return spokeIndex(remainder) >= 0;
+    }
+
+    /**
+     * getter for the index of a spoke of the wheel
+     *
+     * @param remainder
+     *      a number below 30
+     *
+     * @return the index of the remainder in wheelSpokes, -1 if it is not a spoke
+     */
+    @Model
+    private static int spokeIndex(int remainder) {
+        for (int index = 0; index < wheelSpokes.length; index++) {
+            if (wheelSpokes[index] == remainder) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * runs the Miller-Rabin test with bases that are exact for every long
+     *
+     * @pre the number is odd and bigger than every small prime
+     *      | number % 2 == 1 && number > 47
+     *
+     * @param number
+     *      the number we want to check
+     *
+     * @return true if the number is prime, false otherwise
+     */
+    @Model
+    private static boolean isProbablePrime(long number) {
+        long odd = number - 1;
+        int twos = Long.numberOfTrailingZeros(odd);
+        odd >>= twos;
+        for (long witness : witnesses) {
+            long base = witness % number;
+            if (base == 0) {
+                continue;
+            }
+            long power = powMod(base, odd, number);
+            if (power == 1 || power == number - 1) {
+                continue;
+            }
+            boolean composite = true;
+            for (int round = 1; round < twos && composite; round++) {
+                power = mulMod(power, power, number);
+                composite = power != number - 1;
+            }
+            if (composite) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * raises a number to a power modulo a modulus
+     *
+     * @pre the base is smaller than the modulus
+     *      | 0 <= base < modulus
+     *
+     * @return base to the power exponent, modulo modulus
+     */
+    @Model
+    private static long powMod(long base, long exponent, long modulus) {
+        long result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result = mulMod(result, base, modulus);
+            }
+            base = mulMod(base, base, modulus);
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * multiplies two numbers modulo a modulus without overflowing
+     *
+     * @pre both factors are smaller than the modulus
+     *      | 0 <= first < modulus && 0 <= second < modulus
+     *
+     * @return first times second, modulo modulus
+     */
+    @Model
+    private static long mulMod(long first, long second, long modulus) {
+        if ((first | second) >>> 31 == 0 || Math.multiplyHigh(first, second) == 0 && first * second >= 0) {
+            return (first * second) % modulus;
+        }
+        long result = 0;
+        while (second > 0) {
+            if ((second & 1) != 0) {
+                result = addMod(result, first, modulus);
+            }
+            first = addMod(first, first, modulus);
+            second >>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * adds two numbers modulo a modulus without overflowing
+     *
+     * @pre both terms are smaller than the modulus
+     *      | 0 <= first < modulus && 0 <= second < modulus
+     *
+     * @return first plus second, modulo modulus
+     */
+    @Model
+    private static long addMod(long first, long second, long modulus) {
+        long sum = first + second;
+        if (Long.compareUnsigned(sum, modulus) >= 0) {
+            sum -= modulus;
+        }
+        return sum;
+    }
+
+    /**
+     * A sieve of the odd numbers below the sieve limit, built the first time a small number is looked up
+     */
+    private static final class Sieve {
+
+        /**
+         * A variable representing one bit per odd number, set if that odd number is composite
+         */
+        private static final long[] composite = build();
+
+        /**
+         * builds the sieve of Eratosthenes over the odd numbers
+         *
+         * @return the composite bits of the odd numbers below the sieve limit
+         */
+        private static long[] build() {
+            int odds = sieveLimit >>> 1;
+            long[] bits = new long[(odds + 63) >>> 6];
+            bits[0] |= 1L;
+            for (int factor = 3; (long) factor * factor < sieveLimit; factor += 2) {
+                if ((bits[factor >>> 7] & (1L << (factor >>> 1))) == 0) {
+                    for (int multiple = factor * factor; multiple < sieveLimit; multiple += 2 * factor) {
+                        bits[multiple >>> 7] |= 1L << (multiple >>> 1);
+                    }
+                }
+            }
+            return bits;
+        }
+
+        /**
+         * checks whether a number below the sieve limit is prime
+         *
+         * @pre 2 <= number < sieveLimit
+         */
+        private static boolean isPrime(int number) {
+            if ((number & 1) == 0) {
+                return number == 2;
+            }
+            return (composite[number >>> 7] & (1L << (number >>> 1))) == 0;
+        }
+
+        /**
+         * getter for the smallest prime bigger than or equal to a number below the sieve limit
+         *
+         * @pre 2 < number < sieveLimit
+         *
+         * @return the next prime, -1 if it lies beyond the sieve limit
+         */
+        private static int nextPrime(int number) {
+            int odd = (number | 1) >>> 1;
+            int word = odd >>> 6;
+            long primes = ~composite[word] & (-1L << odd);
+            while (primes == 0) {
+                if (++word == composite.length) {
+                    return -1;
+                }
+                primes = ~composite[word];
+            }
+            int prime = ((word << 6) + Long.numberOfTrailingZeros(primes)) * 2 + 1;
+            return prime < sieveLimit ? prime : -1;
+        }
+    }
+}
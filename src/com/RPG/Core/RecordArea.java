@@ -0,0 +1,211 @@
+package com.RPG.Core;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+
+/**
+ * A class representing fixed-width records in direct memory, outside the heap
+ *
+ * @invar a record is either live or on the free list
+ *      | getAmountOfLiveRecords() + amount of freed records == getAmountOfRecords()
+ *
+ * @note the records are kept in chunks of direct memory, so the area grows without copying the records it already has.
+ * A record is addressed by its handle. Freed records are linked in a free list through their first four bytes and
+ * are handed out again before the area grows
+ *
+ * @author Ben Demets
+ *
+ * @version 1.0
+ */
+final class RecordArea {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * A variable representing the handle that marks the end of the free list
+     */
+    static final int noRecord = -1;
+
+    /**
+     * A variable representing the size of a record in bytes
+     */
+    private final int recordSize;
+
+    /**
+     * A variable representing the amount of records in a chunk, always a power of two
+     */
+    private final int recordsPerChunk;
+
+    /**
+     * A variable representing the amount of bits a handle is shifted to find its chunk
+     */
+    private final int chunkShift;
+
+    /**
+     * A variable representing the chunks of direct memory
+     */
+    private final ArrayList<ByteBuffer> chunks = new ArrayList<>();
+
+    /**
+     * A variable representing the amount of records ever handed out
+     */
+    private int amountOfRecords = 0;
+
+    /**
+     * A variable representing the amount of records that are live
+     */
+    private int amountOfLiveRecords = 0;
+
+    /**
+     * A variable representing the first record of the free list
+     */
+    private int firstFree = noRecord;
+
+    /**********************************************************
+     * Constructors
+     *********************************************************/
+
+    /**
+     * A constructor for an empty area
+     *
+     * @param recordSize
+     *      the size of a record in bytes, at least 4
+     *
+     * @param recordsPerChunk
+     *      the amount of records in a chunk, rounded up to a power of two
+     */
+    RecordArea(int recordSize, int recordsPerChunk) {
+        this.recordSize = recordSize;
+        this.chunkShift = 32 - Integer.numberOfLeadingZeros(Math.max(1, recordsPerChunk) - 1);
+        this.recordsPerChunk = 1 << chunkShift;
+    }
+
+    /**********************************************************
+     * Getters and Setters
+     **********************************************************/
+
+    /**
+     * getter for the amount of records ever handed out, live or freed
+     *
+     * @return the amount of records
+     */
+    @Basic
+    int getAmountOfRecords() {
+        return amountOfRecords;
+    }
+
+    /**
+     * getter for the amount of live records
+     *
+     * @return the amount of records that are not freed
+     */
+    @Basic
+    int getAmountOfLiveRecords() {
+        return amountOfLiveRecords;
+    }
+
+    /**
+     * getter for the chunk of a record
+     *
+     * @param handle
+     *      the handle of the record
+     *
+     * @return the chunk of direct memory that holds the record
+     */
+    ByteBuffer chunkOf(int handle) {
+        return chunks.get(handle >>> chunkShift);
+    }
+
+    /**
+     * getter for the position of a record in its chunk
+     *
+     * @param handle
+     *      the handle of the record
+     *
+     * @return the position of the first byte of the record in its chunk
+     */
+    int offsetOf(int handle) {
+        return (handle & (recordsPerChunk - 1)) * recordSize;
+    }
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * hands out a record, reusing a freed record if there is one
+     *
+     * @return the handle of a record whose bytes are all zero
+     */
+    int allocate() {
+        int handle;
+        if (firstFree != noRecord) {
+            handle = firstFree;
+            firstFree = chunkOf(handle).getInt(offsetOf(handle));
+        } else {
+            handle = amountOfRecords++;
+            if ((handle >>> chunkShift) == chunks.size()) {
+                addChunk();
+            }
+        }
+        clear(handle);
+        amountOfLiveRecords++;
+        return handle;
+    }
+
+    /**
+     * puts a record on the free list
+     *
+     * @pre the record is live
+     *
+     * @param handle
+     *      the handle of the record
+     */
+    void free(int handle) {
+        clear(handle);
+        chunkOf(handle).putInt(offsetOf(handle), firstFree);
+        firstFree = handle;
+        amountOfLiveRecords--;
+    }
+
+    /**
+     * checks whether a handle was ever handed out by this area
+     *
+     * @param handle
+     *      the handle we want to check
+     *
+     * @return true if the handle lies within the records of this area, false otherwise
+     */
+    boolean isHandle(int handle) {
+        return handle >= 0 && handle < amountOfRecords;
+    }
+
+    /**
+     * sets every byte of a record to zero
+     *
+     * @param handle
+     *      the handle of the record
+     */
+    @Model
+    private void clear(int handle) {
+        ByteBuffer chunk = chunkOf(handle);
+        int offset = offsetOf(handle);
+        for (int index = 0; index < recordSize; index += Long.BYTES) {
+            chunk.putLong(offset + index, 0L);
+        }
+    }
+
+    /**
+     * adds a chunk of direct memory
+     */
+    @Model
+    private void addChunk() {
+        chunks.add(ByteBuffer.allocateDirect(recordsPerChunk * recordSize).order(ByteOrder.nativeOrder()));
+    }
+}
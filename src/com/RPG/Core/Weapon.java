@@ -4,8 +4,6 @@ import be.kuleuven.cs.som.annotate.Raw;
 import com.RPG.Exception.InvalidHolderException;
 import com.RPG.Exception.InvalidValueException;
 
-import java.util.concurrent.atomic.AtomicLong;
-
 /**
  * A class representing a backpack Item
  *
@@ -22,9 +20,9 @@ public class Weapon extends Item {
      **********************************************************/
 
     /**
-     * A variable Representing A thread-safe atomic counter used to generate unique IDs starting at 6
+     * A variable representing the allocator of the ids of weapons, the positive multiples of 6
      */
-    private static final AtomicLong idGenerator = new AtomicLong(6);
+    private static final ItemIdAllocator idAllocator = new ItemIdAllocator(6, 6, 64);
 
     /**
      * A variable representing the value per Damage of a weapon
@@ -140,18 +138,12 @@ public class Weapon extends Item {
     /**
      * generates an unique id for every Weapon
      *
-     * @return the uniquely created Id
-     *      | nextId = IdGenerator
-     *      | idGenerator + 6
-     *      | result = nextId
+     * @return the uniquely created Id, a positive multiple of 6
+     *      | result = idAllocator.nextId()
      */
     @Override @Raw
     protected long generateUniqueId() {
-        long nextId;
-        do {
-            nextId = idGenerator.getAndAdd(6);
-        } while (nextId <= 0 || nextId % 6 != 0);
-        return nextId;
+        return idAllocator.nextId();
     }
 
     /**
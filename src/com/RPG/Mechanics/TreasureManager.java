@@ -41,16 +41,25 @@ public class TreasureManager {
      *         taking items that appear shiny without consideration.
      *              | lootShiny(Entity, ArrayList)
      *
+     * @note in the concurrency mode both entities stay locked during the whole loot
+     *      | EntityLocks.lock(defeated, looter)
      */
     public static void loot(Entity defeated, Entity looter, ArrayList<Item> desired) {
-        if (defeated == null || looter == null || defeated.isTerminated() || looter.isTerminated()) return;
+        if (defeated == null || looter == null) return;
 
-        ArrayList<Item> defeatedItems = defeated.getAllItems();
+        EntityLocks.Guard guard = EntityLocks.lock(defeated, looter);
+        try {
+            if (defeated.isTerminated() || looter.isTerminated()) return;
 
-        if (looter.isIntelligent()){
-            lootIntelligently(looter, defeated, desired);
-        } else if (!looter.isIntelligent()) {
-            lootShiny(looter,defeated, defeatedItems);
+            ArrayList<Item> defeatedItems = defeated.getAllItems();
+
+            if (looter.isIntelligent()){
+                lootIntelligently(looter, defeated, desired);
+            } else if (!looter.isIntelligent()) {
+                lootShiny(looter,defeated, defeatedItems);
+            }
+        } finally {
+            guard.close();
         }
     }
 
@@ -83,7 +92,7 @@ public class TreasureManager {
 
         for (Item item : desiredItems) {
             if (item == null || item.isTerminated()) continue;
-            if (!defeated.getAllItems().contains(item)) continue;
+            if (!defeated.hasAsItem(item)) continue;
 
             AnchorPoint anchor = defeated.getAnchorPointWithItem(item);
             if (anchor != null) {
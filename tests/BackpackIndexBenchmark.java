@@ -0,0 +1,62 @@
+import com.RPG.Core.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures what the secondary indexes of a backpack cost on store and unpack, and what they save on queries.
+ * Run it by hand, it is not part of the test suite.
+ */
+public class BackpackIndexBenchmark {
+
+    private static final int amountOfItems = 2000;
+
+    private static final int rounds = 20;
+
+    public static void main(String[] args) throws Exception {
+        List<Item> items = new ArrayList<>();
+        ShineLevel[] shineLevels = ShineLevel.values();
+        for (int i = 0; i < amountOfItems; i++) {
+            items.add(new Weapon(1 + (i * 7) % 13, null, null, shineLevels[i % shineLevels.length], 1 + (i * 11) % 90));
+        }
+        for (int warmup = 0; warmup < 3; warmup++) {
+            run(items, false, false);
+            run(items, true, false);
+        }
+        run(items, false, true);
+        run(items, true, true);
+    }
+
+    private static void run(List<Item> items, boolean indexed, boolean report) throws Exception {
+        long storeNanos = 0, unpackNanos = 0, queryNanos = 0;
+        long found = 0;
+        for (int round = 0; round < rounds; round++) {
+            Backpack backpack = new Backpack(1, 10, Integer.MAX_VALUE, null, null, ShineLevel.LOW);
+            backpack.setIndexed(indexed);
+            long start = System.nanoTime();
+            for (Item item : items) {
+                backpack.storeItem(item);
+            }
+            storeNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int query = 0; query < 100; query++) {
+                found += backpack.getItemsWithShineLevel(ShineLevel.LEGENDARY).size();
+                found += backpack.getItemsWorthMoreThan(150).size();
+                found += backpack.getHeaviestItem(ItemType.WEAPON) == null ? 0 : 1;
+            }
+            queryNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (Item item : items) {
+                backpack.unpackItem(item);
+            }
+            unpackNanos += System.nanoTime() - start;
+        }
+        if (report) {
+            System.out.printf("%s: store %d ns/item, unpack %d ns/item, query %d us/round (%d found)%n",
+                    indexed ? "indexed  " : "unindexed",
+                    storeNanos / rounds / items.size(), unpackNanos / rounds / items.size(), queryNanos / rounds / 1000, found);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+import com.RPG.Core.*;
+import com.RPG.Exception.InvalidHolderException;
+import com.RPG.Exception.InvalidValueException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BackpackIndexTest {
+
+    private Backpack indexed;
+    private Backpack scanned;
+    private List<Item> items;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        indexed = new Backpack(1, 10, 10000, null, null, ShineLevel.LOW);
+        scanned = new Backpack(1, 10, 10000, null, null, ShineLevel.LOW);
+        indexed.setIndexed(true);
+        items = new ArrayList<>();
+        ShineLevel[] shineLevels = ShineLevel.values();
+        for (int i = 0; i < 40; i++) {
+            Item item = (i % 4 == 0)
+                    ? new Backpack(1 + i % 7, 5 + i, 50, null, null, shineLevels[i % shineLevels.length])
+                    : new Weapon(1 + (i * 7) % 13, null, null, shineLevels[i % shineLevels.length], 1 + (i * 11) % 90);
+            items.add(item);
+        }
+    }
+
+    private void storeAll() {
+        for (int i = 0; i < items.size(); i++) {
+            (i % 2 == 0 ? indexed : scanned).storeItem(items.get(i));
+        }
+    }
+
+    private void assertSameAnswers(Backpack backpack) {
+        boolean wasIndexed = backpack.isIndexed();
+        backpack.setIndexed(true);
+        List<Item> worthMore = backpack.getItemsWorthMoreThan(40);
+        List<Item> weapons = backpack.getItemsOfType(ItemType.WEAPON);
+        List<Item> legendary = backpack.getItemsWithShineLevel(ShineLevel.LEGENDARY);
+        Item heaviest = backpack.getHeaviestItem(ItemType.WEAPON);
+        Item lightest = backpack.getLightestItem(null);
+        backpack.setIndexed(false);
+        assertEquals(new HashSet<>(backpack.getItemsWorthMoreThan(40)), new HashSet<>(worthMore));
+        assertEquals(new HashSet<>(backpack.getItemsOfType(ItemType.WEAPON)), new HashSet<>(weapons));
+        assertEquals(new HashSet<>(backpack.getItemsWithShineLevel(ShineLevel.LEGENDARY)), new HashSet<>(legendary));
+        assertEquals(backpack.getHeaviestItem(ItemType.WEAPON).getWeight(), heaviest.getWeight());
+        assertEquals(backpack.getLightestItem(null).getWeight(), lightest.getWeight());
+        backpack.setIndexed(wasIndexed);
+    }
+
+    @Test
+    public void testIndexedQueriesMatchScans() {
+        storeAll();
+        assertTrue(indexed.isIndexed());
+        assertFalse(scanned.isIndexed());
+        assertSameAnswers(indexed);
+        assertSameAnswers(scanned);
+    }
+
+    @Test
+    public void testIndexesFollowUnpack() {
+        storeAll();
+        for (int i = 0; i < items.size(); i += 4) {
+            indexed.unpackItem(items.get(i));
+        }
+        for (Item item : indexed.getItemsOfType(ItemType.BACKPACK)) {
+            assertTrue(indexed.hasAsItem(item));
+        }
+        for (Item item : indexed.getItemsWorthMoreThan(0)) {
+            assertTrue(indexed.hasAsItem(item));
+        }
+        assertEquals(indexed.getAmountOfItems(), indexed.getItemsWorthMoreThan(-1).size());
+        assertSameAnswers(indexed);
+    }
+
+    @Test
+    public void testWorthMoreThanIsSortedByValue() {
+        storeAll();
+        List<Item> worthMore = indexed.getItemsWorthMoreThan(20);
+        for (int i = 1; i < worthMore.size(); i++) {
+            assertTrue(worthMore.get(i - 1).getValue() <= worthMore.get(i).getValue());
+        }
+        for (Item item : worthMore) {
+            assertTrue(item.getValue() > 20);
+        }
+    }
+
+    @Test
+    public void testQueriesOnEmptyBackpack() {
+        assertTrue(indexed.getItemsOfType(ItemType.WEAPON).isEmpty());
+        assertTrue(indexed.getItemsWorthMoreThan(0).isEmpty());
+        assertNull(indexed.getHeaviestItem(null));
+        assertNull(scanned.getLightestItem(ItemType.BACKPACK));
+    }
+
+    @Test
+    public void testIndexesFollowItemsWhoseWeightOrValueChanges() throws Exception {
+        storeAll();
+        ReforgedWeapon reforged = new ReforgedWeapon(2, 10);
+        ReforgedWeapon other = new ReforgedWeapon(3, 20);
+        indexed.storeItem(reforged);
+        indexed.storeItem(other);
+
+        reforged.reforge(40, 95);
+        assertSame(reforged, indexed.getHeaviestItem(ItemType.WEAPON));
+        assertTrue(indexed.getItemsWorthMoreThan(reforged.getValue() - 1).contains(reforged));
+        assertSameAnswers(indexed);
+
+        reforged.reforge(0.5, 1);
+        assertSame(reforged, indexed.getLightestItem(ItemType.WEAPON));
+        assertFalse(indexed.getItemsWorthMoreThan(reforged.getValue()).contains(reforged));
+        assertEquals(indexed.getAmountOfItems(), indexed.getItemsWorthMoreThan(-1).size());
+
+        indexed.unpackItem(reforged);
+        indexed.unpackItem(other);
+        assertFalse(indexed.getItemsOfType(ItemType.WEAPON).contains(reforged));
+        assertFalse(indexed.getItemsWorthMoreThan(-1).contains(reforged));
+        assertSameAnswers(indexed);
+    }
+
+    @Test
+    public void testUnpackingFromTheMiddleOfBucketsKeepsThemConsistent() {
+        storeAll();
+        List<Item> stored = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += 2) {
+            stored.add(items.get(i));
+        }
+        for (int i = 1; i < stored.size(); i += 3) {
+            indexed.unpackItem(stored.get(i));
+        }
+        for (ItemType itemType : ItemType.values()) {
+            for (Item item : indexed.getItemsOfType(itemType)) {
+                assertTrue(indexed.hasAsItem(item));
+                assertEquals(itemType, item.getItemType());
+            }
+        }
+        int bucketed = 0;
+        for (ShineLevel shineLevel : ShineLevel.values()) {
+            bucketed += indexed.getItemsWithShineLevel(shineLevel).size();
+        }
+        assertEquals(indexed.getAmountOfItems(), bucketed);
+        for (Item item : stored) {
+            indexed.unpackItem(item);
+        }
+        assertEquals(0, indexed.getItemsWorthMoreThan(-1).size());
+        assertTrue(indexed.getItemsOfType(ItemType.WEAPON).isEmpty());
+    }
+
+    @Test
+    public void testQueriesReturnCopiesThatSurviveUnpacking() {
+        storeAll();
+        List<Item> weapons = indexed.getItemsOfType(ItemType.WEAPON);
+        List<Item> legendary = indexed.getItemsWithShineLevel(ShineLevel.LEGENDARY);
+        int amount = weapons.size();
+        for (Item item : weapons) {
+            indexed.unpackItem(item);
+        }
+        assertEquals(amount, weapons.size());
+        assertTrue(indexed.getItemsOfType(ItemType.WEAPON).isEmpty());
+        for (Item item : legendary) {
+            indexed.unpackItem(item);
+        }
+        assertTrue(indexed.getItemsWithShineLevel(ShineLevel.LEGENDARY).isEmpty());
+        assertEquals(indexed.getAmountOfItems(), indexed.getItemsWorthMoreThan(-1).size());
+    }
+
+    private static final class ReforgedWeapon extends Weapon {
+
+        ReforgedWeapon(double weight, int damage) throws InvalidHolderException, InvalidValueException {
+            super(weight, null, null, ShineLevel.LOW, damage);
+        }
+
+        void reforge(double weight, int damage) throws InvalidValueException {
+            setWeight(weight);
+            setDamage(damage);
+            setValue(damage);
+        }
+    }
+}
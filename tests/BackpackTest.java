@@ -4,8 +4,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import javax.naming.InvalidNameException;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -136,4 +139,317 @@ public class BackpackTest {
         backpack.storeItem(bigItem);
         assertFalse(backpack.hasAsItem(bigItem));
     }
+
+    @Test
+    public void testContentWeightPropagatesThroughNestedBackpacks() throws Exception {
+        Backpack inner = new Backpack(2, 10, 15, null, null, ShineLevel.LOW);
+        backpack.storeItem(inner);
+        double heroWeight = entity.getTotalWeight();
+
+        Weapon weapon = new Weapon(4, null, null, ShineLevel.LOW, 5);
+        inner.storeItem(weapon);
+
+        assertEquals(4, inner.getContentWeight());
+        assertEquals(6, backpack.getContentWeight());
+        assertEquals(heroWeight + 4, entity.getTotalWeight());
+
+        inner.unpackItem(weapon);
+        assertEquals(0, inner.getContentWeight());
+        assertEquals(2, backpack.getContentWeight());
+        assertEquals(heroWeight, entity.getTotalWeight());
+    }
+
+    @Test
+    public void testRemoveItem_KeepsContentDense() throws Exception {
+        Backpack big = new Backpack(1, 10, 1000, null, null, ShineLevel.LOW);
+        List<Weapon> weapons = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Weapon weapon = new Weapon(1, null, null, ShineLevel.LOW, 5);
+            big.storeItem(weapon);
+            weapons.add(weapon);
+        }
+        for (int i = 0; i < 100; i += 3) {
+            big.unpackItem(weapons.get(i));
+        }
+
+        assertEquals(66, big.getAmountOfItems());
+        assertEquals(66, big.getContentWeight());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 3 != 0, big.hasAsItem(weapons.get(i)));
+        }
+        for (int i = 0; i < big.getAmountOfItems(); i++) {
+            Item item = big.getItemAt(i);
+            assertNotNull(item);
+            assertTrue(big.hasAsItem(item));
+        }
+        assertFalse(big.hasAsItem(new Weapon(1, null, null, ShineLevel.LOW, 5)));
+        assertFalse(backpack.hasAsItem(weapons.get(1)));
+    }
+
+    @Test
+    public void testTotalValuePropagatesThroughNestedBackpacks() throws Exception {
+        Backpack inner = new Backpack(2, 10, 15, null, null, ShineLevel.LOW);
+        backpack.storeItem(inner);
+        Weapon weapon = new Weapon(4, null, null, ShineLevel.LOW, 5);
+        inner.storeItem(weapon);
+
+        assertEquals(weapon.getValue(), inner.getContentValue());
+        assertEquals(inner.getValue() + weapon.getValue(), backpack.getContentValue());
+        assertEquals(backpack.getValue() + inner.getValue() + weapon.getValue(), backpack.getTotalValue());
+
+        inner.unpackItem(weapon);
+        assertEquals(0, inner.getContentValue());
+        assertEquals(inner.getValue(), backpack.getContentValue());
+    }
+
+    @Test
+    public void testBatchDefersPropagationUntilClosed() throws Exception {
+        Backpack inner = new Backpack(2, 10, 15, null, null, ShineLevel.LOW);
+        backpack.storeItem(inner);
+        double heroWeight = entity.getTotalWeight();
+        Weapon weapon = new Weapon(3, null, null, ShineLevel.LOW, 5);
+        Weapon weapon1 = new Weapon(4, null, null, ShineLevel.LOW, 5);
+
+        try (Backpack.Batch batch = inner.batch()) {
+            assertTrue(inner.isBatched());
+            inner.storeItem(weapon);
+            inner.storeItem(weapon1);
+            assertEquals(7, inner.getContentWeight());
+            assertEquals(2, backpack.getContentWeight());
+            assertEquals(heroWeight, entity.getTotalWeight());
+        }
+
+        assertFalse(inner.isBatched());
+        assertEquals(9, backpack.getContentWeight());
+        assertEquals(heroWeight + 7, entity.getTotalWeight());
+        assertEquals(inner.getValue() + weapon.getValue() + weapon1.getValue(), backpack.getContentValue());
+    }
+
+    @Test
+    public void testBatchedBackpackPassesChangesOnWhenMoved() throws Exception {
+        Backpack inner = new Backpack(2, 10, 15, null, null, ShineLevel.LOW);
+        backpack.storeItem(inner);
+        double heroWeight = entity.getTotalWeight();
+        Weapon weapon = new Weapon(3, null, null, ShineLevel.LOW, 5);
+
+        try (Backpack.Batch batch = inner.batch()) {
+            inner.storeItem(weapon);
+            backpack.unpackItem(inner);
+            assertEquals(0, backpack.getContentWeight());
+            assertEquals(heroWeight - 2, entity.getTotalWeight());
+        }
+
+        assertEquals(0, backpack.getContentWeight());
+        assertEquals(5, inner.getTotalWeight());
+        assertEquals(heroWeight - 2, entity.getTotalWeight());
+    }
+
+    @Test
+    public void testBatchCountsPendingWeightAgainstHolderCapacity() throws Exception {
+        Backpack big = new Backpack(1, 10, 1000, entity, AnchorPoint.RIGHTHAND, ShineLevel.LOW);
+        double room = entity.getCapacity() - entity.getTotalWeight();
+        Hero other = new Hero("Other", 100, new BigDecimal("100"), new ArrayList<>());
+        Weapon weapon = new Weapon(room / 2 + 1, other, AnchorPoint.LEFTHAND, ShineLevel.LOW, 5);
+        Weapon weapon1 = new Weapon(room / 2 + 1, other, AnchorPoint.RIGHTHAND, ShineLevel.LOW, 5);
+        assertSame(other, weapon1.getHolder());
+
+        try (Backpack.Batch batch = big.batch()) {
+            big.storeItem(weapon);
+            big.storeItem(weapon1);
+        }
+
+        assertTrue(big.hasAsItem(weapon));
+        assertFalse(big.hasAsItem(weapon1));
+        assertTrue(entity.canHoldItems());
+    }
+
+    @Test
+    public void testStoreAll_StoresEveryItemOnce() throws Exception {
+        double heroWeight = entity.getTotalWeight();
+        Weapon weapon = new Weapon(2, null, null, ShineLevel.LOW, 5);
+        Weapon weapon1 = new Weapon(3, null, null, ShineLevel.LOW, 5);
+        List<Item> items = new ArrayList<>(List.of(weapon, weapon1, weapon));
+
+        backpack.storeAll(items);
+
+        assertEquals(2, backpack.getAmountOfItems());
+        assertTrue(backpack.hasAsItem(weapon));
+        assertTrue(backpack.hasAsItem(weapon1));
+        assertSame(entity, weapon1.getHolder());
+        assertEquals(5, backpack.getContentWeight());
+        assertEquals(weapon.getValue() + weapon1.getValue(), backpack.getContentValue());
+        assertEquals(heroWeight + 5, entity.getTotalWeight());
+    }
+
+    @Test
+    public void testStoreAll_MovesItemsFromOtherContainers() throws Exception {
+        Backpack other = new Backpack(1, 10, 50, null, null, ShineLevel.LOW);
+        Weapon stored = new Weapon(2, null, null, ShineLevel.LOW, 5);
+        other.storeItem(stored);
+        Weapon equipped = new Weapon(3, entity, AnchorPoint.RIGHTHAND, ShineLevel.LOW, 5);
+        double heroWeight = entity.getTotalWeight();
+
+        backpack.storeAll(List.of(stored, equipped));
+
+        assertFalse(other.hasAsItem(stored));
+        assertEquals(0, other.getContentWeight());
+        assertNull(entity.getItemAt(AnchorPoint.RIGHTHAND));
+        assertTrue(backpack.hasAsItem(equipped));
+        assertEquals(heroWeight + 2, entity.getTotalWeight());
+    }
+
+    @Test
+    public void testStoreAll_IsAllOrNothing() throws Exception {
+        Weapon weapon = new Weapon(10, null, null, ShineLevel.LOW, 5);
+        Weapon weapon1 = new Weapon(11, null, null, ShineLevel.LOW, 5);
+        Weapon terminated = new Weapon(1, null, null, ShineLevel.LOW, 5);
+        terminated.terminate();
+
+        assertThrows(InvalidItemsException.class, () -> backpack.storeAll(List.of(weapon, weapon1)));
+        assertThrows(InvalidItemsException.class, () -> backpack.storeAll(List.of(weapon, terminated)));
+        assertThrows(InvalidItemsException.class, () -> backpack.storeAll(List.of(weapon, backpack)));
+
+        assertEquals(0, backpack.getAmountOfItems());
+        assertNull(weapon.getBackpack());
+        assertNull(weapon.getHolder());
+    }
+
+    @Test
+    public void testStoreItemAndStoreAllAgreeOnCapacity() throws Exception {
+        Backpack inner = new Backpack(2, 10, 30, null, null, ShineLevel.LOW);
+        inner.storeItem(new Weapon(19, null, null, ShineLevel.LOW, 5));
+        Weapon exact = new Weapon(8, null, null, ShineLevel.LOW, 5);
+
+        assertFalse(backpack.canAddItem(inner));
+        assertFalse(backpack.canStoreAll(List.of(inner)));
+        backpack.storeItem(inner);
+        assertFalse(backpack.hasAsItem(inner));
+        assertThrows(InvalidItemsException.class, () -> backpack.storeAll(List.of(inner, exact)));
+
+        Weapon fits = new Weapon(12, null, null, ShineLevel.LOW, 5);
+        assertTrue(backpack.canAddItem(fits));
+        backpack.storeItem(fits);
+        assertTrue(backpack.canAddItem(exact));
+        assertTrue(backpack.canStoreAll(List.of(exact)));
+        backpack.storeItem(exact);
+        assertTrue(backpack.hasAsItem(exact));
+        assertEquals(backpack.getCapacity(), backpack.getContentWeight());
+    }
+
+    @Test
+    public void testUnpackAll_UnpacksMatchingItems() throws Exception {
+        double heroWeight = entity.getTotalWeight();
+        Backpack inner = new Backpack(2, 10, 15, null, null, ShineLevel.LOW);
+        Weapon weapon = new Weapon(3, null, null, ShineLevel.LOW, 5);
+        Weapon weapon1 = new Weapon(4, null, null, ShineLevel.LOW, 5);
+        backpack.storeAll(List.of(inner, weapon, weapon1));
+
+        List<Item> unpacked = backpack.unpackAll(item -> item.getItemType() == ItemType.WEAPON);
+
+        assertEquals(2, unpacked.size());
+        assertTrue(unpacked.contains(weapon) && unpacked.contains(weapon1));
+        assertNull(weapon.getHolder());
+        assertNull(weapon1.getBackpack());
+        assertTrue(backpack.hasAsItem(inner));
+        assertEquals(2, backpack.getContentWeight());
+        assertEquals(inner.getValue(), backpack.getContentValue());
+        assertEquals(heroWeight + 2, entity.getTotalWeight());
+        assertTrue(backpack.unpackAll(item -> false).isEmpty());
+    }
+
+    private static List<Item> randomPile(int amount, long seed) throws Exception {
+        Random random = new Random(seed);
+        ShineLevel[] shineLevels = ShineLevel.values();
+        List<Item> pile = new ArrayList<>();
+        for (int i = 0; i < amount; i++) {
+            pile.add(new Weapon(1 + random.nextInt(12), null, null, shineLevels[random.nextInt(shineLevels.length)], 1 + random.nextInt(99)));
+        }
+        return pile;
+    }
+
+    private static long valueOf(List<Item> items) {
+        long value = 0;
+        for (Item item : items) value += item.getTotalValue();
+        return value;
+    }
+
+    @Test
+    public void testPackOptimally_FindsMostValuableSubset() throws Exception {
+        for (long seed = 1; seed <= 5; seed++) {
+            Backpack target = new Backpack(1, 10, 30, null, null, ShineLevel.LOW);
+            List<Item> pile = randomPile(14, seed);
+
+            long best = 0;
+            for (int mask = 0; mask < (1 << pile.size()); mask++) {
+                double weight = 0;
+                long value = 0;
+                for (int i = 0; i < pile.size(); i++) {
+                    if ((mask & (1 << i)) != 0) {
+                        weight += pile.get(i).getWeight();
+                        value += pile.get(i).getValue();
+                    }
+                }
+                if (weight <= 30) best = Math.max(best, value);
+            }
+
+            List<Item> packed = target.packOptimally(pile);
+            assertEquals(best, valueOf(packed));
+            assertEquals(best, target.getContentValue());
+            assertTrue(target.getContentWeight() <= target.getCapacity());
+            for (Item item : packed) {
+                assertTrue(target.hasAsItem(item));
+            }
+        }
+    }
+
+    @Test
+    public void testPackOptimally_LargePileStaysWithinCapacityAndBudget() throws Exception {
+        Backpack target = new Backpack(1, 10, 5000, null, null, ShineLevel.LOW);
+        List<Item> pile = randomPile(3000, 42);
+        long mostValuable = 0;
+        for (Item item : pile) mostValuable = Math.max(mostValuable, item.getValue());
+
+        long start = System.nanoTime();
+        List<Item> packed = target.packOptimally(pile, Duration.ofMillis(5));
+        long elapsed = System.nanoTime() - start;
+
+        assertFalse(packed.isEmpty());
+        assertTrue(target.getContentWeight() <= target.getCapacity());
+        assertTrue(valueOf(packed) >= mostValuable);
+        assertEquals(packed.size(), target.getAmountOfItems());
+        assertTrue(elapsed < Duration.ofSeconds(5).toNanos());
+    }
+
+    @Test
+    public void testPackOptimally_HugeCapacityTakesEverythingThatFits() throws Exception {
+        Backpack target = new Backpack(1, 10, 1_000_000, null, null, ShineLevel.LOW);
+        Weapon weapon = new Weapon(3, null, null, ShineLevel.LOW, 5);
+
+        Weapon weapon1 = new Weapon(4.5, null, null, ShineLevel.LOW, 5);
+
+        assertEquals(List.of(weapon), target.packOptimally(List.of(weapon)));
+        assertEquals(List.of(weapon1), target.packOptimally(List.of(weapon, weapon1)));
+        assertTrue(target.hasAsItem(weapon) && target.hasAsItem(weapon1));
+        assertEquals(7.5, target.getContentWeight());
+    }
+
+    @Test
+    public void testPackOptimally_SkipsUnusableItems() throws Exception {
+        Backpack target = new Backpack(1, 10, 30, null, null, ShineLevel.LOW);
+        Weapon terminated = new Weapon(1, null, null, ShineLevel.LOW, 50);
+        terminated.terminate();
+        Weapon tooHeavy = new Weapon(40, null, null, ShineLevel.LOW, 50);
+        Weapon weapon = new Weapon(2, null, null, ShineLevel.LOW, 5);
+        List<Item> pile = new ArrayList<>();
+        pile.add(null);
+        pile.add(terminated);
+        pile.add(tooHeavy);
+        pile.add(weapon);
+        pile.add(weapon);
+
+        List<Item> packed = target.packOptimally(pile);
+
+        assertEquals(List.of(weapon), packed);
+        assertTrue(target.packOptimally(new ArrayList<>()).isEmpty());
+    }
 }
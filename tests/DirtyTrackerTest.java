@@ -0,0 +1,128 @@
+import com.RPG.Core.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirtyTrackerTest {
+
+    private DirtyTracker tracker;
+
+    @BeforeEach
+    public void setUp() {
+        tracker = new DirtyTracker();
+        Entity.addMutationListener(tracker);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Entity.removeMutationListener(tracker);
+    }
+
+    private void drainAll() {
+        tracker.drainEntities(id -> { });
+        for (ItemType itemType : ItemType.values()) {
+            tracker.drainItems(itemType, id -> { });
+        }
+    }
+
+    @Test
+    public void testEveryMutationPathMarksDirty() throws Exception {
+        Hero hero = new Hero("Artemis");
+        Hero other = new Hero("Apollo");
+        Weapon weapon = new Weapon(null, null);
+        Backpack backpack = new Backpack(1, 20, 50, other, AnchorPoint.LEFTHAND, ShineLevel.LOW);
+        drainAll();
+        assertFalse(tracker.isDirty(hero));
+
+        hero.reduceHP(10);
+        assertTrue(tracker.isDirty(hero));
+        assertFalse(tracker.isDirty(other));
+        drainAll();
+
+        hero.increaseHP(5);
+        assertTrue(tracker.isDirty(hero));
+        drainAll();
+
+        hero.normaliseHP();
+        assertTrue(tracker.isDirty(hero));
+        drainAll();
+
+        hero.equip(AnchorPoint.LEFTHAND, weapon);
+        assertTrue(tracker.isDirty(hero));
+        assertTrue(tracker.isDirty(weapon));
+        assertFalse(tracker.isDirty(backpack));
+        drainAll();
+
+        backpack.storeItem(weapon);
+        assertTrue(tracker.isDirty(hero));
+        assertTrue(tracker.isDirty(other));
+        assertTrue(tracker.isDirty(weapon));
+        drainAll();
+
+        backpack.unpackItem(weapon);
+        assertTrue(tracker.isDirty(other));
+        assertTrue(tracker.isDirty(weapon));
+        assertFalse(tracker.isDirty(hero));
+        drainAll();
+
+        other.unequip(AnchorPoint.LEFTHAND, backpack);
+        assertTrue(tracker.isDirty(other));
+        assertTrue(tracker.isDirty(backpack));
+        drainAll();
+
+        hero.kill();
+        assertTrue(tracker.isDirty(hero));
+        assertEquals(1, tracker.getAmountOfDirtyEntities());
+    }
+
+    @Test
+    public void testDrainHandsOutEveryIdOnce() throws Exception {
+        List<Monster> monsters = new ArrayList<>();
+        for (int index = 0; index < 100; index++) {
+            monsters.add(new Monster("Gorgon"));
+        }
+        drainAll();
+        Set<Long> expected = new HashSet<>();
+        for (int index = 0; index < monsters.size(); index += 3) {
+            monsters.get(index).reduceHP(1);
+            monsters.get(index).reduceHP(1);
+            expected.add(monsters.get(index).getId());
+        }
+        assertEquals(expected.size(), tracker.getAmountOfDirtyEntities());
+        Set<Long> drained = new HashSet<>();
+        assertEquals(expected.size(), tracker.drainEntities(id -> assertTrue(drained.add(id))));
+        assertEquals(expected, drained);
+        assertEquals(0, tracker.getAmountOfDirtyEntities());
+        assertEquals(0, tracker.drainEntities(id -> fail()));
+    }
+
+    @Test
+    public void testConcurrentChangesAreNeverLost() throws Exception {
+        List<Monster> monsters = new ArrayList<>();
+        for (int index = 0; index < 2_000; index++) {
+            monsters.add(new Monster("Gorgon"));
+        }
+        drainAll();
+        Set<Long> drained = ConcurrentHashMap.newKeySet();
+        Thread saver = new Thread(() -> {
+            for (int round = 0; round < 50; round++) {
+                tracker.drainEntities(drained::add);
+            }
+        });
+        saver.start();
+        monsters.parallelStream().forEach(monster -> monster.reduceHP(1));
+        saver.join();
+        tracker.drainEntities(drained::add);
+        for (Monster monster : monsters) {
+            assertTrue(drained.contains(monster.getId()));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+import com.RPG.Core.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityLocksTest {
+
+    @AfterEach
+    public void tearDown() {
+        EntityLocks.setEnabled(false);
+    }
+
+    @Test
+    public void testLocksMustFollowIdOrder() throws Exception {
+        EntityLocks.setEnabled(true);
+        Hero first = new Hero("Apollo");
+        Hero second = new Hero("Hermes");
+        try (EntityLocks.Guard guard = EntityLocks.lock(second)) {
+            assertThrows(IllegalStateException.class, () -> EntityLocks.lock(first));
+        }
+        try (EntityLocks.Guard guard = EntityLocks.lock(first)) {
+            try (EntityLocks.Guard nested = EntityLocks.lock(first, second)) {
+                assertNotNull(nested);
+            }
+        }
+    }
+
+    @Test
+    public void testNestedChangesReuseHeldLocks() throws Exception {
+        EntityLocks.setEnabled(true);
+        Hero first = new Hero("Apollo");
+        Hero second = new Hero("Hermes");
+        Item weapon = first.getItemAt(AnchorPoint.BACK);
+        assertNotNull(weapon);
+        try (EntityLocks.Guard guard = EntityLocks.lock(first, second)) {
+            second.equip(AnchorPoint.BACK, weapon);
+        }
+        assertSame(second, weapon.getHolder());
+        assertEquals(weapon.getWeight(), second.getTotalWeight(), 1e-9);
+        assertEquals(0, first.getTotalWeight(), 1e-9);
+    }
+
+    @Test
+    public void testConcurrentTransfersKeepInventoriesConsistent() throws Exception {
+        EntityLocks.setEnabled(true);
+        List<Hero> heroes = List.of(new Hero("Apollo"), new Hero("Hermes"), new Hero("Athena"), new Hero("Ares"));
+        List<Backpack> backpacks = new ArrayList<>();
+        for (Hero hero : heroes) {
+            Backpack backpack = new Backpack(1, 10, 100, null, null, ShineLevel.LOW);
+            hero.equip(AnchorPoint.BACK, backpack);
+            assertSame(backpack, hero.getItemAt(AnchorPoint.BACK));
+            backpacks.add(backpack);
+        }
+        List<Item> weapons = new ArrayList<>();
+        for (int index = 0; index < 40; index++) {
+            Weapon weapon = new Weapon(1, null, null, ShineLevel.LOW, 5);
+            backpacks.get(index % backpacks.size()).storeItem(weapon);
+            weapons.add(weapon);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int worker = 0; worker < 4; worker++) {
+            Random random = new Random(34 + worker);
+            futures.add(executor.submit(() -> {
+                for (int step = 0; step < 5_000; step++) {
+                    Item weapon = weapons.get(random.nextInt(weapons.size()));
+                    backpacks.get(random.nextInt(backpacks.size())).storeItem(weapon);
+                    heroes.get(random.nextInt(heroes.size())).getTotalWeight();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        EntityLocks.setEnabled(false);
+
+        int stored = 0;
+        for (int index = 0; index < heroes.size(); index++) {
+            Backpack backpack = backpacks.get(index);
+            stored += backpack.getAmountOfItems();
+            assertEquals(1 + backpack.getAmountOfItems(), heroes.get(index).getTotalWeight(), 1e-9);
+            assertTrue(heroes.get(index).hasValidItems());
+        }
+        assertEquals(weapons.size(), stored);
+        for (Item weapon : weapons) {
+            assertSame(weapon.getBackpack().getHolder(), weapon.getHolder());
+            assertTrue(weapon.getBackpack().hasAsItem(weapon));
+        }
+    }
+
+    @Test
+    public void testEntitiesRacingForAFreeItemLeaveItInOneInventory() throws Exception {
+        EntityLocks.setEnabled(true);
+        Hero first = new Hero("Apollo");
+        Hero second = new Hero("Hermes");
+        Weapon placeholder = new Weapon(1, null, null, ShineLevel.LOW, 5);
+        first.equip(AnchorPoint.LEFTHAND, placeholder);
+        Backpack backpack = new Backpack(1, 10, 100, null, null, ShineLevel.LOW);
+        second.equip(AnchorPoint.RIGHTHAND, backpack);
+        assertSame(backpack, second.getItemAt(AnchorPoint.RIGHTHAND));
+        double secondWeight = second.getTotalWeight();
+        Weapon weapon = new Weapon(1, null, null, ShineLevel.LOW, 5);
+
+        CountDownLatch equipping = new CountDownLatch(1);
+        CountDownLatch stored = new CountDownLatch(1);
+        boolean[] storedDuringEquip = new boolean[1];
+        MutationListener pause = new MutationListener() {
+            @Override
+            public void entityChanged(Entity entity) {
+            }
+
+            @Override
+            public void itemChanged(Item item) {
+                if (item != placeholder) return;
+                equipping.countDown();
+                try {
+                    storedDuringEquip[0] = stored.await(300, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        Entity.addMutationListener(pause);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> equip = executor.submit(() -> first.equip(AnchorPoint.LEFTHAND, weapon));
+            assertTrue(equipping.await(10, TimeUnit.SECONDS));
+            Future<?> store = executor.submit(() -> {
+                backpack.storeItem(weapon);
+                stored.countDown();
+            });
+            equip.get();
+            store.get();
+        } finally {
+            Entity.removeMutationListener(pause);
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        EntityLocks.setEnabled(false);
+
+        assertFalse(storedDuringEquip[0]);
+        assertNull(first.getItemAt(AnchorPoint.LEFTHAND));
+        assertTrue(backpack.hasAsItem(weapon));
+        assertSame(second, weapon.getHolder());
+        assertEquals(secondWeight + weapon.getWeight(), second.getTotalWeight(), 1e-9);
+        assertTrue(first.hasValidItems());
+        assertTrue(second.hasValidItems());
+    }
+}
@@ -0,0 +1,147 @@
+import com.RPG.Core.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityRegistryTest {
+
+    private EntityRegistry registry;
+    private Hero hero;
+    private Monster monster;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        registry = new EntityRegistry();
+        hero = new Hero("Artemis");
+        monster = new Monster("Gorgon");
+        registry.register(hero);
+        registry.register(monster);
+    }
+
+    @Test
+    public void testIdsAreUnique() throws Exception {
+        Monster other = new Monster("Gorgon");
+        assertNotEquals(monster.getId(), other.getId());
+        assertNotEquals(hero.getId(), monster.getId());
+    }
+
+    @Test
+    public void testLookupByIdNameAndType() {
+        assertSame(hero, registry.get(hero.getId()));
+        assertSame(monster, registry.get(monster.getId()));
+        assertEquals(List.of(monster), registry.findByName("Gorgon"));
+        assertEquals(List.of(hero), registry.findByType(Hero.class));
+        assertTrue(registry.findByName("Nobody").isEmpty());
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void testKillMovesEntityToTerminated() {
+        assertTrue(registry.getAlive().contains(monster));
+        assertEquals(List.of(monster), registry.findAlive("Gorgon", Monster.class));
+
+        monster.kill();
+
+        assertFalse(registry.getAlive().contains(monster));
+        assertTrue(registry.getTerminated().contains(monster));
+        assertTrue(registry.findAlive("Gorgon", Monster.class).isEmpty());
+        assertSame(monster, registry.get(monster.getId()));
+    }
+
+    @Test
+    public void testFindAliveOnlySeesLivingEntitiesOfNameAndType() throws Exception {
+        Hero namesake = new Hero("Gorgon");
+        registry.register(namesake);
+        List<Monster> killed = new ArrayList<>();
+        for (int index = 0; index < 100; index++) {
+            Monster gorgon = new Monster("Gorgon");
+            registry.register(gorgon);
+            gorgon.kill();
+            killed.add(gorgon);
+        }
+        assertEquals(List.of(monster), registry.findAlive("Gorgon", Monster.class));
+        assertEquals(List.of(namesake), registry.findAlive("Gorgon", Hero.class));
+        assertTrue(registry.findAlive("Gorgon", Entity.class).isEmpty());
+        assertTrue(registry.findAlive(null, Monster.class).isEmpty());
+
+        registry.unregister(monster);
+        assertTrue(registry.findAlive("Gorgon", Monster.class).isEmpty());
+        assertTrue(registry.unregister(killed.get(0)));
+        assertEquals(List.of(namesake), registry.findAlive("Gorgon", Hero.class));
+    }
+
+    @Test
+    public void testEntityBelongsToOneRegistry() {
+        EntityRegistry other = new EntityRegistry();
+        assertFalse(other.register(hero));
+        assertTrue(registry.unregister(hero));
+        assertNull(registry.get(hero.getId()));
+        assertNull(hero.getRegistry());
+        assertTrue(other.register(hero));
+        assertSame(other, hero.getRegistry());
+    }
+
+    @Test
+    public void testFindHolderOfItem() {
+        Item item = hero.getItemAt(AnchorPoint.BACK);
+        assertNotNull(item);
+        assertSame(hero, registry.findHolderOf(item));
+        registry.unregister(hero);
+        assertNull(registry.findHolderOf(item));
+    }
+
+    @Test
+    public void testFindHolderOfItemIdFollowsTransfers() throws Exception {
+        Item item = hero.getItemAt(AnchorPoint.BACK);
+        assertSame(hero, registry.findHolderOf(item.getItemType(), item.getId()));
+        assertSame(hero, registry.findHolderOf(item.getId()));
+
+        Backpack backpack = new Backpack(1, 10, 50, null, null, ShineLevel.LOW);
+        Weapon weapon = new Weapon(1, null, null, ShineLevel.LOW, 5);
+        backpack.storeItem(weapon);
+        assertNull(registry.findHolderOf(ItemType.WEAPON, weapon.getId()));
+        hero.equip(AnchorPoint.LEFTHAND, backpack);
+        assertSame(hero, registry.findHolderOf(ItemType.WEAPON, weapon.getId()));
+        assertSame(hero, registry.findHolderOf(ItemType.BACKPACK, backpack.getId()));
+
+        Hero stranger = new Hero("Stranger");
+        stranger.equip(AnchorPoint.LEFTHAND, backpack);
+        assertNull(registry.findHolderOf(ItemType.WEAPON, weapon.getId()));
+        registry.register(stranger);
+        assertSame(stranger, registry.findHolderOf(ItemType.WEAPON, weapon.getId()));
+
+        backpack.unpackItem(weapon);
+        assertNull(registry.findHolderOf(ItemType.WEAPON, weapon.getId()));
+        stranger.equip(AnchorPoint.RIGHTHAND, weapon);
+        assertSame(stranger, registry.findHolderOf(ItemType.WEAPON, weapon.getId()));
+        weapon.terminate();
+        assertNull(registry.findHolderOf(ItemType.WEAPON, weapon.getId()));
+
+        registry.unregister(hero);
+        assertNull(registry.findHolderOf(item.getItemType(), item.getId()));
+        assertNull(registry.findHolderOf(ItemType.WEAPON, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testConcurrentRegisterAndKill() throws Exception {
+        List<Monster> monsters = new ArrayList<>();
+        for (int index = 0; index < 2_000; index++) {
+            monsters.add(new Monster("Goblin"));
+        }
+        IntStream.range(0, monsters.size()).parallel().forEach(index -> {
+            Monster goblin = monsters.get(index);
+            registry.register(goblin);
+            if (index % 2 == 0) {
+                goblin.kill();
+            }
+        });
+        assertEquals(monsters.size() + 2, registry.size());
+        assertEquals(monsters.size() / 2, registry.findAlive("Goblin", Monster.class).size());
+        assertEquals(monsters.size() / 2, registry.getTerminated().size());
+    }
+}
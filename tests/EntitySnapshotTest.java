@@ -0,0 +1,135 @@
+import com.RPG.Core.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntitySnapshotTest {
+
+    @BeforeEach
+    public void setUp() {
+        EntityLocks.setEnabled(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        EntityLocks.setEnabled(false);
+    }
+
+    @Test
+    public void testSnapshotMatchesEntity() throws Exception {
+        Hero hero = new Hero("Artemis");
+        Backpack backpack = new Backpack(1, 20, 50, hero, AnchorPoint.LEFTHAND, ShineLevel.LOW);
+        Weapon weapon = new Weapon(null, null);
+        backpack.storeItem(weapon);
+
+        EntitySnapshot snapshot = hero.getSnapshot();
+        assertEquals(hero.getId(), snapshot.getId());
+        assertEquals(hero.getName(), snapshot.getName());
+        assertEquals(hero.getHP(), snapshot.getHP());
+        assertEquals(hero.getStrength(), snapshot.getStrength());
+        assertEquals(hero.getDefense(), snapshot.getDefense());
+        assertEquals(hero.getTotalWeight(), snapshot.getTotalWeight(), 1e-9);
+        assertEquals(hero.getAllItems().size(), snapshot.getItems().size());
+        assertEquals(backpack.getId(), snapshot.getItemAt(AnchorPoint.LEFTHAND).getId());
+        assertNull(snapshot.getItemAt(AnchorPoint.BELT));
+        boolean found = false;
+        for (ItemSnapshot item : snapshot.getItems()) {
+            if (item.getId() == weapon.getId() && item.getItemType() == ItemType.WEAPON) {
+                assertEquals(backpack.getId(), item.getBackpackId());
+                assertNull(item.getAnchorPoint());
+                found = true;
+            }
+        }
+        assertTrue(found);
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getItems().clear());
+    }
+
+    @Test
+    public void testSnapshotIsRebuiltOnlyAfterChange() throws Exception {
+        Hero hero = new Hero("Artemis");
+        EntitySnapshot first = hero.getSnapshot();
+        assertSame(first, hero.getSnapshot());
+
+        hero.reduceHP(100);
+        EntitySnapshot second = hero.getSnapshot();
+        assertNotSame(first, second);
+        assertTrue(second.getVersion() > first.getVersion());
+        assertEquals(first.getHP() - 100, second.getHP());
+        assertEquals(hero.getMaxHP(), first.getHP());
+        assertSame(second, hero.getSnapshot());
+
+        hero.kill();
+        assertTrue(hero.getSnapshot().isTerminated());
+        assertTrue(hero.getSnapshot().getItems().isEmpty());
+        assertFalse(second.isTerminated());
+    }
+
+    @Test
+    public void testSnapshotsNeedTheConcurrencyMode() throws Exception {
+        Hero hero = new Hero("Artemis");
+        EntityLocks.setEnabled(false);
+        assertThrows(IllegalStateException.class, hero::getSnapshot);
+    }
+
+    @Test
+    public void testHPChangesWaitForTheEntityLock() throws Exception {
+        Hero hero = new Hero("Artemis");
+        long hp = hero.getHP();
+        Thread attacker = new Thread(() -> hero.reduceHP(10));
+        EntityLocks.Guard guard = EntityLocks.lock(hero);
+        try {
+            attacker.start();
+            attacker.join(200);
+            assertTrue(attacker.isAlive());
+            assertEquals(hp, hero.getHP());
+            assertEquals(hp, hero.getSnapshot().getHP());
+        } finally {
+            guard.close();
+        }
+        attacker.join();
+        assertEquals(hp - 10, hero.getHP());
+        assertEquals(hp - 10, hero.getSnapshot().getHP());
+    }
+
+    @Test
+    public void testReadersNeverSeeTornInventories() throws Exception {
+        EntityLocks.setEnabled(true);
+        Hero hero = new Hero("Artemis");
+        Hero other = new Hero("Apollo");
+        List<Weapon> weapons = new ArrayList<>();
+        for (int index = 0; index < 2; index++) {
+            weapons.add(new Weapon(1, null, null, ShineLevel.LOW, 5));
+        }
+        hero.equip(AnchorPoint.LEFTHAND, weapons.get(0));
+        hero.equip(AnchorPoint.RIGHTHAND, weapons.get(1));
+        int itemsOfBoth = hero.getAllItems().size() + other.getAllItems().size();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread mover = new Thread(() -> {
+            for (int round = 0; round < 2_000; round++) {
+                Weapon weapon = weapons.get(round % 2);
+                Hero target = (weapon.getHolder() == hero) ? other : hero;
+                target.equip(round % 2 == 0 ? AnchorPoint.LEFTHAND : AnchorPoint.RIGHTHAND, weapon);
+            }
+            running.set(false);
+        });
+        mover.start();
+        while (running.get()) {
+            EntitySnapshot snapshot = hero.getSnapshot();
+            double weight = 0;
+            for (ItemSnapshot item : snapshot.getItems()) {
+                if (item.getBackpackId() == 0) weight += item.getTotalWeight();
+            }
+            assertEquals(snapshot.getTotalWeight(), weight, 1e-9);
+            assertTrue(hero.getSnapshot().getVersion() >= snapshot.getVersion());
+        }
+        mover.join();
+        assertEquals(itemsOfBoth, hero.getSnapshot().getItems().size() + other.getSnapshot().getItems().size());
+    }
+}
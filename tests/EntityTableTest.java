@@ -0,0 +1,105 @@
+import com.RPG.Core.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityTableTest {
+
+    private EntityTable table;
+
+    @BeforeEach
+    public void setUp() {
+        table = new EntityTable();
+    }
+
+    @Test
+    public void testRowsMatchTheEntitiesTheyCopy() throws Exception {
+        Hero hero = new Hero("Artemis");
+        Monster monster = new Monster("Gorgon");
+        EntityTable.Row heroRow = table.row(table.add(hero));
+        EntityTable.Row monsterRow = table.row(table.add(monster));
+
+        assertEquals(hero.getHP(), heroRow.getHP());
+        assertEquals(hero.getMaxHP(), heroRow.getMaxHP());
+        assertEquals(hero.getStrength(), heroRow.getStrength());
+        assertEquals(hero.getCapacity(), heroRow.getCapacity());
+        assertEquals(hero.getDefense(), heroRow.getDefense());
+        assertTrue(heroRow.isHealable());
+        assertTrue(heroRow.hasAnchorpoint(AnchorPoint.BELT));
+
+        assertEquals(monster.getCapacity(), monsterRow.getCapacity());
+        assertEquals(monster.getSkinType(), monsterRow.getSkinType());
+        assertTrue(monsterRow.hasDamageType(DamageType.CLAWS));
+        assertFalse(monsterRow.isHealable());
+    }
+
+    @Test
+    public void testRowsCopiedFromEntitiesAreReadOnly() throws Exception {
+        Hero hero = new Hero("Artemis");
+        hero.reduceHP(10);
+        long hp = hero.getHP();
+        EntityTable.Row heroRow = table.row(table.add(hero));
+        EntityTable.Row simulated = table.row(table.addHero(hero.getMaxHP(), hero.getStrength()));
+        simulated.reduceHP(10);
+
+        assertTrue(heroRow.isReadOnly());
+        assertFalse(simulated.isReadOnly());
+        assertThrows(IllegalStateException.class, () -> heroRow.reduceHP(5));
+        assertThrows(IllegalStateException.class, () -> heroRow.increaseHP(5));
+        assertThrows(IllegalStateException.class, heroRow::kill);
+
+        table.healAll(5);
+        assertEquals(hp, heroRow.getHP());
+        assertEquals(hp, hero.getHP());
+        assertFalse(heroRow.isTerminated());
+        assertEquals(hero.getMaxHP() - 5, simulated.getHP());
+    }
+
+    @Test
+    public void testRowsFollowHeroAndMonsterRules() throws Exception {
+        Hero hero = new Hero("Artemis", 997L, new BigDecimal("25.75"), null);
+        EntityTable.Row heroRow = table.row(table.addHero(997L, new BigDecimal("25.75")));
+        assertEquals(hero.getCapacity(), heroRow.getCapacity());
+        assertEquals(hero.getDefense(), heroRow.getDefense());
+        assertEquals(hero.getStrength(), heroRow.getStrength());
+
+        Monster monster = new Monster("Gorgon");
+        EntityTable.Row monsterRow = table.row(table.addMonster(997L, monster.getAnchorLayout(),
+                monster.getDamageTypeMask(), monster.getSkinType()));
+        assertEquals(monster.getCapacity(), monsterRow.getCapacity());
+        assertEquals(monster.getDefense(), monsterRow.getDefense());
+    }
+
+    @Test
+    public void testBulkOperations() {
+        AnchorLayout layout = AnchorLayout.of(AnchorPoint.BODY, AnchorPoint.BACK);
+        int monsterMask = 1 << DamageType.CLAWS.ordinal();
+        for (int index = 0; index < 1_000; index++) {
+            int handle = (index % 2 == 0)
+                    ? table.addHero(1_000L, BigDecimal.valueOf(10))
+                    : table.addMonster(1_000L, layout, monsterMask, SkinType.THICK);
+            table.row(handle).reduceHP(100);
+            if (index % 10 == 0) {
+                table.row(handle).kill();
+            }
+        }
+        assertEquals(1_000, table.size());
+        assertEquals(500 * 50L + 500 * 62L, table.sumCapacity());
+
+        table.healAll(40);
+        assertEquals(940, table.row(0).getHP());
+        assertEquals(900, table.row(1).getHP());
+        table.healAll(1_000);
+        assertEquals(1_000, table.row(0).getHP());
+
+        int[] terminated = table.findTerminated();
+        assertEquals(100, terminated.length);
+        for (int index = 0; index < terminated.length; index++) {
+            assertEquals(index * 10, terminated[index]);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> table.row(1_000));
+    }
+}
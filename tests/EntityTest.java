@@ -4,7 +4,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import javax.naming.InvalidNameException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -180,4 +185,113 @@ public class EntityTest {
         assertFalse(hero.areValidDamageTypes(invalidDamageTypes));
     }
 
+    @Test
+    public void testTotalWeightFollowsEquipAndUnequip() throws InvalidHolderException, InvalidValueException {
+        double initialWeight = hero.getTotalWeight();
+        Weapon weapon = new Weapon(7, null, null, ShineLevel.LOW, 5);
+
+        hero.equip(AnchorPoint.LEFTHAND, weapon);
+        assertEquals(initialWeight + 7, hero.getTotalWeight());
+
+        hero.unequip(AnchorPoint.LEFTHAND, weapon);
+        assertEquals(initialWeight, hero.getTotalWeight());
+    }
+
+    @Test
+    public void testEquipOnOccupiedAnchorPointReplacesItem() throws InvalidHolderException, InvalidValueException {
+        Weapon first = new Weapon(3, hero, AnchorPoint.LEFTHAND, ShineLevel.LOW, 5);
+        double weightWithFirst = hero.getTotalWeight();
+        Weapon second = new Weapon(5, null, null, ShineLevel.LOW, 5);
+
+        hero.equip(AnchorPoint.LEFTHAND, second);
+
+        assertNull(first.getHolder());
+        assertEquals(weightWithFirst - 3 + 5, hero.getTotalWeight());
+    }
+
+    @Test
+    public void testTraversalIncludesNestedBackpacks() throws InvalidHolderException, InvalidValueException {
+        Backpack outer = new Backpack(1, 10, 100, hero, AnchorPoint.LEFTHAND, ShineLevel.LOW);
+        Backpack inner = new Backpack(1, 10, 50, null, null, ShineLevel.LOW);
+        outer.storeItem(inner);
+        Weapon nested = new Weapon(2, null, null, ShineLevel.LOW, 5);
+        inner.storeItem(nested);
+
+        ArrayList<Item> items = hero.getAllItems();
+        assertTrue(items.contains(outer));
+        assertTrue(items.contains(inner));
+        assertTrue(items.contains(nested));
+        assertTrue(hero.hasAsItem(nested));
+
+        List<Item> visited = new ArrayList<>();
+        hero.forEachItem(visited::add);
+        assertEquals(items, visited);
+        assertEquals(items, hero.itemStream(false).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testItemSpliteratorEstimatesNestedItems() throws InvalidHolderException, InvalidValueException {
+        Backpack outer = new Backpack(0, 10, 100, hero, AnchorPoint.LEFTHAND, ShineLevel.LOW);
+        Backpack inner = new Backpack(0, 10, 100, null, null, ShineLevel.LOW);
+        outer.storeItem(inner);
+        for (int index = 0; index < 5; index++) {
+            inner.storeItem(new Weapon(0, null, null, ShineLevel.LOW, 5));
+        }
+        int total = hero.getAllItems().size();
+
+        Spliterator<Item> spliterator = hero.itemSpliterator();
+        assertEquals(total, spliterator.estimateSize());
+        Spliterator<Item> prefix = spliterator.trySplit();
+        assertEquals(total, prefix.estimateSize() + spliterator.estimateSize());
+
+        Spliterator<Item> walked = prefix.estimateSize() >= spliterator.estimateSize() ? prefix : spliterator;
+        long before = walked.estimateSize();
+        for (int step = 1; step <= 3; step++) {
+            assertTrue(walked.tryAdvance(item -> { }));
+            assertEquals(before - step, walked.estimateSize());
+        }
+    }
+
+    @Test
+    public void testParallelItemStreamCoversLargeInventory() throws InvalidHolderException, InvalidValueException {
+        Backpack outer = new Backpack(0, 10, 100, hero, AnchorPoint.LEFTHAND, ShineLevel.LOW);
+        for (int pack = 0; pack < 4; pack++) {
+            Backpack inner = new Backpack(0, 10, 100, null, null, ShineLevel.LOW);
+            outer.storeItem(inner);
+            for (int index = 0; index < 250; index++) {
+                inner.storeItem(new Weapon(0, null, null, ShineLevel.LOW, 5));
+            }
+        }
+
+        Set<Item> sequential = hero.itemStream(false).collect(Collectors.toSet());
+        List<Item> parallel = hero.itemStream(true).collect(Collectors.toList());
+
+        assertEquals(hero.getAllItems().size(), parallel.size());
+        assertEquals(sequential, Set.copyOf(parallel));
+        assertEquals(hero.getAllItems(), parallel);
+    }
+
+    @Test
+    public void testOccupiedMaskFollowsEquipment() throws Exception {
+        Weapon weapon = new Weapon(null, null);
+        for (int index = 0; index < hero.getAmountOfAnchorPoints(); index++) {
+            AnchorPoint anchorPoint = hero.getAnchorPointAt(index);
+            assertEquals(hero.hasItemAt(anchorPoint), (hero.getOccupiedMask() & AnchorLayout.bit(anchorPoint)) != 0);
+        }
+        if (hero.hasItemAt(AnchorPoint.LEFTHAND)) {
+            hero.unequip(AnchorPoint.LEFTHAND, hero.getItemAt(AnchorPoint.LEFTHAND));
+        }
+        hero.equip(AnchorPoint.LEFTHAND, weapon);
+        assertTrue(hero.hasItemAt(AnchorPoint.LEFTHAND));
+        assertEquals(AnchorPoint.LEFTHAND, hero.getAnchorPointWithItem(weapon));
+        assertEquals(AnchorPoint.LEFTHAND, weapon.getEquippedAnchorPoint());
+        assertNull(monster.getAnchorPointWithItem(weapon));
+
+        hero.unequip(AnchorPoint.LEFTHAND, weapon);
+        assertFalse(hero.hasItemAt(AnchorPoint.LEFTHAND));
+        assertEquals(0, hero.getOccupiedMask() & AnchorLayout.bit(AnchorPoint.LEFTHAND));
+        assertNull(weapon.getEquippedAnchorPoint());
+        assertNull(hero.getAnchorPointWithItem(weapon));
+        assertTrue(hero.hasProperAnchorpoints());
+    }
 }
@@ -0,0 +1,83 @@
+import com.RPG.Core.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Estimates the shallow size of entities and items from their instance fields, the way a 64-bit JVM with
+ * compressed references lays them out: a 12 byte header, then every field, rounded up to 8 bytes.
+ */
+public class FootprintTest {
+
+    private static final int headerSize = 12;
+
+    private static final int referenceSize = 4;
+
+    private static int sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class) return 8;
+        if (type == int.class || type == float.class) return 4;
+        if (type == short.class || type == char.class) return 2;
+        if (type == byte.class || type == boolean.class) return 1;
+        return referenceSize;
+    }
+
+    private static long shallowSize(Class<?> type) {
+        long size = headerSize;
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += sizeOf(field.getType());
+                }
+            }
+        }
+        return (size + 7) & ~7L;
+    }
+
+    private static void assertCompactFields(Class<?> type) {
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) continue;
+                Class<?> fieldType = field.getType();
+                String name = current.getSimpleName() + "." + field.getName();
+                assertFalse(Number.class.isAssignableFrom(fieldType), name + " is boxed");
+                assertNotEquals(Boolean.class, fieldType, name + " is boxed");
+                assertFalse(fieldType == BigDecimal.class || fieldType == BigInteger.class, name + " is a big number");
+                assertFalse(Map.class.isAssignableFrom(fieldType), name + " is a map");
+            }
+        }
+    }
+
+    @Test
+    public void testEntitiesHaveNoBoxedOrCollectionFields() {
+        assertCompactFields(Hero.class);
+        assertCompactFields(Monster.class);
+        for (Class<?> current = Hero.class; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    assertFalse(Collection.class.isAssignableFrom(field.getType()), field.getName() + " is a collection");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testItemsHaveNoBoxedFields() {
+        assertCompactFields(Weapon.class);
+        assertCompactFields(Backpack.class);
+    }
+
+    @Test
+    public void testShallowSizesStayWithinBudget() {
+        assertTrue(shallowSize(Hero.class) <= 104, "hero grew to " + shallowSize(Hero.class) + " bytes");
+        assertTrue(shallowSize(Monster.class) <= 104, "monster grew to " + shallowSize(Monster.class) + " bytes");
+        assertTrue(shallowSize(Weapon.class) <= 64, "weapon grew to " + shallowSize(Weapon.class) + " bytes");
+        assertTrue(shallowSize(Backpack.class) <= 80, "backpack grew to " + shallowSize(Backpack.class) + " bytes");
+    }
+}
@@ -6,7 +6,10 @@ import org.junit.jupiter.api.Test;
 import javax.naming.InvalidNameException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -113,6 +116,32 @@ public class HeroTest {
         assertEquals(2, hero.getStrength().scale());
     }
 
+    @Test
+    public void testStrengthIsRoundedHalfUp() throws Exception {
+        Hero hero = new Hero(validName, validHP, new BigDecimal("10.005"), defaultItems);
+        assertEquals(new BigDecimal("10.01"), hero.getStrength());
+        assertEquals(1001L, hero.getScaledStrength());
+    }
+
+    @Test
+    public void testCapacityTruncatesFractionalStrength() throws Exception {
+        Hero hero = new Hero(validName, validHP, new BigDecimal("10.39"), defaultItems);
+        assertEquals(51, hero.getCapacity());
+    }
+
+    @Test
+    public void testBaseDamageRoundsDown() throws Exception {
+        Hero hero = new Hero(validName, validHP, new BigDecimal("25.75"), null);
+        assertEquals(7, hero.getBaseDamage());
+
+        Weapon weapon = new Weapon(1, null, null, ShineLevel.LOW, 10);
+        hero.equip(AnchorPoint.LEFTHAND, weapon);
+        assertEquals(12, hero.getBaseDamage());
+
+        Hero weak = new Hero(validName, validHP, new BigDecimal("3.99"), null);
+        assertEquals(0, weak.getBaseDamage());
+    }
+
     @Test
     public void testHeroHasProperAnchorpoints() throws Exception {
         Hero hero = new Hero(validName);
@@ -135,6 +164,22 @@ public class HeroTest {
         assertThrows(InvalidItemsException.class, () -> new Hero(validName, validHP, validStrength, items));
     }
 
+    @Test
+    public void testHeroFailsBeforeEquippingIfBackpackOverflows() throws Exception {
+        Backpack backpack = new Backpack(1, 10, 5, null, null, ShineLevel.LOW);
+        ArrayList<Item> items = new ArrayList<>(List.of(backpack));
+        for (int i = 0; i < 6; i++) {
+            items.add(new Weapon(3, null, null, ShineLevel.LOW, 5));
+        }
+        assertThrows(InvalidItemsException.class, () -> new Hero(validName, validHP, validStrength, items));
+        for (Item item : items) {
+            assertNull(item.getHolder());
+            assertNull(item.getBackpack());
+        }
+        assertEquals(0, backpack.getAmountOfItems());
+        assertEquals(0, backpack.getContentWeight());
+    }
+
     @Test
     public void testNullItemListDoesNotThrow() {
         assertDoesNotThrow(() -> new Hero(validName, validHP, validStrength, null));
@@ -156,4 +201,23 @@ public class HeroTest {
         Hero hero = new Hero(validName);
         assertTrue(hero.isIntelligent());
     }
+
+    @Test
+    public void testValidateNamesMatchesRegexRules() {
+        Pattern pattern = Pattern.compile("^[A-Z][a-zA-Z ’:]*$");
+        List<String> names = Arrays.asList("Hero", "John: The Brave", "John:TheBrave", "Anna:", "O’Neil’s",
+                "O’Ne’il’s", "hero", "", null, "Mad Max 2", "A", "Ab:: c", "Ab: ’c");
+        boolean[] valid = Hero.validateNames(names);
+        for (int index = 0; index < names.size(); index++) {
+            String name = names.get(index);
+            boolean expected = name != null && !name.isEmpty() && pattern.matcher(name).matches()
+                    && name.chars().filter(c -> c == '’').count() <= 2
+                    && !name.matches(".*:[^ ].*");
+            assertEquals(expected, valid[index], "name " + name);
+        }
+        assertTrue(valid[1]);
+        assertFalse(valid[2]);
+        assertTrue(valid[3]);
+        assertFalse(valid[5]);
+    }
 }
@@ -0,0 +1,141 @@
+import com.RPG.Core.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvariantCheckerTest {
+
+    private InvariantChecker checker;
+
+    @BeforeEach
+    public void setUp() {
+        checker = new InvariantChecker();
+        Entity.addMutationListener(checker);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Entity.removeMutationListener(checker);
+    }
+
+    private static void moveAnchorPoint(Item item, AnchorPoint anchorPoint) throws Exception {
+        Field field = Item.class.getDeclaredField("equippedAnchorPoint");
+        field.setAccessible(true);
+        field.set(item, anchorPoint);
+    }
+
+    @Test
+    public void testOnlyChangedEntitiesAreChecked() throws Exception {
+        Hero hero = new Hero("Artemis");
+        Hero other = new Hero("Apollo");
+        checker.checkDirtyEntities();
+        checker.checkDirtyItems();
+        assertEquals(0, checker.getAmountOfDirtyEntities());
+
+        Weapon weapon = new Weapon(null, null);
+        hero.equip(AnchorPoint.LEFTHAND, weapon);
+        hero.reduceHP(10);
+        assertEquals(1, checker.getAmountOfDirtyEntities());
+        assertEquals(1, checker.getAmountOfDirtyItems());
+        assertTrue(checker.checkDirtyEntities().isEmpty());
+        assertTrue(checker.checkDirtyItems().isEmpty());
+        assertEquals(0, checker.getAmountOfDirtyEntities());
+
+        other.equip(AnchorPoint.LEFTHAND, weapon);
+        assertEquals(2, checker.getAmountOfDirtyEntities());
+        assertTrue(checker.checkDirtyEntities().isEmpty());
+    }
+
+    @Test
+    public void testDirtySweepFindsInconsistentEntity() throws Exception {
+        Hero hero = new Hero("Artemis");
+        Weapon weapon = new Weapon(null, null);
+        hero.equip(AnchorPoint.LEFTHAND, weapon);
+        moveAnchorPoint(weapon, AnchorPoint.RIGHTHAND);
+
+        assertEquals(List.of(hero), checker.checkDirtyEntities());
+        assertEquals(List.of(weapon), checker.checkDirtyItems());
+        assertTrue(checker.checkDirtyEntities().isEmpty());
+        moveAnchorPoint(weapon, AnchorPoint.LEFTHAND);
+    }
+
+    @Test
+    public void testStoredItemsAreConsistent() throws Exception {
+        Hero hero = new Hero("Artemis");
+        Backpack backpack = new Backpack(1, 20, 50, hero, AnchorPoint.LEFTHAND, ShineLevel.LOW);
+        Backpack inner = new Backpack(1, 10, 20, null, null, ShineLevel.LOW);
+        Weapon weapon = new Weapon(null, null);
+        inner.storeItem(weapon);
+        backpack.storeItem(inner);
+        assertSame(hero, weapon.getHolder());
+        assertTrue(InvariantChecker.isConsistent(hero));
+        assertTrue(InvariantChecker.isConsistent(weapon));
+
+        backpack.unpackItem(inner);
+        assertTrue(InvariantChecker.isConsistent(inner));
+        assertTrue(InvariantChecker.isConsistent(weapon));
+        assertTrue(checker.checkDirtyEntities().isEmpty());
+        assertTrue(checker.checkDirtyItems().isEmpty());
+
+        hero.kill();
+        assertTrue(InvariantChecker.isConsistent(hero));
+        assertNull(backpack.getHolder());
+    }
+
+    @Test
+    public void testItemClaimedDuringATransferIsConsistent() throws Exception {
+        Hero hero = new Hero("Artemis");
+        Weapon placeholder = new Weapon(1, null, null, ShineLevel.LOW, 5);
+        hero.equip(AnchorPoint.LEFTHAND, placeholder);
+        Weapon weapon = new Weapon(1, null, null, ShineLevel.LOW, 5);
+
+        boolean[] claimedAndConsistent = new boolean[2];
+        MutationListener probe = new MutationListener() {
+            @Override
+            public void entityChanged(Entity entity) {
+            }
+
+            @Override
+            public void itemChanged(Item item) {
+                if (item != placeholder || weapon.getHolder() == null) return;
+                claimedAndConsistent[0] = weapon.getEquippedAnchorPoint() == null;
+                claimedAndConsistent[1] = InvariantChecker.isConsistent(weapon);
+            }
+        };
+        Entity.addMutationListener(probe);
+        EntityLocks.setEnabled(true);
+        try {
+            hero.equip(AnchorPoint.LEFTHAND, weapon);
+        } finally {
+            EntityLocks.setEnabled(false);
+            Entity.removeMutationListener(probe);
+        }
+
+        assertTrue(claimedAndConsistent[0]);
+        assertTrue(claimedAndConsistent[1]);
+        assertSame(weapon, hero.getItemAt(AnchorPoint.LEFTHAND));
+        assertTrue(checker.checkDirtyItems().isEmpty());
+    }
+
+    @Test
+    public void testFullSweepFindsInconsistentEntities() throws Exception {
+        List<Hero> heroes = new ArrayList<>();
+        for (int index = 0; index < 200; index++) {
+            heroes.add(new Hero("Artemis"));
+        }
+        assertTrue(InvariantChecker.checkAll(heroes).isEmpty());
+
+        Weapon weapon = new Weapon(null, null);
+        heroes.get(123).equip(AnchorPoint.LEFTHAND, weapon);
+        moveAnchorPoint(weapon, AnchorPoint.RIGHTHAND);
+        assertEquals(List.of(heroes.get(123)), InvariantChecker.checkAll(heroes));
+        moveAnchorPoint(weapon, AnchorPoint.LEFTHAND);
+        assertTrue(InvariantChecker.checkAll(heroes).isEmpty());
+    }
+}
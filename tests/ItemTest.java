@@ -4,6 +4,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import javax.naming.InvalidNameException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -97,4 +100,166 @@ public class ItemTest {
         Weapon weapon = new Weapon(entity, anchorPoint);
         assertFalse(weapon.isTerminated());
     }
+
+    @Test
+    public void testHolderFollowsNestedBackpackMoves() throws Exception {
+        Hero other = new Hero("Apollo");
+        Backpack outer = new Backpack(1, 10, 100, entity, AnchorPoint.LEFTHAND, ShineLevel.LOW);
+        Backpack inner = new Backpack(1, 10, 50, null, null, ShineLevel.LOW);
+        Weapon weapon = new Weapon(2, null, null, ShineLevel.LOW, 5);
+        inner.storeItem(weapon);
+        outer.storeItem(inner);
+
+        assertTrue(entity.hasAsItem(weapon));
+        assertTrue(weapon.isValidHolder(entity));
+
+        other.equip(AnchorPoint.LEFTHAND, outer);
+        assertFalse(entity.hasAsItem(weapon));
+        assertTrue(other.hasAsItem(weapon));
+        assertEquals(other, inner.getHolder());
+
+        other.unequip(AnchorPoint.LEFTHAND, outer);
+        assertNull(weapon.getHolder());
+        assertFalse(other.hasAsItem(inner));
+    }
+
+    @Test
+    public void testBackpackCannotBeStoredInItself() throws Exception {
+        Backpack outer = new Backpack(1, 10, 100, entity, AnchorPoint.LEFTHAND, ShineLevel.LOW);
+        Backpack inner = new Backpack(1, 10, 50, null, null, ShineLevel.LOW);
+        outer.storeItem(inner);
+
+        assertFalse(outer.canAddItem(outer));
+        assertFalse(inner.canAddItem(outer));
+        inner.storeItem(outer);
+        assertEquals(outer, inner.getBackpack());
+        assertNull(outer.getBackpack());
+    }
+
+    @Test
+    public void testOwnershipStaysConsistentUnderRandomMoves() throws Exception {
+        Random random = new Random(29);
+        List<Entity> heroes = List.of(entity, new Hero("Apollo"), new Hero("Hermes"));
+        List<Backpack> backpacks = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+        for (int index = 0; index < 6; index++) {
+            Backpack backpack = new Backpack(1, 10, 100, null, null, ShineLevel.LOW);
+            backpacks.add(backpack);
+            items.add(backpack);
+        }
+        for (int index = 0; index < 30; index++) {
+            items.add(new Weapon(1, null, null, ShineLevel.LOW, 5));
+        }
+        AnchorPoint[] hands = {AnchorPoint.LEFTHAND, AnchorPoint.RIGHTHAND, AnchorPoint.BACK};
+
+        for (int step = 0; step < 3000; step++) {
+            Item item = items.get(random.nextInt(items.size()));
+            Entity hero = heroes.get(random.nextInt(heroes.size()));
+            switch (random.nextInt(4)) {
+                case 0 -> hero.equip(hands[random.nextInt(hands.length)], item);
+                case 1 -> backpacks.get(random.nextInt(backpacks.size())).storeItem(item);
+                case 2 -> {
+                    if (item.getBackpack() != null) item.getBackpack().unpackItem(item);
+                }
+                default -> {
+                    if (item.getHolder() != null) item.getHolder().unequip(item.getHolder().getAnchorPointWithItem(item), item);
+                }
+            }
+
+            for (Entity owner : heroes) {
+                ArrayList<Item> reachable = owner.getAllItems();
+                for (Item candidate : items) {
+                    assertEquals(reachable.contains(candidate), owner.hasAsItem(candidate), "step " + step);
+                }
+                assertTrue(owner.hasValidItems(), "step " + step);
+            }
+        }
+    }
+
+    @Test
+    public void testTerminate_UnequipsItem() throws Exception {
+        double heroWeight = entity.getTotalWeight();
+        Weapon weapon = new Weapon(3, entity, AnchorPoint.RIGHTHAND, ShineLevel.LOW, 5);
+        assertEquals(heroWeight + 3, entity.getTotalWeight());
+
+        weapon.terminate();
+
+        assertTrue(weapon.isTerminated());
+        assertNull(weapon.getHolder());
+        assertNull(entity.getItemAt(AnchorPoint.RIGHTHAND));
+        assertEquals(heroWeight, entity.getTotalWeight());
+        assertTrue(entity.hasValidItems());
+    }
+
+    @Test
+    public void testTerminate_ReleasesEveryItemOfABackpack() throws Exception {
+        double heroWeight = entity.getTotalWeight();
+        Backpack backpack = new Backpack(1, 10, 100, entity, AnchorPoint.LEFTHAND, ShineLevel.LOW);
+        Backpack inner = new Backpack(1, 10, 50, null, null, ShineLevel.LOW);
+        List<Item> weapons = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            weapons.add(new Weapon(1, null, null, ShineLevel.LOW, 5));
+        }
+        inner.storeItem(weapons.get(0));
+        List<Item> content = new ArrayList<>(weapons.subList(1, 5));
+        content.add(inner);
+        backpack.storeAll(content);
+
+        backpack.terminate();
+
+        assertTrue(backpack.isTerminated());
+        assertEquals(0, backpack.getAmountOfItems());
+        assertNull(entity.getItemAt(AnchorPoint.LEFTHAND));
+        assertEquals(heroWeight, entity.getTotalWeight());
+        for (Item weapon : weapons.subList(1, 5)) {
+            assertFalse(weapon.isTerminated());
+            assertNull(weapon.getBackpack());
+            assertNull(weapon.getHolder());
+        }
+        assertTrue(inner.hasAsItem(weapons.get(0)));
+        assertNull(weapons.get(0).getHolder());
+        assertEquals(1, inner.getContentWeight());
+    }
+
+    @Test
+    public void testTerminateAll_TerminatesDeepTreesWithoutRecursion() throws Exception {
+        double heroWeight = entity.getTotalWeight();
+        List<Item> all = new ArrayList<>();
+        Backpack chain = new Backpack(1, 10, 1_000_000, null, null, ShineLevel.LOW);
+        all.add(chain);
+        for (int depth = 0; depth < 2_000; depth++) {
+            Backpack outer = new Backpack(1, 10, 1_000_000, null, null, ShineLevel.LOW);
+            outer.storeItem(chain);
+            all.add(outer);
+            chain = outer;
+        }
+        List<Item> wide = new ArrayList<>();
+        for (int branch = 0; branch < 200; branch++) {
+            Backpack backpack = new Backpack(1, 10, 1_000_000, null, null, ShineLevel.LOW);
+            List<Item> weapons = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                weapons.add(new Weapon(0, null, null, ShineLevel.LOW, 5));
+            }
+            backpack.storeAll(weapons);
+            all.addAll(weapons);
+            all.add(backpack);
+            wide.add(backpack);
+        }
+        chain.storeAll(wide);
+        Backpack root = new Backpack(1, 10, 1_000_000, entity, AnchorPoint.LEFTHAND, ShineLevel.LOW);
+        root.storeItem(chain);
+        all.add(root);
+
+        root.terminateAll();
+
+        assertEquals(heroWeight, entity.getTotalWeight());
+        assertNull(entity.getItemAt(AnchorPoint.LEFTHAND));
+        for (Item item : all) {
+            assertTrue(item.isTerminated());
+            assertNull(item.getHolder());
+            assertNull(item.getBackpack());
+            assertEquals(0, item.getAmountOfItems());
+        }
+        assertTrue(entity.hasValidItems());
+    }
 }
@@ -0,0 +1,92 @@
+import com.RPG.Core.*;
+import com.RPG.Exception.InvalidDamageTypesException;
+import com.RPG.Exception.InvalidSkinTypeException;
+import com.RPG.Exception.InvalidValueException;
+import org.junit.jupiter.api.Test;
+
+import javax.naming.InvalidNameException;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonsterArchetypeTest {
+
+    @Test
+    public void testSpawnMatchesConstructor() throws Exception {
+        MonsterArchetype archetype = new MonsterArchetype("Gorgon");
+        Monster spawned = archetype.spawn();
+        Monster constructed = new Monster("Gorgon");
+
+        assertEquals(constructed.getName(), spawned.getName());
+        assertEquals(constructed.getHP(), spawned.getHP());
+        assertEquals(constructed.getMaxHP(), spawned.getMaxHP());
+        assertSame(constructed.getAnchorLayout(), spawned.getAnchorLayout());
+        assertEquals(constructed.getDamageTypes(), spawned.getDamageTypes());
+        assertEquals(constructed.getSkinType(), spawned.getSkinType());
+        assertEquals(constructed.getCapacity(), spawned.getCapacity());
+        assertEquals(constructed.getDefense(), spawned.getDefense());
+        assertTrue(spawned.hasValidDamageTypes());
+        assertTrue(InvariantChecker.isConsistent(spawned));
+    }
+
+    @Test
+    public void testSpawnedMonstersShareTheArchetype() throws Exception {
+        MonsterArchetype archetype = new MonsterArchetype("Hydra", 541L,
+                List.of(AnchorPoint.BODY, AnchorPoint.BACK), new HashSet<>(List.of(DamageType.TAIL)), SkinType.TOUGH, 0F);
+        Monster first = archetype.spawn();
+        Monster second = archetype.spawn();
+        assertNotSame(first, second);
+        assertNotEquals(first.getId(), second.getId());
+        assertSame(first.getAnchorLayout(), second.getAnchorLayout());
+        assertEquals(0, first.getOccupiedMask());
+        assertTrue(first.hasDamageType(DamageType.TAIL));
+        assertEquals(541L, second.getMaxHP());
+    }
+
+    @Test
+    public void testLootChanceOfOneFillsEveryAnchorPoint() throws Exception {
+        MonsterArchetype archetype = new MonsterArchetype("Hydra", 997L,
+                List.of(AnchorPoint.LEFTHAND, AnchorPoint.RIGHTHAND), new HashSet<>(List.of(DamageType.CLAWS)),
+                SkinType.THICK, 1F);
+        for (int index = 0; index < 20; index++) {
+            Monster monster = archetype.spawn();
+            for (int anchor = 0; anchor < monster.getAmountOfAnchorPoints(); anchor++) {
+                AnchorPoint anchorPoint = monster.getAnchorPointAt(anchor);
+                Item item = monster.getItemAt(anchorPoint);
+                assertTrue(item == null || item.getHolder() == monster);
+            }
+            assertTrue(InvariantChecker.isConsistent(monster));
+        }
+    }
+
+    @Test
+    public void testInvalidArchetypes() {
+        assertThrows(InvalidNameException.class, () -> new MonsterArchetype("gorgon"));
+        assertThrows(InvalidSkinTypeException.class, () -> new MonsterArchetype("Gorgon", 997L,
+                List.of(AnchorPoint.BODY), new HashSet<>(List.of(DamageType.CLAWS)), SkinType.NORMAL));
+        assertThrows(InvalidDamageTypesException.class, () -> new MonsterArchetype("Gorgon", 997L,
+                List.of(AnchorPoint.BODY), new HashSet<>(List.of(DamageType.CLAWS, DamageType.TAIL)), SkinType.THICK));
+        assertThrows(InvalidDamageTypesException.class, () -> new MonsterArchetype("Gorgon", 997L,
+                List.of(AnchorPoint.BODY), null, SkinType.THICK));
+        assertThrows(InvalidValueException.class, () -> new MonsterArchetype("Gorgon", 997L,
+                List.of(AnchorPoint.BODY), new HashSet<>(List.of(DamageType.CLAWS)), SkinType.THICK, 1.5F));
+    }
+
+    @Test
+    public void testPoolRespawnsArchetype() throws Exception {
+        MonsterArchetype archetype = new MonsterArchetype("Hydra", 541L,
+                List.of(AnchorPoint.BODY), new HashSet<>(List.of(DamageType.TAIL)), SkinType.TOUGH, 0F);
+        MonsterPool pool = new MonsterPool(1);
+        Monster monster = new Monster("Gorgon");
+        monster.kill();
+        pool.release(monster);
+
+        assertSame(monster, pool.acquire(archetype));
+        assertEquals("Hydra", monster.getName());
+        assertSame(archetype.getAnchorLayout(), monster.getAnchorLayout());
+        assertEquals(archetype.getDamageTypeMask(), monster.getDamageTypeMask());
+        assertFalse(monster.isTerminated());
+        assertNotSame(monster, pool.acquire(archetype));
+    }
+}
@@ -0,0 +1,154 @@
+import com.RPG.Core.*;
+import com.RPG.Exception.InvalidDamageTypesException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.naming.InvalidNameException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonsterPoolTest {
+
+    private MonsterPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new MonsterPool(2);
+    }
+
+    private static void assertSameState(Monster expected, Monster actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getHP(), actual.getHP());
+        assertEquals(expected.getMaxHP(), actual.getMaxHP());
+        assertSame(expected.getAnchorLayout(), actual.getAnchorLayout());
+        assertEquals(expected.getDamageTypes(), actual.getDamageTypes());
+        assertEquals(expected.getSkinType(), actual.getSkinType());
+        assertEquals(expected.getCapacity(), actual.getCapacity());
+        assertEquals(expected.getDefense(), actual.getDefense());
+        assertEquals(expected.isTerminated(), actual.isTerminated());
+    }
+
+    @Test
+    public void testRecycledMonsterMatchesNewMonster() throws Exception {
+        Monster monster = new Monster("Gorgon");
+        monster.reduceHP(500);
+        monster.kill();
+        assertTrue(pool.release(monster));
+
+        ArrayList<AnchorPoint> anchorPoints = new ArrayList<>(List.of(AnchorPoint.BODY, AnchorPoint.BACK));
+        HashSet<DamageType> damageTypes = new HashSet<>(List.of(DamageType.TAIL));
+        Monster recycled = pool.acquire("Hydra", 541L, anchorPoints, damageTypes, SkinType.TOUGH);
+        assertSame(monster, recycled);
+        assertSameState(new Monster("Hydra", 541L, anchorPoints, damageTypes, SkinType.TOUGH), recycled);
+        assertEquals(0, pool.getAmountOfPooledMonsters());
+
+        double weight = 0;
+        for (Item item : recycled.getAllItems()) {
+            assertSame(recycled, item.getHolder());
+            if (item.getBackpack() == null) weight += item.getTotalWeight();
+        }
+        assertEquals(weight, recycled.getTotalWeight(), 1e-9);
+        assertTrue(InvariantChecker.isConsistent(recycled));
+
+        recycled.kill();
+        assertTrue(pool.release(recycled));
+        assertSameState(new Monster("Gorgon"), pool.acquire("Gorgon"));
+    }
+
+    @Test
+    public void testReleaseRejectsLivingDuplicateAndOverflow() throws Exception {
+        Monster living = new Monster("Gorgon");
+        assertFalse(pool.release(living));
+        assertFalse(pool.release(null));
+
+        Monster first = new Monster("Gorgon");
+        Monster second = new Monster("Gorgon");
+        Monster third = new Monster("Gorgon");
+        first.kill();
+        second.kill();
+        third.kill();
+        assertTrue(pool.release(first));
+        assertFalse(pool.release(first));
+        assertTrue(pool.release(second));
+        assertFalse(pool.release(third));
+        assertEquals(2, pool.getAmountOfPooledMonsters());
+    }
+
+    @Test
+    public void testInvalidArgumentsKeepMonsterPooled() throws Exception {
+        Monster monster = new Monster("Gorgon");
+        monster.kill();
+        pool.release(monster);
+
+        assertThrows(InvalidNameException.class, () -> pool.acquire("gorgon"));
+        assertThrows(InvalidDamageTypesException.class, () -> pool.acquire("Gorgon", 997L,
+                new ArrayList<>(List.of(AnchorPoint.BODY)), new HashSet<>(List.of(DamageType.NORMAL)), SkinType.THICK));
+        assertEquals(1, pool.getAmountOfPooledMonsters());
+        assertSame(monster, pool.acquire("Gorgon"));
+        assertNotSame(monster, pool.acquire("Gorgon"));
+    }
+
+    @Test
+    public void testRegistryFollowsRecycledMonster() throws Exception {
+        EntityRegistry registry = new EntityRegistry();
+        Monster monster = new Monster("Gorgon");
+        registry.register(monster);
+        monster.kill();
+        assertTrue(registry.getTerminated().contains(monster));
+        pool.release(monster);
+
+        pool.acquire("Hydra");
+        assertSame(registry, monster.getRegistry());
+        assertTrue(registry.getAlive().contains(monster));
+        assertTrue(registry.findByName("Gorgon").isEmpty());
+        assertEquals(List.of(monster), registry.findAlive("Hydra", Monster.class));
+    }
+
+    @Test
+    public void testConcurrentReleasesNeverExceedCapacity() throws Exception {
+        MonsterPool shared = new MonsterPool(10);
+        List<Monster> monsters = new ArrayList<>();
+        for (int index = 0; index < 200; index++) {
+            Monster monster = new Monster("Goblin");
+            monster.kill();
+            monsters.add(monster);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int worker = 0; worker < 4; worker++) {
+            int first = worker;
+            futures.add(executor.submit(() -> {
+                int released = 0;
+                for (int index = first; index < monsters.size(); index += 4) {
+                    if (shared.release(monsters.get(index))) released++;
+                    if (shared.release(monsters.get(index))) released++;
+                }
+                return released;
+            }));
+        }
+        int released = 0;
+        for (Future<Integer> future : futures) {
+            released += future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(10, released);
+        assertEquals(10, shared.getAmountOfPooledMonsters());
+
+        for (int index = 0; index < 10; index++) {
+            shared.acquire("Goblin");
+        }
+        assertEquals(0, shared.getAmountOfPooledMonsters());
+        Monster late = new Monster("Goblin");
+        late.kill();
+        assertTrue(shared.release(late));
+        assertEquals(1, shared.getAmountOfPooledMonsters());
+    }
+}
@@ -0,0 +1,49 @@
+import com.RPG.Core.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonsterSpawnerTest {
+
+    @Test
+    public void testSpawnsDistinctMonstersOfTheArchetype() throws Exception {
+        MonsterArchetype archetype = new MonsterArchetype("Gorgon");
+        List<Monster> monsters = MonsterSpawner.spawn(archetype, 5_000);
+        assertEquals(5_000, monsters.size());
+        Set<Long> ids = new HashSet<>();
+        for (Monster monster : monsters) {
+            assertEquals("Gorgon", monster.getName());
+            assertSame(archetype.getAnchorLayout(), monster.getAnchorLayout());
+            assertTrue(ids.add(monster.getId()));
+            assertTrue(InvariantChecker.isConsistent(monster));
+        }
+        assertThrows(UnsupportedOperationException.class, () -> monsters.set(0, null));
+        assertTrue(MonsterSpawner.spawn(archetype, 0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> MonsterSpawner.spawn(archetype, -1));
+    }
+
+    @Test
+    public void testSameSeedGivesSameLoot() throws Exception {
+        MonsterArchetype archetype = new MonsterArchetype("Gorgon");
+        List<Monster> first = MonsterSpawner.spawn(archetype, 3_000, 42L);
+        List<Monster> second = MonsterSpawner.spawn(archetype, 3_000, 42L);
+        int looted = 0;
+        for (int index = 0; index < first.size(); index++) {
+            Monster one = first.get(index);
+            Monster other = second.get(index);
+            assertEquals(one.getOccupiedMask(), other.getOccupiedMask());
+            for (int anchor = 0; anchor < one.getAmountOfAnchorPoints(); anchor++) {
+                AnchorPoint anchorPoint = one.getAnchorPointAt(anchor);
+                Item item = one.getItemAt(anchorPoint);
+                assertEquals(item == null ? null : item.getItemType(),
+                        other.getItemAt(anchorPoint) == null ? null : other.getItemAt(anchorPoint).getItemType());
+            }
+            if (one.getOccupiedMask() != 0) looted++;
+        }
+        assertTrue(looted > 0);
+    }
+}
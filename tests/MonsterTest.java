@@ -1,3 +1,4 @@
+import com.RPG.Core.AnchorLayout;
 import com.RPG.Core.AnchorPoint;
 import com.RPG.Core.DamageType;
 import com.RPG.Core.Monster;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 
 import javax.naming.InvalidNameException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -127,4 +129,30 @@ public class MonsterTest {
         Monster monster = assertDoesNotThrow(() -> new Monster(validName));
         assertEquals("^[A-Z][a-zA-Z ’:]*$", monster.getNameRegex());
     }
+
+    @Test
+    public void testDuplicateAnchorPointsShareLayout() throws Exception {
+        ArrayList<AnchorPoint> anchorPoints = new ArrayList<>(List.of(
+                AnchorPoint.BODY,
+                AnchorPoint.BODY,
+                AnchorPoint.BACK
+        ));
+        Monster first = new Monster(validName, validHP, anchorPoints, validDamageTypes, validSkinType);
+        Monster second = new Monster("Kobold", validHP, new ArrayList<>(anchorPoints), validDamageTypes, validSkinType);
+
+        assertSame(first.getAnchorLayout(), second.getAnchorLayout());
+        assertEquals(3, first.getAmountOfAnchorPoints());
+        assertEquals(2, first.getAnchorLayout().count(AnchorPoint.BODY));
+        assertTrue(first.getAnchorLayout().hasDuplicates());
+        assertEquals(AnchorLayout.bit(AnchorPoint.BODY) | AnchorLayout.bit(AnchorPoint.BACK), first.getAnchorLayout().getMask());
+        assertEquals(AnchorPoint.BODY, first.getAnchorPointAt(1));
+        assertNull(first.getAnchorPointAt(3));
+        assertFalse(first.hasAnchorpoint(AnchorPoint.BELT));
+    }
+
+    @Test
+    public void testValidateNames() {
+        boolean[] valid = Monster.validateNames(Arrays.asList("Goblin", "goblin", "", null, "Orc: Chief", "Orc2"));
+        assertArrayEquals(new boolean[]{true, false, false, false, true, false}, valid);
+    }
 }
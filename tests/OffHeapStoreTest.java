@@ -0,0 +1,178 @@
+import com.RPG.Core.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapStoreTest {
+
+    private OffHeapStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new OffHeapStore(4);
+    }
+
+    @Test
+    public void testRecordsMatchTheEntitiesTheyCopy() throws Exception {
+        Hero hero = new Hero("Artemis");
+        Backpack backpack = new Backpack(1, 20, 50, hero, AnchorPoint.LEFTHAND, ShineLevel.LOW);
+        Weapon weapon = new Weapon(null, null);
+        backpack.storeItem(weapon);
+        assertSame(backpack, hero.getItemAt(AnchorPoint.LEFTHAND));
+        assertSame(backpack, weapon.getBackpack());
+
+        int handle = store.storeEntity(hero);
+        OffHeapStore.EntityView view = store.entityView().moveTo(handle);
+        assertEquals(hero.getId(), view.getId());
+        assertEquals(hero.getHP(), view.getHP());
+        assertEquals(hero.getStrength(), view.getStrength());
+        assertEquals(hero.getCapacity(), view.getCapacity());
+        assertEquals(hero.getDefense(), view.getDefense());
+        assertEquals(hero.getTotalWeight(), view.getTotalWeight(), 1e-9);
+        assertTrue(view.isHero());
+        assertTrue(view.hasAnchorpoint(AnchorPoint.BELT));
+
+        int[] amount = {0};
+        hero.forEachItem(item -> amount[0]++);
+        assertEquals(amount[0], store.getAmountOfItems());
+
+        OffHeapStore.ItemView items = store.itemView();
+        int backpackHandle = -1;
+        for (int index = 0; index < store.getAmountOfItems(); index++) {
+            items.moveTo(index);
+            assertEquals(handle, items.getHolder());
+            if (items.getId() == backpack.getId()) {
+                backpackHandle = index;
+                assertEquals(AnchorPoint.LEFTHAND, items.getEquippedAnchorPoint());
+                assertEquals(backpack.getTotalWeight(), items.getTotalWeight(), 1e-9);
+                assertEquals(50, items.getCapacity());
+            }
+        }
+        assertNotEquals(-1, backpackHandle);
+        for (int index = 0; index < store.getAmountOfItems(); index++) {
+            if (items.moveTo(index).getId() == weapon.getId()) {
+                assertEquals(backpackHandle, items.getContainer());
+                assertNull(items.getEquippedAnchorPoint());
+            }
+        }
+    }
+
+    @Test
+    public void testRecordsAreCopiesThatDoNotFollowTheirEntity() throws Exception {
+        Hero hero = new Hero("Artemis");
+        int before = store.storeEntity(hero);
+        long hp = hero.getHP();
+        hero.reduceHP(10);
+        OffHeapStore.EntityView view = store.entityView().moveTo(before);
+        assertEquals(hp, view.getHP());
+
+        assertEquals(before, store.storeEntity(hero));
+        assertEquals(hero.getHP(), view.moveTo(before).getHP());
+        assertEquals(1, store.getAmountOfEntities());
+
+        OffHeapStore.EntityView monster = store.entityView().moveTo(store.storeEntity(new Monster("Gorgon")));
+        assertFalse(monster.isHero());
+        assertFalse(monster.isTerminated());
+    }
+
+    @Test
+    public void testFreedRecordsAreReused() throws Exception {
+        Monster monster = new Monster("Gorgon");
+        int[] items = {0};
+        monster.forEachItem(item -> items[0]++);
+        Hero hero = new Hero("Artemis");
+        hero.kill();
+        int first = store.storeEntity(hero);
+        int second = store.storeEntity(monster);
+        assertTrue(store.entityView().moveTo(first).isTerminated());
+
+        assertEquals(1, store.freeTerminated());
+        assertEquals(1, store.getAmountOfEntities());
+        assertEquals(items[0], store.getAmountOfItems());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.entityView().moveTo(first));
+        assertEquals(0, store.freeTerminated());
+
+        assertEquals(second, store.storeEntity(monster));
+        assertEquals(first, store.storeEntity(new Monster("Gorgon")));
+        assertEquals(2 * items[0], store.getAmountOfItems());
+        assertFalse(store.entityView().moveTo(second).isTerminated());
+    }
+
+    @Test
+    public void testStoreGrowsAcrossChunks() throws Exception {
+        Monster[] monsters = new Monster[100];
+        int[] handles = new int[monsters.length];
+        for (int index = 0; index < handles.length; index++) {
+            monsters[index] = new Monster("Gorgon");
+            monsters[index].reduceHP(index);
+            handles[index] = store.storeEntity(monsters[index]);
+        }
+        OffHeapStore.EntityView view = store.entityView();
+        for (int index = 0; index < handles.length; index++) {
+            assertEquals(monsters[index].getHP(), view.moveTo(handles[index]).getHP());
+            assertEquals(monsters[index].getId(), view.getId());
+        }
+        assertEquals(100, store.getAmountOfEntities());
+    }
+
+    @Test
+    public void testStoringAgainReusesTheRecords() throws Exception {
+        Hero hero = new Hero("Artemis");
+        Backpack backpack = new Backpack(1, 20, 50, hero, AnchorPoint.LEFTHAND, ShineLevel.LOW);
+        Weapon weapon = new Weapon(null, null);
+        backpack.storeItem(weapon);
+        int handle = store.storeEntity(hero);
+        int items = store.getAmountOfItems();
+
+        for (int round = 0; round < 50; round++) {
+            hero.reduceHP(1);
+            assertEquals(handle, store.storeEntity(hero));
+        }
+        assertEquals(1, store.getAmountOfEntities());
+        assertEquals(items, store.getAmountOfItems());
+        assertEquals(hero.getHP(), store.entityView().moveTo(handle).getHP());
+
+        weapon.terminate();
+        store.storeEntity(hero);
+        assertEquals(items - 1, store.getAmountOfItems());
+        OffHeapStore.ItemView view = store.itemView();
+        for (int index = 0; index < items; index++) {
+            if (view.isLive(index)) {
+                assertNotEquals(weapon.getId(), view.moveTo(index).getId());
+            }
+        }
+    }
+
+    @Test
+    public void testReplaceAndFreeByHandle() throws Exception {
+        Hero hero = new Hero("Artemis");
+        Monster monster = new Monster("Gorgon");
+        int[] monsterItems = {0};
+        monster.forEachItem(item -> monsterItems[0]++);
+        int handle = store.storeEntity(hero);
+
+        store.replaceEntity(handle, monster);
+        assertEquals(handle, store.getHandleOf(monster));
+        assertEquals(-1, store.getHandleOf(hero));
+        assertFalse(store.entityView().moveTo(handle).isHero());
+        assertEquals(monsterItems[0], store.getAmountOfItems());
+
+        int other = store.storeEntity(hero);
+        assertThrows(IllegalArgumentException.class, () -> store.replaceEntity(other, monster));
+
+        store.free(handle);
+        assertEquals(-1, store.getHandleOf(monster));
+        assertEquals(1, store.getAmountOfEntities());
+        assertEquals(0, store.getAmountOfItems() - countItems(hero));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.free(handle));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.replaceEntity(handle, monster));
+        assertEquals(handle, store.storeEntity(monster));
+    }
+
+    private static int countItems(Entity entity) {
+        int[] amount = {0};
+        entity.forEachItem(item -> amount[0]++);
+        return amount[0];
+    }
+}
@@ -0,0 +1,68 @@
+import com.RPG.Core.PrimeService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrimeServiceTest {
+
+    private static boolean isPrimeByTrialDivision(long number) {
+        if (number < 2) {
+            return false;
+        }
+        for (long divisor = 2; divisor * divisor <= number; divisor++) {
+            if (number % divisor == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testSmallNumbersMatchTrialDivision() {
+        for (long number = -5; number < 20_000; number++) {
+            assertEquals(isPrimeByTrialDivision(number), PrimeService.isPrime(number), "number " + number);
+        }
+    }
+
+    @Test
+    public void testNumbersAroundSieveLimitMatchTrialDivision() {
+        long limit = 1 << 21;
+        for (long number = limit - 2_000; number < limit + 2_000; number++) {
+            assertEquals(isPrimeByTrialDivision(number), PrimeService.isPrime(number), "number " + number);
+        }
+    }
+
+    @Test
+    public void testLargeNumbers() {
+        assertTrue(PrimeService.isPrime(1_000_000_007L));
+        assertTrue(PrimeService.isPrime(Long.MAX_VALUE - 24));
+        assertFalse(PrimeService.isPrime(Long.MAX_VALUE));
+        assertFalse(PrimeService.isPrime(3_215_031_751L));
+        assertFalse(PrimeService.isPrime(3_825_123_056_546_413_051L));
+        assertFalse(PrimeService.isPrime(1_000_000_007L * 998_244_353L));
+    }
+
+    @Test
+    public void testNextPrime() {
+        assertEquals(2, PrimeService.nextPrime(-10));
+        assertEquals(2, PrimeService.nextPrime(2));
+        assertEquals(3, PrimeService.nextPrime(3));
+        assertEquals(11, PrimeService.nextPrime(8));
+        assertEquals(997, PrimeService.nextPrime(997));
+        assertEquals(1_000_000_007L, PrimeService.nextPrime(1_000_000_000L));
+        assertEquals(Long.MAX_VALUE - 24, PrimeService.nextPrime(Long.MAX_VALUE - 150));
+        assertThrows(ArithmeticException.class, () -> PrimeService.nextPrime(Long.MAX_VALUE - 23));
+    }
+
+    @Test
+    public void testNextPrimeAcrossSieveLimitMatchesTrialDivision() {
+        long limit = 1 << 21;
+        for (long number = limit - 300; number < limit + 300; number++) {
+            long expected = number;
+            while (!isPrimeByTrialDivision(expected)) {
+                expected++;
+            }
+            assertEquals(expected, PrimeService.nextPrime(number), "number " + number);
+        }
+    }
+}
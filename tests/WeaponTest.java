@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import javax.naming.InvalidNameException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -86,6 +87,38 @@ class WeaponTest {
         }
     }
 
+    @Test
+    void testIdsSpawnedInParallelAreUniqueMultiplesOfSix() throws InterruptedException {
+        Set<Long> weaponIds = ConcurrentHashMap.newKeySet();
+        Set<Long> backpackIds = ConcurrentHashMap.newKeySet();
+        Thread[] spawners = new Thread[8];
+        for (int t = 0; t < spawners.length; t++) {
+            spawners[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 500; i++) {
+                        assertTrue(weaponIds.add(new Weapon(null, null).getId()));
+                        assertTrue(backpackIds.add(new Backpack(null, null).getId()));
+                    }
+                } catch (InvalidHolderException | InvalidValueException e) {
+                    assert false;
+                }
+            });
+            spawners[t].start();
+        }
+        for (Thread spawner : spawners) {
+            spawner.join();
+        }
+        assertEquals(8 * 500, weaponIds.size());
+        assertEquals(8 * 500, backpackIds.size());
+        for (long id : weaponIds) {
+            assertTrue(id > 0);
+            assertEquals(0, id % 6);
+        }
+        for (long id : backpackIds) {
+            assertTrue(id > 0);
+        }
+    }
+
     @Test
     void testWeaponHasNoContainedItems() throws InvalidHolderException, InvalidValueException {
         Weapon weapon = new Weapon(holder, anchor);